@@ -0,0 +1,72 @@
+package benchmark;
+
+import domain.functional.es.customer.Customer6;
+import domain.functional.es.customer.CustomerBatch;
+import domain.shared.command.ChangeCustomerEmailAddress;
+import domain.shared.command.ConfirmCustomerEmailAddress;
+import domain.shared.event.Event;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A burst of alternating email address changes and confirmations for one customer, handled command by command
+ * with Customer6 (one reconstitution per command) versus as one CustomerBatch (one reconstitution per burst).
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchCommandBenchmark {
+    @Param({"10", "100", "1000"})
+    public int streamLength;
+
+    @Param({"2", "8"})
+    public int commandsPerBurst;
+
+    private EventStreams stream;
+    private List<Object> commands;
+    private ArrayList<Event> eventStream;
+
+    @Setup
+    public void setUp() {
+        stream = EventStreams.ofLength(streamLength);
+        commands = new ArrayList<>();
+        for (int i = 0; i < commandsPerBurst; i++) {
+            if (i % 2 == 0) {
+                commands.add(ChangeCustomerEmailAddress.build(stream.customerID.value(), "john+burst" + i + "@doe.com"));
+            } else {
+                commands.add(ConfirmCustomerEmailAddress.build(stream.customerID.value(), stream.confirmationHash.value()));
+            }
+        }
+        eventStream = new ArrayList<>(stream.events);
+    }
+
+    @Benchmark
+    public Object perCommand() {
+        eventStream.subList(stream.events.size(), eventStream.size()).clear();
+        var recordedEvents = new ArrayList<Event>();
+
+        for (Object command : commands) {
+            List<Event> events;
+            if (command instanceof ChangeCustomerEmailAddress change) {
+                events = Customer6.changeEmailAddress(eventStream, change);
+            } else {
+                events = Customer6.confirmEmailAddress(eventStream, (ConfirmCustomerEmailAddress) command);
+            }
+            eventStream.addAll(events);
+            recordedEvents.addAll(events);
+        }
+
+        return recordedEvents;
+    }
+
+    @Benchmark
+    public Object batch() {
+        return CustomerBatch.handle(stream.events, commands);
+    }
+}
@@ -0,0 +1,38 @@
+package benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Runs the selected benchmarks once per thread count with the gc profiler attached, which reports the
+ * allocation rate next to throughput and average time.
+ * <p>
+ * Arguments: include pattern, comma separated thread counts, report directory.
+ */
+public class BenchmarkMain {
+    public static void main(String[] args) throws RunnerException, IOException {
+        var include = args.length > 0 ? args[0] : ".*";
+        var threadCounts = args.length > 1 ? args[1] : "1";
+        var reportDirectory = Path.of(args.length > 2 ? args[2] : "build/reports/jmh");
+        Files.createDirectories(reportDirectory);
+
+        for (String threads : threadCounts.split(",")) {
+            var options = new OptionsBuilder()
+                    .include(include)
+                    .threads(Integer.parseInt(threads.trim()))
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(reportDirectory.resolve("results-" + threads.trim() + "-threads.json").toString())
+                    .build();
+
+            new Runner(options).run();
+        }
+    }
+}
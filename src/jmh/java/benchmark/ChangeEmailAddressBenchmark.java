@@ -0,0 +1,83 @@
+package benchmark;
+
+import domain.functional.es.customer.Customer5;
+import domain.functional.es.customer.Customer6;
+import domain.functional.es.customer.Customer7;
+import domain.functional.es.customer.CustomerState;
+import domain.functional.traditional.customer.Customer2;
+import domain.oop.es.customer.Customer3;
+import domain.oop.es.customer.Customer4;
+import domain.oop.traditional.customer.Customer1;
+import domain.shared.command.ChangeCustomerEmailAddress;
+import domain.shared.command.RegisterCustomer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChangeEmailAddressBenchmark {
+    @Param({"1", "10", "100", "1000", "10000"})
+    public int streamLength;
+
+    private EventStreams stream;
+    private ChangeCustomerEmailAddress command;
+    private ChangeCustomerEmailAddress traditionalCommand;
+    private Customer1 customer1;
+    private domain.functional.traditional.customer.CustomerState customer2;
+
+    @Setup
+    public void setUp() {
+        stream = EventStreams.ofLength(streamLength);
+        command = ChangeCustomerEmailAddress.build(stream.customerID.value(), "john+changed@doe.com");
+
+        var register = RegisterCustomer.build(stream.emailAddress.value, stream.name.givenName, stream.name.familyName);
+        customer1 = Customer1.register(register);
+        customer2 = Customer2.register(register);
+        traditionalCommand = ChangeCustomerEmailAddress.build(register.customerID.value(), "john+changed@doe.com");
+    }
+
+    @Benchmark
+    public Object customer1() {
+        customer1.changeEmailAddress(traditionalCommand);
+
+        return customer1;
+    }
+
+    @Benchmark
+    public Object customer2() {
+        return Customer2.changeEmailAddress(customer2, traditionalCommand);
+    }
+
+    @Benchmark
+    public Object customer3() {
+        return Customer3.reconstitute(stream.events).changeEmailAddress(command);
+    }
+
+    @Benchmark
+    public Object customer4() {
+        var customer = Customer4.reconstitute(stream.events);
+        customer.changeEmailAddress(command);
+
+        return customer.getRecordedEvents();
+    }
+
+    @Benchmark
+    public Object customer5() {
+        return Customer5.changeEmailAddress(stream.events, command);
+    }
+
+    @Benchmark
+    public Object customer6() {
+        return Customer6.changeEmailAddress(stream.events, command);
+    }
+
+    @Benchmark
+    public Object customer7() {
+        return Customer7.changeEmailAddress(CustomerState.reconstitute(stream.events), command);
+    }
+}
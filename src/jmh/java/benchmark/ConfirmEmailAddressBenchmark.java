@@ -0,0 +1,88 @@
+package benchmark;
+
+import domain.functional.es.customer.Customer5;
+import domain.functional.es.customer.Customer6;
+import domain.functional.es.customer.Customer7;
+import domain.functional.es.customer.CustomerState;
+import domain.functional.traditional.customer.Customer2;
+import domain.oop.es.customer.Customer3;
+import domain.oop.es.customer.Customer4;
+import domain.oop.traditional.customer.Customer1;
+import domain.shared.command.ConfirmCustomerEmailAddress;
+import domain.shared.command.RegisterCustomer;
+import domain.shared.exception.WrongConfirmationHashException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The event-sourced variants pay for reconstituting the stream on every command, the traditional variants
+ * (Customer1, Customer2) work on state that is already loaded and serve as the baseline for every stream length.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfirmEmailAddressBenchmark {
+    @Param({"1", "10", "100", "1000", "10000"})
+    public int streamLength;
+
+    private EventStreams stream;
+    private ConfirmCustomerEmailAddress command;
+    private ConfirmCustomerEmailAddress traditionalCommand;
+    private Customer1 customer1;
+    private domain.functional.traditional.customer.CustomerState customer2;
+
+    @Setup
+    public void setUp() {
+        stream = EventStreams.ofLength(streamLength);
+        command = ConfirmCustomerEmailAddress.build(stream.customerID.value(), stream.confirmationHash.value());
+
+        var register = RegisterCustomer.build(stream.emailAddress.value, stream.name.givenName, stream.name.familyName);
+        customer1 = Customer1.register(register);
+        customer2 = Customer2.register(register);
+        traditionalCommand = ConfirmCustomerEmailAddress.build(register.customerID.value(), register.confirmationHash.value());
+    }
+
+    @Benchmark
+    public Object customer1() throws WrongConfirmationHashException {
+        customer1.confirmEmailAddress(traditionalCommand);
+
+        return customer1;
+    }
+
+    @Benchmark
+    public Object customer2() throws WrongConfirmationHashException {
+        return Customer2.confirmEmailAddress(customer2, traditionalCommand);
+    }
+
+    @Benchmark
+    public Object customer3() {
+        return Customer3.reconstitute(stream.events).confirmEmailAddress(command);
+    }
+
+    @Benchmark
+    public Object customer4() {
+        var customer = Customer4.reconstitute(stream.events);
+        customer.confirmEmailAddress(command);
+
+        return customer.getRecordedEvents();
+    }
+
+    @Benchmark
+    public Object customer5() {
+        return Customer5.confirmEmailAddress(stream.events, command);
+    }
+
+    @Benchmark
+    public Object customer6() {
+        return Customer6.confirmEmailAddress(stream.events, command);
+    }
+
+    @Benchmark
+    public Object customer7() {
+        return Customer7.confirmEmailAddress(CustomerState.reconstitute(stream.events), command);
+    }
+}
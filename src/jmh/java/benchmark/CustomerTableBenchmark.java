@@ -0,0 +1,125 @@
+package benchmark;
+
+import domain.functional.traditional.customer.CustomerState;
+import domain.functional.traditional.customer.CustomerTable;
+import domain.shared.value.EmailAddress;
+import domain.shared.value.Hash;
+import domain.shared.value.ID;
+import domain.shared.value.PersonName;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holding 100,000 traditional customer states as an object graph (CustomerStates in a HashMap by ID) versus a
+ * CustomerTable, in ns per customer. With the gc profiler, gc.alloc.rate.norm of the load benchmarks divided by
+ * the number of customers is what each customer allocates. The object graph retains all of it, the table drops
+ * the value objects passed to insert right away, so the difference is a lower bound of the memory saved per
+ * customer. The Strings are shared by both and not counted. The scan benchmarks count the confirmed customers
+ * with a given family name.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerTableBenchmark {
+    private static final int CUSTOMERS = 100_000;
+    private static final String[] GIVEN_NAMES = {"John", "Jane", "Max", "Erika", "Anna", "Paul", "Lena", "Tom"};
+    private static final String[] FAMILY_NAMES = {"Doe", "Mustermann", "Smith", "Meier", "Schmidt", "Jones"};
+
+    private long[] idBits;
+    private long[] hashBits;
+    private String[] emailAddresses;
+    private String[] givenNames;
+    private String[] familyNames;
+    private boolean[] confirmed;
+
+    private List<CustomerState> objectGraph;
+    private CustomerTable table;
+
+    @Setup
+    public void setUp() {
+        var random = new Random(42);
+        idBits = new long[2 * CUSTOMERS];
+        hashBits = new long[2 * CUSTOMERS];
+        emailAddresses = new String[CUSTOMERS];
+        givenNames = new String[CUSTOMERS];
+        familyNames = new String[CUSTOMERS];
+        confirmed = new boolean[CUSTOMERS];
+        for (int i = 0; i < CUSTOMERS; i++) {
+            var id = ID.generate();
+            var hash = Hash.generate();
+            idBits[2 * i] = id.mostSignificantBits();
+            idBits[2 * i + 1] = id.leastSignificantBits();
+            hashBits[2 * i] = hash.mostSignificantBits();
+            hashBits[2 * i + 1] = hash.leastSignificantBits();
+            emailAddresses[i] = "customer" + i + "@example.com";
+            givenNames[i] = GIVEN_NAMES[random.nextInt(GIVEN_NAMES.length)];
+            familyNames[i] = FAMILY_NAMES[random.nextInt(FAMILY_NAMES.length)];
+            confirmed[i] = random.nextBoolean();
+        }
+
+        objectGraph = new ArrayList<>(loadObjectGraph().values());
+        table = loadTable();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CUSTOMERS)
+    public HashMap<ID, CustomerState> loadObjectGraph() {
+        var states = new HashMap<ID, CustomerState>(2 * CUSTOMERS);
+        for (int i = 0; i < CUSTOMERS; i++) {
+            var id = ID.build(idBits[2 * i], idBits[2 * i + 1]);
+            states.put(id, new CustomerState(
+                    id,
+                    EmailAddress.build(emailAddresses[i]),
+                    Hash.build(hashBits[2 * i], hashBits[2 * i + 1]),
+                    PersonName.build(givenNames[i], familyNames[i]),
+                    confirmed[i]
+            ));
+        }
+
+        return states;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CUSTOMERS)
+    public CustomerTable loadTable() {
+        var customers = new CustomerTable(CUSTOMERS);
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customers.insert(
+                    ID.build(idBits[2 * i], idBits[2 * i + 1]),
+                    EmailAddress.build(emailAddresses[i]),
+                    Hash.build(hashBits[2 * i], hashBits[2 * i + 1]),
+                    PersonName.build(givenNames[i], familyNames[i]),
+                    confirmed[i]
+            );
+        }
+
+        return customers;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CUSTOMERS)
+    public int scanObjectGraph() {
+        int count = 0;
+        for (CustomerState state : objectGraph) {
+            if (state.isEmailAddressConfirmed() && state.name().familyName.equals("Doe")) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CUSTOMERS)
+    public int scanTable() {
+        return table.countConfirmedWithFamilyName("Doe");
+    }
+}
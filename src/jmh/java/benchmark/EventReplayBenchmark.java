@@ -0,0 +1,173 @@
+package benchmark;
+
+import domain.shared.event.*;
+import domain.shared.value.EmailAddress;
+import domain.shared.value.Hash;
+import domain.shared.value.ID;
+import domain.shared.value.PersonName;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Folds a long stream of randomly ordered events with four dispatch styles: class comparison chains, instanceof
+ * chains, a switch over the Event.type() tag, which is a field load on the Event base class, and a pattern switch
+ * over the sealed hierarchy. Throughput is reported in events.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventReplayBenchmark {
+    private static final int STREAM_LENGTH = 10_000;
+
+    private List<Event> events;
+
+    private EmailAddress emailAddress;
+    private Hash confirmationHash;
+    private PersonName name;
+    private boolean isEmailAddressConfirmed;
+    private int failedConfirmations;
+
+    @Setup
+    public void setUp() {
+        var customerID = ID.generate();
+        var random = new Random(42);
+        events = new ArrayList<>(STREAM_LENGTH);
+        for (int i = 0; i < STREAM_LENGTH; i++) {
+            switch (random.nextInt(5)) {
+                case 0:
+                    events.add(CustomerRegistered.build(customerID, EmailAddress.build("john@doe.com"), Hash.generate(), PersonName.build("John", "Doe")));
+                    break;
+                case 1:
+                    events.add(CustomerEmailAddressConfirmed.build(customerID));
+                    break;
+                case 2:
+                    events.add(CustomerEmailAddressConfirmationFailed.build(customerID));
+                    break;
+                case 3:
+                    events.add(CustomerEmailAddressChanged.build(customerID, EmailAddress.build("john+" + i + "@doe.com"), Hash.generate()));
+                    break;
+                default:
+                    events.add(CustomerNameChanged.build(customerID, PersonName.build("John", "Doe " + i)));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STREAM_LENGTH)
+    public Object classComparison() {
+        for (Event event : events) {
+            if (event.getClass() == CustomerRegistered.class) {
+                var registered = (CustomerRegistered) event;
+                emailAddress = registered.emailAddress;
+                confirmationHash = registered.confirmationHash;
+                name = registered.name;
+                isEmailAddressConfirmed = false;
+            } else if (event.getClass() == CustomerEmailAddressConfirmed.class) {
+                isEmailAddressConfirmed = true;
+            } else if (event.getClass() == CustomerEmailAddressConfirmationFailed.class) {
+                failedConfirmations++;
+            } else if (event.getClass() == CustomerEmailAddressChanged.class) {
+                var changed = (CustomerEmailAddressChanged) event;
+                emailAddress = changed.emailAddress;
+                confirmationHash = changed.confirmationHash;
+                isEmailAddressConfirmed = false;
+            } else if (event.getClass() == CustomerNameChanged.class) {
+                name = ((CustomerNameChanged) event).name;
+            }
+        }
+
+        return emailAddress;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STREAM_LENGTH)
+    public Object instanceOf() {
+        for (Event event : events) {
+            if (event instanceof CustomerRegistered) {
+                var registered = (CustomerRegistered) event;
+                emailAddress = registered.emailAddress;
+                confirmationHash = registered.confirmationHash;
+                name = registered.name;
+                isEmailAddressConfirmed = false;
+            } else if (event instanceof CustomerEmailAddressConfirmed) {
+                isEmailAddressConfirmed = true;
+            } else if (event instanceof CustomerEmailAddressConfirmationFailed) {
+                failedConfirmations++;
+            } else if (event instanceof CustomerEmailAddressChanged) {
+                var changed = (CustomerEmailAddressChanged) event;
+                emailAddress = changed.emailAddress;
+                confirmationHash = changed.confirmationHash;
+                isEmailAddressConfirmed = false;
+            } else if (event instanceof CustomerNameChanged) {
+                name = ((CustomerNameChanged) event).name;
+            }
+        }
+
+        return emailAddress;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STREAM_LENGTH)
+    public Object typeSwitch() {
+        for (Event event : events) {
+            switch (event.type()) {
+                case Event.CUSTOMER_REGISTERED:
+                    var registered = (CustomerRegistered) event;
+                    emailAddress = registered.emailAddress;
+                    confirmationHash = registered.confirmationHash;
+                    name = registered.name;
+                    isEmailAddressConfirmed = false;
+                    break;
+                case Event.CUSTOMER_EMAIL_ADDRESS_CONFIRMED:
+                    isEmailAddressConfirmed = true;
+                    break;
+                case Event.CUSTOMER_EMAIL_ADDRESS_CONFIRMATION_FAILED:
+                    failedConfirmations++;
+                    break;
+                case Event.CUSTOMER_EMAIL_ADDRESS_CHANGED:
+                    var changed = (CustomerEmailAddressChanged) event;
+                    emailAddress = changed.emailAddress;
+                    confirmationHash = changed.confirmationHash;
+                    isEmailAddressConfirmed = false;
+                    break;
+                case Event.CUSTOMER_NAME_CHANGED:
+                    name = ((CustomerNameChanged) event).name;
+                    break;
+            }
+        }
+
+        return emailAddress;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STREAM_LENGTH)
+    public Object patternSwitch() {
+        for (Event event : events) {
+            switch (event) {
+                case CustomerRegistered registered -> {
+                    emailAddress = registered.emailAddress;
+                    confirmationHash = registered.confirmationHash;
+                    name = registered.name;
+                    isEmailAddressConfirmed = false;
+                }
+                case CustomerEmailAddressConfirmed confirmed -> isEmailAddressConfirmed = true;
+                case CustomerEmailAddressConfirmationFailed failed -> failedConfirmations++;
+                case CustomerEmailAddressChanged changed -> {
+                    emailAddress = changed.emailAddress;
+                    confirmationHash = changed.confirmationHash;
+                    isEmailAddressConfirmed = false;
+                }
+                case CustomerNameChanged nameChanged -> name = nameChanged.name;
+            }
+        }
+
+        return emailAddress;
+    }
+}
@@ -0,0 +1,51 @@
+package benchmark;
+
+import domain.shared.event.*;
+import domain.shared.value.EmailAddress;
+import domain.shared.value.Hash;
+import domain.shared.value.ID;
+import domain.shared.value.PersonName;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A customer stream of the given length: the registration followed by alternating email address changes and
+ * confirmations. The current email address and confirmation hash are the ones of the last change.
+ */
+final class EventStreams {
+    final ID customerID;
+    final List<Event> events;
+    final EmailAddress emailAddress;
+    final Hash confirmationHash;
+    final PersonName name;
+
+    private EventStreams(ID customerID, List<Event> events, EmailAddress emailAddress, Hash confirmationHash, PersonName name) {
+        this.customerID = customerID;
+        this.events = events;
+        this.emailAddress = emailAddress;
+        this.confirmationHash = confirmationHash;
+        this.name = name;
+    }
+
+    static EventStreams ofLength(int length) {
+        var customerID = ID.generate();
+        var emailAddress = EmailAddress.build("john@doe.com");
+        var confirmationHash = Hash.generate();
+        var name = PersonName.build("John", "Doe");
+
+        var events = new ArrayList<Event>(length);
+        events.add(CustomerRegistered.build(customerID, emailAddress, confirmationHash, name));
+        for (int i = 1; i < length; i++) {
+            if (i % 2 == 1) {
+                emailAddress = EmailAddress.build("john+" + i + "@doe.com");
+                confirmationHash = Hash.generate();
+                events.add(CustomerEmailAddressChanged.build(customerID, emailAddress, confirmationHash));
+            } else {
+                events.add(CustomerEmailAddressConfirmed.build(customerID));
+            }
+        }
+
+        return new EventStreams(customerID, List.copyOf(events), emailAddress, confirmationHash, name);
+    }
+}
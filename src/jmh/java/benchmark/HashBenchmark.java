@@ -0,0 +1,88 @@
+package benchmark;
+
+import domain.shared.value.Hash;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Comparing and parsing confirmation hashes, against the textual form they used to be held in. The String
+ * comparisons return at the first differing character, matches takes the same time whether the hashes differ in
+ * the first or in the last digit.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HashBenchmark {
+    private String text;
+    private String equalText;
+    private String differsFirstText;
+    private String differsLastText;
+    private Hash hash;
+    private Hash equalHash;
+    private Hash differsFirstHash;
+    private Hash differsLastHash;
+
+    @Setup
+    public void setUp() {
+        text = UUID.randomUUID().toString();
+        equalText = new String(text);
+        differsFirstText = flip(text, 0);
+        differsLastText = flip(text, text.length() - 1);
+        hash = Hash.build(text);
+        equalHash = Hash.build(equalText);
+        differsFirstHash = Hash.build(differsFirstText);
+        differsLastHash = Hash.build(differsLastText);
+    }
+
+    @Benchmark
+    public boolean stringEquals() {
+        return text.equals(equalText);
+    }
+
+    @Benchmark
+    public boolean stringEqualsDiffersFirst() {
+        return text.equals(differsFirstText);
+    }
+
+    @Benchmark
+    public boolean stringEqualsDiffersLast() {
+        return text.equals(differsLastText);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return hash.matches(equalHash);
+    }
+
+    @Benchmark
+    public boolean matchesDiffersFirst() {
+        return hash.matches(differsFirstHash);
+    }
+
+    @Benchmark
+    public boolean matchesDiffersLast() {
+        return hash.matches(differsLastHash);
+    }
+
+    @Benchmark
+    public UUID parseWithUUIDFromString() {
+        return UUID.fromString(text);
+    }
+
+    @Benchmark
+    public Hash parseWithHashBuild() {
+        return Hash.build(text);
+    }
+
+    private static String flip(String uuid, int index) {
+        var chars = uuid.toCharArray();
+        chars[index] = chars[index] == '0' ? '1' : '0';
+
+        return new String(chars);
+    }
+}
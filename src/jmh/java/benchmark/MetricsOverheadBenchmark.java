@@ -0,0 +1,53 @@
+package benchmark;
+
+import infrastructure.metrics.CustomerMetrics;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost instrumentation adds to one command, which should stay below 50ns. recordCommand is the recording alone,
+ * clockOnly the price of the two System.nanoTime calls around a standalone command, which depends on the clock source
+ * of the machine. clockAndRecordCommand is the full price of a standalone command, oneClockReadAndRecordCommand that
+ * of a command run by the CommandDispatcher, which measures from the end of the previous command. Run with several
+ * thread counts to see the stripes contend.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+    private final CustomerMetrics metrics = new CustomerMetrics();
+
+    @State(Scope.Thread)
+    public static class Clock {
+        long previousEnd = System.nanoTime();
+    }
+
+    @Benchmark
+    public long clockOnly() {
+        long start = System.nanoTime();
+
+        return System.nanoTime() - start;
+    }
+
+    @Benchmark
+    public void recordCommand() {
+        metrics.recordCommand(CustomerMetrics.Command.CONFIRM_EMAIL_ADDRESS, 12_345, 100, 1);
+    }
+
+    @Benchmark
+    public void clockAndRecordCommand() {
+        long start = System.nanoTime();
+        metrics.recordCommand(CustomerMetrics.Command.CONFIRM_EMAIL_ADDRESS, System.nanoTime() - start, 100, 1);
+    }
+
+    @Benchmark
+    public void oneClockReadAndRecordCommand(Clock clock) {
+        long end = System.nanoTime();
+        metrics.recordCommand(CustomerMetrics.Command.CONFIRM_EMAIL_ADDRESS, end - clock.previousEnd, 100, 1);
+        clock.previousEnd = end;
+    }
+}
@@ -0,0 +1,63 @@
+package benchmark;
+
+import domain.functional.es.customer.Customer5;
+import domain.functional.es.customer.Customer6;
+import domain.functional.es.customer.Customer7;
+import domain.functional.traditional.customer.Customer2;
+import domain.oop.es.customer.Customer3;
+import domain.oop.es.customer.Customer4;
+import domain.oop.traditional.customer.Customer1;
+import domain.shared.command.RegisterCustomer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegisterCustomerBenchmark {
+    private RegisterCustomer command;
+
+    @Setup
+    public void setUp() {
+        command = RegisterCustomer.build("john@doe.com", "John", "Doe");
+    }
+
+    @Benchmark
+    public Object customer1() {
+        return Customer1.register(command);
+    }
+
+    @Benchmark
+    public Object customer2() {
+        return Customer2.register(command);
+    }
+
+    @Benchmark
+    public Object customer3() {
+        return Customer3.register(command);
+    }
+
+    @Benchmark
+    public Object customer4() {
+        return Customer4.register(command).getRecordedEvents();
+    }
+
+    @Benchmark
+    public Object customer5() {
+        return Customer5.register(command);
+    }
+
+    @Benchmark
+    public Object customer6() {
+        return Customer6.register(command);
+    }
+
+    @Benchmark
+    public Object customer7() {
+        return Customer7.register(command);
+    }
+}
@@ -0,0 +1,107 @@
+package benchmark;
+
+import domain.shared.event.CustomerEmailAddressChanged;
+import domain.shared.event.CustomerEmailAddressConfirmed;
+import domain.shared.event.CustomerRegistered;
+import domain.shared.event.Event;
+import domain.shared.value.EmailAddress;
+import domain.shared.value.Hash;
+import domain.shared.value.ID;
+import domain.shared.value.PersonName;
+import infrastructure.eventstore.ConcurrencyConflictException;
+import infrastructure.eventstore.EventStore;
+import infrastructure.eventstore.FileEventStore;
+import infrastructure.eventstore.InMemoryEventStore;
+import infrastructure.replay.CustomerStateProjection;
+import infrastructure.replay.ReplayEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full replay of 10,000 customers with 10 events each into CustomerStates, in ns per event, by number of workers
+ * and store. The reading thread only routes encoded records, so scaling should be close to linear up to the number
+ * of cores. The in-memory store has to encode its events for the reader first, the file store hands out its records
+ * as they are.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReplayEngineBenchmark {
+    private static final int CUSTOMERS = 10_000;
+    private static final int EVENTS_PER_CUSTOMER = 10;
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    @Param({"memory", "file"})
+    public String store;
+
+    private ReplayEngine engine;
+    private Path directory;
+    private FileEventStore fileStore;
+
+    @Setup
+    public void setUp() throws ConcurrencyConflictException, IOException {
+        EventStore eventStore;
+        if (store.equals("file")) {
+            directory = Files.createTempDirectory("replay-benchmark");
+            fileStore = FileEventStore.open(directory);
+            eventStore = fileStore;
+        } else {
+            eventStore = InMemoryEventStore.withLog();
+        }
+        var customerIDs = new ID[CUSTOMERS];
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customerIDs[i] = ID.generate();
+            eventStore.append(customerIDs[i], 0, List.of(CustomerRegistered.build(
+                    customerIDs[i],
+                    EmailAddress.build("john" + i + "@doe.com"),
+                    Hash.generate(),
+                    PersonName.build("John", "Doe")
+            )));
+        }
+        for (int version = 1; version < EVENTS_PER_CUSTOMER; version++) {
+            for (int i = 0; i < CUSTOMERS; i++) {
+                Event event = version % 2 == 1
+                        ? CustomerEmailAddressChanged.build(customerIDs[i], EmailAddress.build("john+" + version + "@doe.com"), Hash.generate())
+                        : CustomerEmailAddressConfirmed.build(customerIDs[i]);
+                eventStore.append(customerIDs[i], version, List.of(event));
+            }
+        }
+
+        if (fileStore != null) {
+            fileStore.flush();
+        }
+        engine = new ReplayEngine(eventStore, parallelism, 4096);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (fileStore != null) {
+            fileStore.close();
+            try (var files = Files.list(directory)) {
+                for (var file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CUSTOMERS * EVENTS_PER_CUSTOMER)
+    public Object replayIntoCustomerStates() throws InterruptedException {
+        var states = new CustomerStateProjection();
+        engine.replay(List.of(states));
+
+        return states;
+    }
+}
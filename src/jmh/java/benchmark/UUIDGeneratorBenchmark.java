@@ -0,0 +1,33 @@
+package benchmark;
+
+import domain.shared.value.UUIDGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generating random UUIDs with the single SecureRandom that UUID.randomUUID() shares between all threads, against
+ * the pool of SHA1PRNG generators. Run it with several threads, e.g. "UUIDGenerator 1,4,16", where the shared generator
+ * serializes every call and the pool should scale.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UUIDGeneratorBenchmark {
+    private final UUIDGenerator shared = UUIDGenerator.random();
+    private final UUIDGenerator pooled = UUIDGenerator.pooledSecureRandom();
+
+    @Benchmark
+    public UUID sharedSecureRandom() {
+        return shared.generate();
+    }
+
+    @Benchmark
+    public UUID pooledSecureRandom() {
+        return pooled.generate();
+    }
+}
@@ -7,6 +7,7 @@ import domain.shared.event.*;
 import domain.shared.value.EmailAddress;
 import domain.shared.value.Hash;
 
+import java.util.Iterator;
 import java.util.List;
 
 public class Customer5 {
@@ -15,15 +16,24 @@ public class Customer5 {
     }
 
     public static List<Event> confirmEmailAddress(List<Event> eventStream, ConfirmCustomerEmailAddress command) {
+        return confirmEmailAddress(eventStream.iterator(), command);
+    }
+
+    public static List<Event> confirmEmailAddress(Iterator<Event> eventStream, ConfirmCustomerEmailAddress command) {
         boolean isEmailAddressConfirmed = false;
         Hash confirmationHash = null;
-        for (Event event : eventStream) {
-            if (event instanceof CustomerRegistered) {
-                // TODO
-            } else if (event instanceof CustomerEmailAddressConfirmed) {
-                // TODO
-            } else if (event instanceof CustomerEmailAddressChanged) {
-                // TODO
+        while (eventStream.hasNext()) {
+            var event = eventStream.next();
+            switch (event.type()) {
+                case Event.CUSTOMER_REGISTERED:
+                    // TODO
+                    break;
+                case Event.CUSTOMER_EMAIL_ADDRESS_CONFIRMED:
+                    // TODO
+                    break;
+                case Event.CUSTOMER_EMAIL_ADDRESS_CHANGED:
+                    // TODO
+                    break;
             }
         }
 
@@ -33,12 +43,20 @@ public class Customer5 {
     }
 
     public static List<Event> changeEmailAddress(List<Event> eventStream, ChangeCustomerEmailAddress command) {
+        return changeEmailAddress(eventStream.iterator(), command);
+    }
+
+    public static List<Event> changeEmailAddress(Iterator<Event> eventStream, ChangeCustomerEmailAddress command) {
         EmailAddress emailAddress = null;
-        for (Event event : eventStream) {
-            if (event instanceof CustomerRegistered) {
-                // TODO
-            } else if (event instanceof CustomerEmailAddressChanged) {
-                // TODO
+        while (eventStream.hasNext()) {
+            var event = eventStream.next();
+            switch (event.type()) {
+                case Event.CUSTOMER_REGISTERED:
+                    // TODO
+                    break;
+                case Event.CUSTOMER_EMAIL_ADDRESS_CHANGED:
+                    // TODO
+                    break;
             }
         }
 
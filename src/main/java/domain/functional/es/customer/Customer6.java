@@ -5,6 +5,7 @@ import domain.shared.command.ConfirmCustomerEmailAddress;
 import domain.shared.command.RegisterCustomer;
 import domain.shared.event.*;
 
+import java.util.Iterator;
 import java.util.List;
 
 public class Customer6 {
@@ -13,6 +14,10 @@ public class Customer6 {
     }
 
     public static List<Event> confirmEmailAddress(List<Event> eventStream, ConfirmCustomerEmailAddress command) {
+        return confirmEmailAddress(eventStream.iterator(), command);
+    }
+
+    public static List<Event> confirmEmailAddress(Iterator<Event> eventStream, ConfirmCustomerEmailAddress command) {
         var current = CustomerState.reconstitute(eventStream);
 
         // TODO
@@ -21,6 +26,10 @@ public class Customer6 {
     }
 
     public static List<Event> changeEmailAddress(List<Event> eventStream, ChangeCustomerEmailAddress command) {
+        return changeEmailAddress(eventStream.iterator(), command);
+    }
+
+    public static List<Event> changeEmailAddress(Iterator<Event> eventStream, ChangeCustomerEmailAddress command) {
         var current = CustomerState.reconstitute(eventStream);
 
         // TODO
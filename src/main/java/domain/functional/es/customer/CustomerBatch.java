@@ -0,0 +1,60 @@
+package domain.functional.es.customer;
+
+import domain.shared.command.ChangeCustomerEmailAddress;
+import domain.shared.command.ConfirmCustomerEmailAddress;
+import domain.shared.command.RegisterCustomer;
+import domain.shared.event.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Handles several commands of one customer with a single reconstitution: each command is decided on the current
+ * state, by Customer7 unless another decider is given, and the events it produces are applied to that state before
+ * the next command is decided. If a decision throws, the exception propagates and no events are returned for any
+ * command of the batch.
+ */
+public final class CustomerBatch {
+    @FunctionalInterface
+    public interface Decider {
+        List<Event> decide(CustomerState current, Object command);
+    }
+
+    public static final Decider CUSTOMER7 = CustomerBatch::decideWithCustomer7;
+
+    private CustomerBatch() {
+    }
+
+    public static List<Event> handle(List<Event> eventStream, List<?> commands) {
+        return handle(eventStream, commands, CUSTOMER7);
+    }
+
+    public static List<Event> handle(List<Event> eventStream, List<?> commands, Decider decider) {
+        var current = CustomerState.reconstitute(eventStream);
+        var recordedEvents = new ArrayList<Event>();
+
+        for (Object command : commands) {
+            var events = decider.decide(current, command);
+            current.apply(events);
+            recordedEvents.addAll(events);
+        }
+
+        return recordedEvents;
+    }
+
+    private static List<Event> decideWithCustomer7(CustomerState current, Object command) {
+        if (command instanceof RegisterCustomer register) {
+            var registered = Customer7.register(register);
+
+            return registered == null ? List.of() : List.of(registered);
+        }
+        if (command instanceof ConfirmCustomerEmailAddress confirm) {
+            return Customer7.confirmEmailAddress(current, confirm);
+        }
+        if (command instanceof ChangeCustomerEmailAddress change) {
+            return Customer7.changeEmailAddress(current, change);
+        }
+
+        throw new IllegalArgumentException("Customer7 does not handle " + command.getClass().getSimpleName());
+    }
+}
@@ -5,6 +5,7 @@ import domain.shared.value.EmailAddress;
 import domain.shared.value.Hash;
 import domain.shared.value.PersonName;
 
+import java.util.Iterator;
 import java.util.List;
 
 public class CustomerState {
@@ -12,6 +13,7 @@ public class CustomerState {
     Hash confirmationHash;
     PersonName name;
     boolean isEmailAddressConfirmed;
+    long version;
 
     private CustomerState() {}
 
@@ -23,20 +25,82 @@ public class CustomerState {
         return customer;
     }
 
+    public static CustomerState reconstitute(CustomerStateSnapshot snapshot, List<Event> eventsSinceSnapshot) {
+        return reconstitute(snapshot, eventsSinceSnapshot.iterator());
+    }
+
+    /**
+     * Folds the events while they are pulled from the iterator, so the stream never has to be materialized.
+     */
+    public static CustomerState reconstitute(Iterator<Event> events) {
+        var customer = new CustomerState();
+
+        customer.apply(events);
+
+        return customer;
+    }
+
+    public static CustomerState reconstitute(CustomerStateSnapshot snapshot, Iterator<Event> eventsSinceSnapshot) {
+        var customer = new CustomerState();
+
+        snapshot.restoreInto(customer);
+
+        customer.apply(eventsSinceSnapshot);
+
+        return customer;
+    }
+
+    /**
+     * Returns a new state with the events applied, this state is left unchanged. The events must be the ones that
+     * were appended after the stream reached fromVersion, which has to be the version of this state.
+     */
+    public CustomerState advance(long fromVersion, List<Event> eventsSinceVersion) {
+        if (fromVersion != version) {
+            throw new IllegalArgumentException("state is at version " + version + ", not " + fromVersion);
+        }
+        if (eventsSinceVersion.isEmpty()) {
+            return this;
+        }
+
+        var customer = new CustomerState();
+        customer.emailAddress = emailAddress;
+        customer.confirmationHash = confirmationHash;
+        customer.name = name;
+        customer.isEmailAddressConfirmed = isEmailAddressConfirmed;
+        customer.version = version;
+
+        customer.apply(eventsSinceVersion);
+
+        return customer;
+    }
+
+    public CustomerStateSnapshot snapshot() {
+        return CustomerStateSnapshot.of(this);
+    }
+
+    public long version() {
+        return version;
+    }
+
     void apply(List<Event> events) {
-        for (Event event : events) {
-            if (event.getClass() == CustomerRegistered.class) {
-                // TODO
-                continue;
-            }
+        apply(events.iterator());
+    }
 
-            if (event.getClass() == CustomerEmailAddressConfirmed.class) {
-                // TODO
-                continue;
-            }
+    void apply(Iterator<Event> events) {
+        while (events.hasNext()) {
+            var event = events.next();
+            version++;
 
-            if (event.getClass() == CustomerEmailAddressChanged.class) {
-                // TODO
+            switch (event.type()) {
+                case Event.CUSTOMER_REGISTERED:
+                    // TODO
+                    break;
+                case Event.CUSTOMER_EMAIL_ADDRESS_CONFIRMED:
+                    // TODO
+                    break;
+                case Event.CUSTOMER_EMAIL_ADDRESS_CHANGED:
+                    // TODO
+                    break;
             }
         }
     }
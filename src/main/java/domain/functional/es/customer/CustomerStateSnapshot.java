@@ -0,0 +1,54 @@
+package domain.functional.es.customer;
+
+import domain.shared.snapshot.CustomerSnapshotCodec;
+import domain.shared.value.EmailAddress;
+import domain.shared.value.Hash;
+import domain.shared.value.PersonName;
+
+/**
+ * Compact serialized form of a CustomerState together with the stream version it covers.
+ */
+public final class CustomerStateSnapshot {
+    public final long version;
+    private final byte[] bytes;
+
+    private CustomerStateSnapshot(long version, byte[] bytes) {
+        this.version = version;
+        this.bytes = bytes;
+    }
+
+    static CustomerStateSnapshot of(CustomerState state) {
+        return build(state.version, state.emailAddress, state.confirmationHash, state.name, state.isEmailAddressConfirmed);
+    }
+
+    /**
+     * Snapshot of state that is held outside of a CustomerState, the fields that are not known yet may be null.
+     */
+    public static CustomerStateSnapshot build(long version, EmailAddress emailAddress, Hash confirmationHash, PersonName name, boolean isEmailAddressConfirmed) {
+        return new CustomerStateSnapshot(version, CustomerSnapshotCodec.encode(version, emailAddress, confirmationHash, isEmailAddressConfirmed, name));
+    }
+
+    public static CustomerStateSnapshot fromBytes(byte[] bytes) {
+        return new CustomerStateSnapshot(CustomerSnapshotCodec.version(bytes), bytes);
+    }
+
+    public byte[] toBytes() {
+        return bytes.clone();
+    }
+
+    void restoreInto(CustomerState state) {
+        try {
+            CustomerSnapshotCodec.decode(bytes, (version, emailAddress, confirmationHash, isEmailAddressConfirmed, name) -> {
+                state.version = version;
+                state.emailAddress = emailAddress;
+                state.confirmationHash = confirmationHash;
+                state.isEmailAddressConfirmed = isEmailAddressConfirmed;
+                state.name = name;
+
+                return state;
+            });
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("corrupt CustomerState snapshot", e);
+        }
+    }
+}
@@ -16,7 +16,7 @@ public class Customer2 {
     }
 
     public static CustomerState confirmEmailAddress(CustomerState current, ConfirmCustomerEmailAddress command) throws WrongConfirmationHashException {
-        if (!command.confirmationHash.equals(current.confirmationHash)) {
+        if (!current.confirmationHash.matches(command.confirmationHash)) {
             throw new WrongConfirmationHashException();
         }
 
@@ -0,0 +1,35 @@
+package domain.functional.traditional.customer;
+
+import domain.shared.command.ChangeCustomerEmailAddress;
+import domain.shared.command.ConfirmCustomerEmailAddress;
+import domain.shared.command.RegisterCustomer;
+import domain.shared.exception.WrongConfirmationHashException;
+
+/**
+ * The decisions of Customer2, taken against a row of a CustomerTable instead of a CustomerState. The new state is
+ * written into the row, nothing is allocated.
+ */
+public class Customer2Rows {
+    public static int register(CustomerTable table, RegisterCustomer command) {
+        return table.insert(
+                command.customerID,
+                command.emailAddress,
+                command.confirmationHash,
+                command.name,
+                false
+        );
+    }
+
+    public static void confirmEmailAddress(CustomerTable table, int row, ConfirmCustomerEmailAddress command) throws WrongConfirmationHashException {
+        if (!table.hasConfirmationHash(row, command.confirmationHash)) {
+            throw new WrongConfirmationHashException();
+        }
+
+        table.setEmailAddressConfirmed(row, true);
+    }
+
+    public static void changeEmailAddress(CustomerTable table, int row, ChangeCustomerEmailAddress command) {
+        table.setEmailAddress(row, command.emailAddress, command.confirmationHash);
+        table.setEmailAddressConfirmed(row, false);
+    }
+}
@@ -23,4 +23,24 @@ public class CustomerState {
     public CustomerState(ID id, EmailAddress emailAddress, Hash confirmationHash, PersonName name) {
         this(id, emailAddress, confirmationHash, name, false);
     }
+
+    public ID id() {
+        return id;
+    }
+
+    public EmailAddress emailAddress() {
+        return emailAddress;
+    }
+
+    public Hash confirmationHash() {
+        return confirmationHash;
+    }
+
+    public PersonName name() {
+        return name;
+    }
+
+    public boolean isEmailAddressConfirmed() {
+        return isEmailAddressConfirmed;
+    }
 }
@@ -0,0 +1,234 @@
+package domain.functional.traditional.customer;
+
+import domain.shared.value.EmailAddress;
+import domain.shared.value.Hash;
+import domain.shared.value.ID;
+import domain.shared.value.PersonName;
+
+import java.util.Arrays;
+
+/**
+ * Columnar store for many traditional customer states: one row per customer, IDs and hashes as parallel long
+ * columns, name parts as dictionary codes, email addresses as plain string references and the confirmed flags as a
+ * bitset. Email addresses are unique per customer, a dictionary would only add an entry per customer and keep
+ * replaced addresses alive, while a replaced reference is simply collected.
+ * <p>
+ * A row costs about 52 bytes in the columns and the index with compressed references, and the columns reserve up
+ * to twice the rows after growing. On top come the email address string, which the row shares with the EmailAddress
+ * it was built from, and the share of the name dictionaries. Scans run over primitive arrays instead of chasing
+ * references.
+ * <p>
+ * Rows are found by ID through an open-addressing index of row numbers. Not thread-safe.
+ */
+public final class CustomerTable {
+    private static final int NO_ROW = -1;
+
+    private final StringDictionary givenNames = new StringDictionary();
+    private final StringDictionary familyNames = new StringDictionary();
+
+    private long[] idMostSignificantBits;
+    private long[] idLeastSignificantBits;
+    private long[] hashMostSignificantBits;
+    private long[] hashLeastSignificantBits;
+    private String[] emailAddresses;
+    private int[] givenNameCodes;
+    private int[] familyNameCodes;
+    private long[] confirmed;
+    private int[] index;
+    private int size;
+
+    public CustomerTable() {
+        this(1024);
+    }
+
+    public CustomerTable(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 16);
+        idMostSignificantBits = new long[capacity];
+        idLeastSignificantBits = new long[capacity];
+        hashMostSignificantBits = new long[capacity];
+        hashLeastSignificantBits = new long[capacity];
+        emailAddresses = new String[capacity];
+        givenNameCodes = new int[capacity];
+        familyNameCodes = new int[capacity];
+        confirmed = new long[(capacity + 63) >>> 6];
+        index = new int[Integer.highestOneBit(capacity - 1) << 2];
+        Arrays.fill(index, NO_ROW);
+    }
+
+    /**
+     * Appends a row for a customer that is not in the table yet and returns its row number.
+     */
+    public int insert(ID id, EmailAddress emailAddress, Hash confirmationHash, PersonName name, boolean isEmailAddressConfirmed) {
+        if (row(id) != NO_ROW) {
+            throw new IllegalArgumentException("customer " + id.value() + " is already in the table");
+        }
+        if (size == idMostSignificantBits.length) {
+            grow();
+        }
+
+        int row = size++;
+        idMostSignificantBits[row] = id.mostSignificantBits();
+        idLeastSignificantBits[row] = id.leastSignificantBits();
+        emailAddresses[row] = emailAddress.value;
+        givenNameCodes[row] = givenNames.encode(name.givenName);
+        familyNameCodes[row] = familyNames.encode(name.familyName);
+        setHash(row, confirmationHash);
+        setEmailAddressConfirmed(row, isEmailAddressConfirmed);
+        index(row);
+
+        return row;
+    }
+
+    public int insert(CustomerState state) {
+        return insert(state.id, state.emailAddress, state.confirmationHash, state.name, state.isEmailAddressConfirmed);
+    }
+
+    /**
+     * The row of the customer, or -1 if the customer is not in the table.
+     */
+    public int row(ID id) {
+        long mostSignificantBits = id.mostSignificantBits();
+        long leastSignificantBits = id.leastSignificantBits();
+        int mask = index.length - 1;
+
+        for (int slot = slot(mostSignificantBits, leastSignificantBits); ; slot = (slot + 1) & mask) {
+            int row = index[slot];
+            if (row == NO_ROW) {
+                return NO_ROW;
+            }
+            if (idMostSignificantBits[row] == mostSignificantBits && idLeastSignificantBits[row] == leastSignificantBits) {
+                return row;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public ID id(int row) {
+        checkRow(row);
+
+        return ID.build(idMostSignificantBits[row], idLeastSignificantBits[row]);
+    }
+
+    public EmailAddress emailAddress(int row) {
+        checkRow(row);
+
+        return EmailAddress.build(emailAddresses[row]);
+    }
+
+    public Hash confirmationHash(int row) {
+        checkRow(row);
+
+        return Hash.build(hashMostSignificantBits[row], hashLeastSignificantBits[row]);
+    }
+
+    public PersonName name(int row) {
+        checkRow(row);
+
+        return PersonName.build(givenNames.decode(givenNameCodes[row]), familyNames.decode(familyNameCodes[row]));
+    }
+
+    public boolean isEmailAddressConfirmed(int row) {
+        checkRow(row);
+
+        return (confirmed[row >>> 6] & (1L << row)) != 0;
+    }
+
+    /**
+     * Materializes the row as a CustomerState, e.g. to hand it to code that works on the object graph.
+     */
+    public CustomerState state(int row) {
+        return new CustomerState(id(row), emailAddress(row), confirmationHash(row), name(row), isEmailAddressConfirmed(row));
+    }
+
+    public int countConfirmed() {
+        int count = 0;
+        for (long word : confirmed) {
+            count += Long.bitCount(word);
+        }
+
+        return count;
+    }
+
+    public int countConfirmedWithFamilyName(String familyName) {
+        int code = familyNames.code(familyName);
+        if (code == -1) {
+            return 0;
+        }
+
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (familyNameCodes[row] == code && (confirmed[row >>> 6] & (1L << row)) != 0) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    boolean hasConfirmationHash(int row, Hash hash) {
+        checkRow(row);
+
+        return hash.matches(hashMostSignificantBits[row], hashLeastSignificantBits[row]);
+    }
+
+    void setEmailAddress(int row, EmailAddress emailAddress, Hash confirmationHash) {
+        checkRow(row);
+        emailAddresses[row] = emailAddress.value;
+        setHash(row, confirmationHash);
+    }
+
+    void setEmailAddressConfirmed(int row, boolean isEmailAddressConfirmed) {
+        if (isEmailAddressConfirmed) {
+            confirmed[row >>> 6] |= 1L << row;
+        } else {
+            confirmed[row >>> 6] &= ~(1L << row);
+        }
+    }
+
+    private void setHash(int row, Hash confirmationHash) {
+        hashMostSignificantBits[row] = confirmationHash.mostSignificantBits();
+        hashLeastSignificantBits[row] = confirmationHash.leastSignificantBits();
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("row " + row + " of " + size);
+        }
+    }
+
+    private void index(int row) {
+        int mask = index.length - 1;
+        int slot = slot(idMostSignificantBits[row], idLeastSignificantBits[row]);
+        while (index[slot] != NO_ROW) {
+            slot = (slot + 1) & mask;
+        }
+        index[slot] = row;
+    }
+
+    private int slot(long mostSignificantBits, long leastSignificantBits) {
+        long hash = (mostSignificantBits ^ leastSignificantBits) * 0x9E3779B97F4A7C15L;
+
+        return (int) (hash >>> 32) & (index.length - 1);
+    }
+
+    private void grow() {
+        int capacity = idMostSignificantBits.length * 2;
+        idMostSignificantBits = Arrays.copyOf(idMostSignificantBits, capacity);
+        idLeastSignificantBits = Arrays.copyOf(idLeastSignificantBits, capacity);
+        hashMostSignificantBits = Arrays.copyOf(hashMostSignificantBits, capacity);
+        hashLeastSignificantBits = Arrays.copyOf(hashLeastSignificantBits, capacity);
+        emailAddresses = Arrays.copyOf(emailAddresses, capacity);
+        givenNameCodes = Arrays.copyOf(givenNameCodes, capacity);
+        familyNameCodes = Arrays.copyOf(familyNameCodes, capacity);
+        confirmed = Arrays.copyOf(confirmed, (capacity + 63) >>> 6);
+
+        index = new int[index.length * 2];
+        Arrays.fill(index, NO_ROW);
+        for (int row = 0; row < size; row++) {
+            index(row);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package domain.functional.traditional.customer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Maps each distinct string to a dense int code, so a column stores 4 bytes per row and every distinct value once.
+ * Codes are never released, values that are no longer referenced by any row stay in the dictionary, so it only
+ * suits low-cardinality columns.
+ */
+final class StringDictionary {
+    private final HashMap<String, Integer> codes = new HashMap<>();
+    private String[] values = new String[16];
+
+    int encode(String value) {
+        var code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+
+        int next = codes.size();
+        if (next == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+        values[next] = value;
+        codes.put(value, next);
+
+        return next;
+    }
+
+    /**
+     * The code of the value, or -1 if no row ever held it.
+     */
+    int code(String value) {
+        var code = codes.get(value);
+
+        return code == null ? -1 : code;
+    }
+
+    String decode(int code) {
+        return values[code];
+    }
+
+    int size() {
+        return codes.size();
+    }
+}
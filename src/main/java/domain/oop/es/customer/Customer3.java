@@ -8,6 +8,7 @@ import domain.shared.value.EmailAddress;
 import domain.shared.value.Hash;
 import domain.shared.value.PersonName;
 
+import java.util.Iterator;
 import java.util.List;
 
 public final class Customer3 {
@@ -15,6 +16,7 @@ public final class Customer3 {
     private Hash confirmationHash;
     private boolean isEmailAddressConfirmed;
     private PersonName name;
+    private long version;
 
     private Customer3() {
     }
@@ -31,6 +33,34 @@ public final class Customer3 {
         return customer;
     }
 
+    public static Customer3 reconstitute(CustomerMemento memento, List<Event> eventsSinceMemento) {
+        return reconstitute(memento, eventsSinceMemento.iterator());
+    }
+
+    /**
+     * Folds the events while they are pulled from the iterator, so the stream never has to be materialized.
+     */
+    public static Customer3 reconstitute(Iterator<Event> events) {
+        var customer = new Customer3();
+
+        customer.apply(events);
+
+        return customer;
+    }
+
+    public static Customer3 reconstitute(CustomerMemento memento, Iterator<Event> eventsSinceMemento) {
+        var customer = new Customer3();
+        customer.emailAddress = memento.emailAddress;
+        customer.confirmationHash = memento.confirmationHash;
+        customer.isEmailAddressConfirmed = memento.isEmailAddressConfirmed;
+        customer.name = memento.name;
+        customer.version = memento.version;
+
+        customer.apply(eventsSinceMemento);
+
+        return customer;
+    }
+
     public List<Event> confirmEmailAddress(ConfirmCustomerEmailAddress command) {
         // TODO
 
@@ -43,19 +73,33 @@ public final class Customer3 {
         return List.of(); // TODO
     }
 
+    public CustomerMemento memento() {
+        return new CustomerMemento(version, emailAddress, confirmationHash, isEmailAddressConfirmed, name);
+    }
+
     void apply(List<Event> events) {
-        for (Event event : events) {
-            apply(event);
+        apply(events.iterator());
+    }
+
+    void apply(Iterator<Event> events) {
+        while (events.hasNext()) {
+            apply(events.next());
         }
     }
 
     void apply(Event event) {
-        if (event.getClass() == CustomerRegistered.class) {
-            // TODO
-        } else if (event.getClass() == CustomerEmailAddressConfirmed.class) {
-            // TODO
-        } else if (event.getClass() == CustomerEmailAddressChanged.class) {
-            // TODO
+        version++;
+
+        switch (event.type()) {
+            case Event.CUSTOMER_REGISTERED:
+                // TODO
+                break;
+            case Event.CUSTOMER_EMAIL_ADDRESS_CONFIRMED:
+                // TODO
+                break;
+            case Event.CUSTOMER_EMAIL_ADDRESS_CHANGED:
+                // TODO
+                break;
         }
     }
 }
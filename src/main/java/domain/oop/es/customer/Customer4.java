@@ -9,6 +9,7 @@ import domain.shared.value.Hash;
 import domain.shared.value.PersonName;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 public final class Customer4 {
@@ -16,6 +17,7 @@ public final class Customer4 {
     private Hash confirmationHash;
     private boolean isEmailAddressConfirmed;
     private PersonName name;
+    private long version;
 
     private final List<Event> recordedEvents;
 
@@ -39,6 +41,34 @@ public final class Customer4 {
         return customer;
     }
 
+    public static Customer4 reconstitute(CustomerMemento memento, List<Event> eventsSinceMemento) {
+        return reconstitute(memento, eventsSinceMemento.iterator());
+    }
+
+    /**
+     * Folds the events while they are pulled from the iterator, so the stream never has to be materialized.
+     */
+    public static Customer4 reconstitute(Iterator<Event> events) {
+        var customer = new Customer4();
+
+        customer.apply(events);
+
+        return customer;
+    }
+
+    public static Customer4 reconstitute(CustomerMemento memento, Iterator<Event> eventsSinceMemento) {
+        var customer = new Customer4();
+        customer.emailAddress = memento.emailAddress;
+        customer.confirmationHash = memento.confirmationHash;
+        customer.isEmailAddressConfirmed = memento.isEmailAddressConfirmed;
+        customer.name = memento.name;
+        customer.version = memento.version;
+
+        customer.apply(eventsSinceMemento);
+
+        return customer;
+    }
+
     public void confirmEmailAddress(ConfirmCustomerEmailAddress command) {
         // TODO
     }
@@ -47,6 +77,10 @@ public final class Customer4 {
         // TODO
     }
 
+    public CustomerMemento memento() {
+        return new CustomerMemento(version, emailAddress, confirmationHash, isEmailAddressConfirmed, name);
+    }
+
     public List<Event> getRecordedEvents() {
         return recordedEvents;
     }
@@ -56,18 +90,28 @@ public final class Customer4 {
     }
 
     void apply(List<Event> events) {
-        for (Event event : events) {
-            apply(event);
+        apply(events.iterator());
+    }
+
+    void apply(Iterator<Event> events) {
+        while (events.hasNext()) {
+            apply(events.next());
         }
     }
 
     void apply(Event event) {
-        if (event.getClass() == CustomerRegistered.class) {
-            // TODO
-        } else if (event.getClass() == CustomerEmailAddressConfirmed.class) {
-            // TODO
-        } else if (event.getClass() == CustomerEmailAddressChanged.class) {
-            // TODO
+        version++;
+
+        switch (event.type()) {
+            case Event.CUSTOMER_REGISTERED:
+                // TODO
+                break;
+            case Event.CUSTOMER_EMAIL_ADDRESS_CONFIRMED:
+                // TODO
+                break;
+            case Event.CUSTOMER_EMAIL_ADDRESS_CHANGED:
+                // TODO
+                break;
         }
     }
 }
@@ -0,0 +1,33 @@
+package domain.oop.es.customer;
+
+import domain.shared.snapshot.CustomerSnapshotCodec;
+import domain.shared.value.EmailAddress;
+import domain.shared.value.Hash;
+import domain.shared.value.PersonName;
+
+/**
+ * State of a Customer3 or Customer4 together with the stream version it covers.
+ */
+public final class CustomerMemento {
+    public final long version;
+    final EmailAddress emailAddress;
+    final Hash confirmationHash;
+    final boolean isEmailAddressConfirmed;
+    final PersonName name;
+
+    CustomerMemento(long version, EmailAddress emailAddress, Hash confirmationHash, boolean isEmailAddressConfirmed, PersonName name) {
+        this.version = version;
+        this.emailAddress = emailAddress;
+        this.confirmationHash = confirmationHash;
+        this.isEmailAddressConfirmed = isEmailAddressConfirmed;
+        this.name = name;
+    }
+
+    public static CustomerMemento fromBytes(byte[] bytes) {
+        return CustomerSnapshotCodec.decode(bytes, CustomerMemento::new);
+    }
+
+    public byte[] toBytes() {
+        return CustomerSnapshotCodec.encode(version, emailAddress, confirmationHash, isEmailAddressConfirmed, name);
+    }
+}
@@ -10,11 +10,22 @@ import domain.shared.value.ID;
 import domain.shared.value.PersonName;
 
 public class Customer1 {
+    /**
+     * Bits of dirtyFields(): the fields the commands changed since the customer was registered, restored or saved.
+     */
+    public static final int EMAIL_ADDRESS = 1;
+    public static final int CONFIRMATION_HASH = 1 << 1;
+    public static final int EMAIL_ADDRESS_CONFIRMED = 1 << 2;
+    public static final int NAME = 1 << 3;
+    public static final int ALL_FIELDS = EMAIL_ADDRESS | CONFIRMATION_HASH | EMAIL_ADDRESS_CONFIRMED | NAME;
+
     final ID id;
     EmailAddress emailAddress;
     Hash confirmationHash;
     boolean isEmailAddressConfirmed;
     PersonName name;
+    private long version;
+    private int dirtyFields;
 
     private Customer1(ID id, EmailAddress emailAddress, Hash confirmationHash, PersonName name) {
         this.id = id;
@@ -24,25 +35,77 @@ public class Customer1 {
     }
 
     public static Customer1 register(RegisterCustomer command) {
-        return new Customer1(
+        var customer = new Customer1(
                 command.customerID,
                 command.emailAddress,
                 command.confirmationHash,
                 command.name
         );
+        customer.dirtyFields = ALL_FIELDS;
+
+        return customer;
+    }
+
+    /**
+     * Rebuilds a customer from its persisted state, with no dirty fields.
+     */
+    public static Customer1 restore(ID id, EmailAddress emailAddress, Hash confirmationHash, boolean isEmailAddressConfirmed, PersonName name, long version) {
+        var customer = new Customer1(id, emailAddress, confirmationHash, name);
+        customer.isEmailAddressConfirmed = isEmailAddressConfirmed;
+        customer.version = version;
+
+        return customer;
     }
 
     public void confirmEmailAddress(ConfirmCustomerEmailAddress command) throws WrongConfirmationHashException {
-        if (!command.confirmationHash.equals(confirmationHash)) {
+        if (!confirmationHash.matches(command.confirmationHash)) {
             throw new WrongConfirmationHashException();
         }
 
         isEmailAddressConfirmed = true;
+        dirtyFields |= EMAIL_ADDRESS_CONFIRMED;
     }
 
     public void changeEmailAddress(ChangeCustomerEmailAddress command) {
         emailAddress = command.emailAddress;
         confirmationHash = command.confirmationHash;
         isEmailAddressConfirmed = false;
+        dirtyFields |= EMAIL_ADDRESS | CONFIRMATION_HASH | EMAIL_ADDRESS_CONFIRMED;
+    }
+
+    public ID id() {
+        return id;
+    }
+
+    public EmailAddress emailAddress() {
+        return emailAddress;
+    }
+
+    public Hash confirmationHash() {
+        return confirmationHash;
+    }
+
+    public boolean isEmailAddressConfirmed() {
+        return isEmailAddressConfirmed;
+    }
+
+    public PersonName name() {
+        return name;
+    }
+
+    /**
+     * The version this customer was restored or last saved with, 0 if it was never saved.
+     */
+    public long version() {
+        return version;
+    }
+
+    public int dirtyFields() {
+        return dirtyFields;
+    }
+
+    public void markSaved(long version) {
+        this.version = version;
+        dirtyFields = 0;
     }
 }
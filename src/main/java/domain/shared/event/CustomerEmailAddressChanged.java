@@ -4,12 +4,13 @@ import domain.shared.value.ID;
 import domain.shared.value.EmailAddress;
 import domain.shared.value.Hash;
 
-public final class CustomerEmailAddressChanged implements Event {
+public final class CustomerEmailAddressChanged extends Event {
     public final ID customerID;
     public final EmailAddress emailAddress;
     public final Hash confirmationHash;
 
     private CustomerEmailAddressChanged(ID customerID, EmailAddress emailAddress, Hash confirmationHash) {
+        super(CUSTOMER_EMAIL_ADDRESS_CHANGED);
         this.customerID = customerID;
         this.emailAddress = emailAddress;
         this.confirmationHash = confirmationHash;
@@ -2,10 +2,11 @@ package domain.shared.event;
 
 import domain.shared.value.ID;
 
-public final class CustomerEmailAddressConfirmationFailed implements Event {
+public final class CustomerEmailAddressConfirmationFailed extends Event {
     public final ID customerID;
 
     private CustomerEmailAddressConfirmationFailed(ID customerID) {
+        super(CUSTOMER_EMAIL_ADDRESS_CONFIRMATION_FAILED);
         this.customerID = customerID;
     }
 
@@ -2,10 +2,11 @@ package domain.shared.event;
 
 import domain.shared.value.ID;
 
-public final class CustomerEmailAddressConfirmed implements Event {
+public final class CustomerEmailAddressConfirmed extends Event {
     public final ID customerID;
 
     private CustomerEmailAddressConfirmed(ID customerID) {
+        super(CUSTOMER_EMAIL_ADDRESS_CONFIRMED);
         this.customerID = customerID;
     }
 
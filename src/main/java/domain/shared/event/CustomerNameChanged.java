@@ -3,11 +3,12 @@ package domain.shared.event;
 import domain.shared.value.ID;
 import domain.shared.value.PersonName;
 
-public final class CustomerNameChanged implements Event {
+public final class CustomerNameChanged extends Event {
     public final ID customerID;
     public final PersonName name;
 
     private CustomerNameChanged(ID customerID, PersonName name) {
+        super(CUSTOMER_NAME_CHANGED);
         this.customerID = customerID;
         this.name = name;
     }
@@ -5,13 +5,14 @@ import domain.shared.value.EmailAddress;
 import domain.shared.value.Hash;
 import domain.shared.value.PersonName;
 
-public final class CustomerRegistered implements Event {
+public final class CustomerRegistered extends Event {
     public final ID customerID;
     public final EmailAddress emailAddress;
     public final Hash confirmationHash;
     public final PersonName name;
 
     private CustomerRegistered(ID customerID, EmailAddress emailAddress, Hash confirmationHash, PersonName name) {
+        super(CUSTOMER_REGISTERED);
         this.customerID = customerID;
         this.emailAddress = emailAddress;
         this.confirmationHash = confirmationHash;
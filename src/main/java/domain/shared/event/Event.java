@@ -1,4 +1,32 @@
 package domain.shared.event;
 
-public interface Event {
+/**
+ * The type tags let event handlers dispatch with a single switch instead of a chain of class checks.
+ * They are also used as the type byte of the binary encoding, so existing values must never change.
+ * <p>
+ * The tag is a final field of this base class and type() is final, so reading it is a plain field load no matter
+ * how many event classes pass through a call site.
+ */
+public abstract sealed class Event permits
+        CustomerRegistered,
+        CustomerEmailAddressConfirmed,
+        CustomerEmailAddressConfirmationFailed,
+        CustomerEmailAddressChanged,
+        CustomerNameChanged {
+
+    public static final int CUSTOMER_REGISTERED = 1;
+    public static final int CUSTOMER_EMAIL_ADDRESS_CONFIRMED = 2;
+    public static final int CUSTOMER_EMAIL_ADDRESS_CONFIRMATION_FAILED = 3;
+    public static final int CUSTOMER_EMAIL_ADDRESS_CHANGED = 4;
+    public static final int CUSTOMER_NAME_CHANGED = 5;
+
+    private final int type;
+
+    Event(int type) {
+        this.type = type;
+    }
+
+    public final int type() {
+        return type;
+    }
 }
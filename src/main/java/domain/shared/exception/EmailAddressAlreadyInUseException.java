@@ -0,0 +1,7 @@
+package domain.shared.exception;
+
+public class EmailAddressAlreadyInUseException extends Exception {
+    public EmailAddressAlreadyInUseException() {
+        super("email address is already used by another customer");
+    }
+}
@@ -0,0 +1,90 @@
+package domain.shared.snapshot;
+
+import domain.shared.value.EmailAddress;
+import domain.shared.value.Hash;
+import domain.shared.value.PersonName;
+
+import java.io.*;
+
+/**
+ * Binary format shared by the snapshots of all event-sourced customer variants: the stream version, a flags byte,
+ * then the email address, confirmation hash and name, each only if it is known.
+ */
+public final class CustomerSnapshotCodec {
+    private static final int CONFIRMED = 1;
+    private static final int HAS_EMAIL_ADDRESS = 1 << 1;
+    private static final int HAS_CONFIRMATION_HASH = 1 << 2;
+    private static final int HAS_NAME = 1 << 3;
+
+    private CustomerSnapshotCodec() {
+    }
+
+    @FunctionalInterface
+    public interface Decoder<T> {
+        T build(long version, EmailAddress emailAddress, Hash confirmationHash, boolean isEmailAddressConfirmed, PersonName name);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the confirmation hash is not a UUID, its bits would not decode to it again
+     */
+    public static byte[] encode(long version, EmailAddress emailAddress, Hash confirmationHash, boolean isEmailAddressConfirmed, PersonName name) {
+        if (confirmationHash != null && !confirmationHash.isUUID()) {
+            throw new IllegalArgumentException("the hash " + confirmationHash.value() + " is not a UUID and cannot be encoded");
+        }
+        var buffer = new ByteArrayOutputStream(64);
+        try (var out = new DataOutputStream(buffer)) {
+            out.writeLong(version);
+            out.writeByte(
+                    (isEmailAddressConfirmed ? CONFIRMED : 0)
+                            | (emailAddress != null ? HAS_EMAIL_ADDRESS : 0)
+                            | (confirmationHash != null ? HAS_CONFIRMATION_HASH : 0)
+                            | (name != null ? HAS_NAME : 0)
+            );
+            if (emailAddress != null) {
+                out.writeUTF(emailAddress.value);
+            }
+            if (confirmationHash != null) {
+                out.writeLong(confirmationHash.mostSignificantBits());
+                out.writeLong(confirmationHash.leastSignificantBits());
+            }
+            if (name != null) {
+                out.writeUTF(name.givenName);
+                out.writeUTF(name.familyName);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return buffer.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not a customer snapshot
+     */
+    public static <T> T decode(byte[] bytes, Decoder<T> decoder) {
+        try (var in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            long version = in.readLong();
+            int flags = in.readByte();
+
+            var emailAddress = (flags & HAS_EMAIL_ADDRESS) != 0 ? EmailAddress.build(in.readUTF()) : null;
+            var confirmationHash = (flags & HAS_CONFIRMATION_HASH) != 0 ? Hash.build(in.readLong(), in.readLong()) : null;
+            var name = (flags & HAS_NAME) != 0 ? PersonName.build(in.readUTF(), in.readUTF()) : null;
+
+            return decoder.build(version, emailAddress, confirmationHash, (flags & CONFIRMED) != 0, name);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("not a customer snapshot", e);
+        }
+    }
+
+    /**
+     * Reads only the stream version.
+     */
+    public static long version(byte[] bytes) {
+        if (bytes.length < Long.BYTES + 1) {
+            throw new IllegalArgumentException("not a customer snapshot");
+        }
+
+        return (bytes[0] & 0xFFL) << 56 | (bytes[1] & 0xFFL) << 48 | (bytes[2] & 0xFFL) << 40 | (bytes[3] & 0xFFL) << 32
+                | (bytes[4] & 0xFFL) << 24 | (bytes[5] & 0xFFL) << 16 | (bytes[6] & 0xFFL) << 8 | (bytes[7] & 0xFFL);
+    }
+}
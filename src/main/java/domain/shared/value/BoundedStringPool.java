@@ -0,0 +1,70 @@
+package domain.shared.value;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Direct-mapped, lock-free pool: each String has exactly one slot, chosen by its hash code. A miss puts the String
+ * into its slot and replaces whatever was there, so values that repeat keep their slot and one-off values are
+ * evicted by the next value that maps to the same slot. The pool never holds more than its capacity.
+ */
+public final class BoundedStringPool implements StringPool {
+    private final AtomicReferenceArray<String> slots;
+    private final int mask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    BoundedStringPool(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30");
+        }
+
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        slots = new AtomicReferenceArray<>(size);
+        mask = size - 1;
+    }
+
+    @Override
+    public String canonicalize(String value) {
+        if (value == null) {
+            return null;
+        }
+
+        int h = value.hashCode();
+        int slot = (h ^ (h >>> 16)) & mask;
+
+        var pooled = slots.getAcquire(slot);
+        if (value.equals(pooled)) {
+            hits.increment();
+
+            return pooled;
+        }
+
+        slots.setRelease(slot, value);
+        misses.increment();
+
+        return value;
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Share of the canonicalized values that were already pooled, 0 before the first one.
+     */
+    public double hitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+}
@@ -18,4 +18,9 @@ public final class EmailAddress {
         EmailAddress that = (EmailAddress) o;
         return value.equals(that.value);
     }
+
+    @Override
+    public int hashCode() {
+        return value.hashCode();
+    }
 }
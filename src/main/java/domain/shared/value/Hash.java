@@ -1,20 +1,89 @@
 package domain.shared.value;
 
-import java.util.UUID;
-
+/**
+ * A UUID held as two longs. The textual form is rendered on first use only.
+ * <p>
+ * Text that is not a UUID, e.g. from a tampered link, is kept as it is: value() returns it unchanged, equality
+ * compares the text and the bits are mixed from it, so it never equals a UUID.
+ */
 public final class Hash {
-    public final String value;
+    private static volatile UUIDGenerator generator = UUIDGenerator.random();
+
+    private final long mostSignificantBits;
+    private final long leastSignificantBits;
+    private final boolean raw;
+    private String value;
+
+    private Hash(long mostSignificantBits, long leastSignificantBits) {
+        this.mostSignificantBits = mostSignificantBits;
+        this.leastSignificantBits = leastSignificantBits;
+        this.raw = false;
+    }
 
-    private Hash(String value) {
-        this.value = value;
+    private Hash(String rawValue) {
+        this.mostSignificantBits = UUIDs.rawBits(rawValue, 0xCBF29CE484222325L);
+        this.leastSignificantBits = UUIDs.rawBits(rawValue, 0x84222325CBF29CE4L);
+        this.raw = true;
+        this.value = rawValue;
     }
 
     public static Hash generate() {
-        return new Hash(UUID.randomUUID().toString());
+        var uuid = generator.generate();
+
+        return new Hash(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    public static void useGenerator(UUIDGenerator uuidGenerator) {
+        generator = uuidGenerator;
     }
 
     public static Hash build(String hash) {
-        return new Hash(hash);
+        if (!UUIDs.isUUID(hash)) {
+            return new Hash(hash);
+        }
+
+        return new Hash(UUIDs.mostSignificantBits(hash), UUIDs.leastSignificantBits(hash));
+    }
+
+    public static Hash build(long mostSignificantBits, long leastSignificantBits) {
+        return new Hash(mostSignificantBits, leastSignificantBits);
+    }
+
+    public String value() {
+        var rendered = value;
+        if (rendered == null) {
+            rendered = UUIDs.format(mostSignificantBits, leastSignificantBits);
+            value = rendered;
+        }
+
+        return rendered;
+    }
+
+    /**
+     * False for text that is not a UUID and was kept as it is, whose bits are only mixed from the text.
+     */
+    public boolean isUUID() {
+        return !raw;
+    }
+
+    public long mostSignificantBits() {
+        return mostSignificantBits;
+    }
+
+    public long leastSignificantBits() {
+        return leastSignificantBits;
+    }
+
+    /**
+     * Constant-time comparison: both halves are always compared and folded into one result, so the time taken does
+     * not reveal how much of a guessed hash was right. A hash that is not a UUID matches nothing.
+     */
+    public boolean matches(Hash other) {
+        return matches(other.mostSignificantBits, other.leastSignificantBits) & !other.raw;
+    }
+
+    public boolean matches(long mostSignificantBits, long leastSignificantBits) {
+        return ((this.mostSignificantBits ^ mostSignificantBits) | (this.leastSignificantBits ^ leastSignificantBits)) == 0 & !raw;
     }
 
     @Override
@@ -22,6 +91,12 @@ public final class Hash {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Hash hash = (Hash) o;
-        return value.equals(hash.value);
+        if (raw || hash.raw) return raw == hash.raw && value.equals(hash.value);
+        return matches(hash);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(mostSignificantBits ^ leastSignificantBits);
     }
 }
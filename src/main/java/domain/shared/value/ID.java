@@ -1,20 +1,77 @@
 package domain.shared.value;
 
-import java.util.UUID;
-
+/**
+ * A UUID held as two longs. The textual form is rendered on first use only.
+ * <p>
+ * Text that is not a UUID, e.g. from a tampered link, is kept as it is: value() returns it unchanged, equality
+ * compares the text and the bits are mixed from it, so it never equals a UUID.
+ */
 public final class ID {
-    public final String value;
+    private static volatile UUIDGenerator generator = UUIDGenerator.random();
+
+    private final long mostSignificantBits;
+    private final long leastSignificantBits;
+    private final boolean raw;
+    private String value;
+
+    private ID(long mostSignificantBits, long leastSignificantBits) {
+        this.mostSignificantBits = mostSignificantBits;
+        this.leastSignificantBits = leastSignificantBits;
+        this.raw = false;
+    }
 
-    private ID(String value) {
-        this.value = value;
+    private ID(String rawValue) {
+        this.mostSignificantBits = UUIDs.rawBits(rawValue, 0xCBF29CE484222325L);
+        this.leastSignificantBits = UUIDs.rawBits(rawValue, 0x84222325CBF29CE4L);
+        this.raw = true;
+        this.value = rawValue;
     }
 
     public static ID generate() {
-        return new ID(UUID.randomUUID().toString());
+        var uuid = generator.generate();
+
+        return new ID(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    public static void useGenerator(UUIDGenerator uuidGenerator) {
+        generator = uuidGenerator;
     }
 
     public static ID build(String id) {
-        return new ID(id);
+        if (!UUIDs.isUUID(id)) {
+            return new ID(id);
+        }
+
+        return new ID(UUIDs.mostSignificantBits(id), UUIDs.leastSignificantBits(id));
+    }
+
+    public static ID build(long mostSignificantBits, long leastSignificantBits) {
+        return new ID(mostSignificantBits, leastSignificantBits);
+    }
+
+    public String value() {
+        var rendered = value;
+        if (rendered == null) {
+            rendered = UUIDs.format(mostSignificantBits, leastSignificantBits);
+            value = rendered;
+        }
+
+        return rendered;
+    }
+
+    /**
+     * False for text that is not a UUID and was kept as it is, whose bits are only mixed from the text.
+     */
+    public boolean isUUID() {
+        return !raw;
+    }
+
+    public long mostSignificantBits() {
+        return mostSignificantBits;
+    }
+
+    public long leastSignificantBits() {
+        return leastSignificantBits;
     }
 
     @Override
@@ -22,6 +79,12 @@ public final class ID {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         ID id = (ID) o;
-        return value.equals(id.value);
+        return mostSignificantBits == id.mostSignificantBits && leastSignificantBits == id.leastSignificantBits
+                && raw == id.raw && (!raw || value.equals(id.value));
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(mostSignificantBits ^ leastSignificantBits);
     }
 }
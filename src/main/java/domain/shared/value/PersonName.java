@@ -1,8 +1,11 @@
 package domain.shared.value;
 
 public final class PersonName {
+    private static volatile StringPool pool = StringPool.none();
+
     public final String givenName;
     public final String familyName;
+    private int hash;
 
     private PersonName(String givenName, String familyName) {
         this.givenName = givenName;
@@ -10,7 +13,16 @@ public final class PersonName {
     }
 
     public static PersonName build(String givenName, String familyName) {
-        return new PersonName(givenName, familyName);
+        var current = pool;
+
+        return new PersonName(current.canonicalize(givenName), current.canonicalize(familyName));
+    }
+
+    /**
+     * Canonicalizes the name parts of every PersonName built from now on, e.g. to StringPool.bounded(...).
+     */
+    public static void usePool(StringPool stringPool) {
+        pool = stringPool;
     }
 
     @Override
@@ -21,4 +33,15 @@ public final class PersonName {
         return givenName.equals(that.givenName) &&
                 familyName.equals(that.familyName);
     }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = 31 * givenName.hashCode() + familyName.hashCode();
+            hash = h;
+        }
+
+        return h;
+    }
 }
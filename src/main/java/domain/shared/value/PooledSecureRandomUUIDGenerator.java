@@ -0,0 +1,90 @@
+package domain.shared.value;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed pool of SHA1PRNG SecureRandoms, each with a state of its own and seeded once from the system generator. The
+ * default SecureRandom on Linux is NativePRNG, whose instances all share one global lock, so pooling those spreads
+ * nothing. A thread starts at a slot hashed from
+ * its ID and probes on to the next one while a slot is busy, so virtual threads whose IDs collide do not queue up
+ * behind each other, and short-lived threads neither create nor seed generators of their own.
+ */
+final class PooledSecureRandomUUIDGenerator implements UUIDGenerator {
+    private static final long VERSION_4 = 0x4000L;
+    private static final long VARIANT_IETF = 0x8000_0000_0000_0000L;
+    private static final int SEED_SIZE = 32;
+
+    private final Slot[] pool;
+
+    PooledSecureRandomUUIDGenerator() {
+        var seedSource = new SecureRandom();
+        pool = new Slot[Integer.highestOneBit(Math.max(Runtime.getRuntime().availableProcessors(), 1) * 2 - 1) << 1];
+        for (int i = 0; i < pool.length; i++) {
+            var seed = new byte[SEED_SIZE];
+            seedSource.nextBytes(seed);
+            pool[i] = new Slot(seed);
+        }
+    }
+
+    @Override
+    public UUID generate() {
+        int mask = pool.length - 1;
+        int start = (int) ((Thread.currentThread().threadId() * 0x9E37_79B9_7F4A_7C15L) >>> 32) & mask;
+        for (int probe = 0; probe < pool.length; probe++) {
+            var slot = pool[(start + probe) & mask];
+            if (slot.lock.tryLock()) {
+                return slot.generate();
+            }
+        }
+
+        var slot = pool[start];
+        slot.lock.lock();
+
+        return slot.generate();
+    }
+
+    private static final class Slot {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final SecureRandom secureRandom;
+        private final byte[] bytes = new byte[16];
+
+        Slot(byte[] seed) {
+            try {
+                secureRandom = SecureRandom.getInstance("SHA1PRNG");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("the SHA1PRNG SecureRandom is not available", e);
+            }
+            secureRandom.setSeed(seed);
+        }
+
+        /**
+         * Expects the lock to be held and releases it.
+         */
+        UUID generate() {
+            try {
+                secureRandom.nextBytes(bytes);
+                long mostSignificantBits = longAt(0);
+                long leastSignificantBits = longAt(8);
+
+                return new UUID(
+                        (mostSignificantBits & ~0xF000L) | VERSION_4,
+                        (leastSignificantBits & 0x3FFF_FFFF_FFFF_FFFFL) | VARIANT_IETF
+                );
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private long longAt(int offset) {
+            long value = 0;
+            for (int i = offset; i < offset + 8; i++) {
+                value = value << 8 | (bytes[i] & 0xFF);
+            }
+
+            return value;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package domain.shared.value;
+
+/**
+ * Maps equal Strings to one canonical instance, so values that repeat across many customers, like family names,
+ * are retained once. Only name parts are pooled, email addresses are unique per customer and would just evict them.
+ */
+public interface StringPool {
+    /**
+     * Returns null unchanged, so the callers' own validation sees it.
+     */
+    String canonicalize(String value);
+
+    /**
+     * Returns every String unchanged.
+     */
+    static StringPool none() {
+        return value -> value;
+    }
+
+    /**
+     * A pool of at most the given number of Strings, rounded up to a power of two.
+     */
+    static BoundedStringPool bounded(int capacity) {
+        return new BoundedStringPool(capacity);
+    }
+}
@@ -0,0 +1,18 @@
+package domain.shared.value;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+final class TimeOrderedUUIDGenerator implements UUIDGenerator {
+    private static final long VERSION_7 = 0x7000L;
+    private static final long VARIANT_IETF = 0x8000_0000_0000_0000L;
+
+    @Override
+    public UUID generate() {
+        var random = ThreadLocalRandom.current();
+        long mostSignificantBits = (System.currentTimeMillis() << 16) | VERSION_7 | (random.nextLong() & 0x0FFFL);
+        long leastSignificantBits = VARIANT_IETF | (random.nextLong() & 0x3FFF_FFFF_FFFF_FFFFL);
+
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+}
@@ -0,0 +1,28 @@
+package domain.shared.value;
+
+import java.util.UUID;
+
+public interface UUIDGenerator {
+    UUID generate();
+
+    /**
+     * UUID.randomUUID(), which draws from one SecureRandom shared by all threads.
+     */
+    static UUIDGenerator random() {
+        return UUID::randomUUID;
+    }
+
+    /**
+     * Version 7 UUIDs: a millisecond timestamp followed by random bits, so values generated later sort later.
+     */
+    static UUIDGenerator timeOrdered() {
+        return new TimeOrderedUUIDGenerator();
+    }
+
+    /**
+     * Version 4 UUIDs from a small pool of SHA1PRNG SecureRandoms with independent state, so threads rarely wait on the same one.
+     */
+    static UUIDGenerator pooledSecureRandom() {
+        return new PooledSecureRandomUUIDGenerator();
+    }
+}
@@ -0,0 +1,120 @@
+package domain.shared.value;
+
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+
+final class UUIDs {
+    private static final int LENGTH = 36;
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(ISO_8859_1);
+    private static final byte[] HEX_VALUES = new byte[128];
+
+    static {
+        Arrays.fill(HEX_VALUES, (byte) -1);
+        for (int i = 0; i < 10; i++) {
+            HEX_VALUES['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            HEX_VALUES['a' + i] = (byte) (10 + i);
+            HEX_VALUES['A' + i] = (byte) (10 + i);
+        }
+    }
+
+    private UUIDs() {
+    }
+
+    static long mostSignificantBits(String uuid) {
+        validate(uuid);
+
+        return (parseHex(uuid, 0, 8) << 32) | (parseHex(uuid, 9, 13) << 16) | parseHex(uuid, 14, 18);
+    }
+
+    static long leastSignificantBits(String uuid) {
+        validate(uuid);
+
+        return (parseHex(uuid, 19, 23) << 48) | parseHex(uuid, 24, 36);
+    }
+
+    /**
+     * Whether the value is a UUID in its canonical textual form, in either case.
+     */
+    static boolean isUUID(String value) {
+        if (value.length() != LENGTH
+                || value.charAt(8) != '-' || value.charAt(13) != '-' || value.charAt(18) != '-' || value.charAt(23) != '-') {
+            return false;
+        }
+
+        int invalid = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            if (i != 8 && i != 13 && i != 18 && i != 23) {
+                char c = value.charAt(i);
+                invalid |= HEX_VALUES[c & 0x7F] | ((0x7F - c) >> 31);
+            }
+        }
+
+        return invalid >= 0;
+    }
+
+    /**
+     * 64 bits mixed from the text of a value that is not a UUID, different seeds give independent halves.
+     */
+    static long rawBits(String value, long seed) {
+        long h = seed;
+        for (int i = 0; i < value.length(); i++) {
+            h = (h ^ value.charAt(i)) * 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+
+        return h;
+    }
+
+    static String format(long mostSignificantBits, long leastSignificantBits) {
+        var chars = new byte[LENGTH];
+        formatHex(chars, 0, mostSignificantBits >>> 32, 8);
+        chars[8] = '-';
+        formatHex(chars, 9, mostSignificantBits >>> 16, 4);
+        chars[13] = '-';
+        formatHex(chars, 14, mostSignificantBits, 4);
+        chars[18] = '-';
+        formatHex(chars, 19, leastSignificantBits >>> 48, 4);
+        chars[23] = '-';
+        formatHex(chars, 24, leastSignificantBits, 12);
+
+        return new String(chars, ISO_8859_1);
+    }
+
+    private static void validate(String uuid) {
+        if (uuid.length() != LENGTH
+                || uuid.charAt(8) != '-' || uuid.charAt(13) != '-' || uuid.charAt(18) != '-' || uuid.charAt(23) != '-') {
+            throw new IllegalArgumentException("not a UUID: " + uuid);
+        }
+    }
+
+    /**
+     * Table lookup per digit, invalid digits are collected in one flag that is checked once at the end.
+     */
+    private static long parseHex(String uuid, int from, int to) {
+        long result = 0;
+        int invalid = 0;
+        for (int i = from; i < to; i++) {
+            char c = uuid.charAt(i);
+            int digit = HEX_VALUES[c & 0x7F] | ((0x7F - c) >> 31);
+            invalid |= digit;
+            result = (result << 4) | (digit & 0xF);
+        }
+        if (invalid < 0) {
+            throw new IllegalArgumentException("not a UUID: " + uuid);
+        }
+
+        return result;
+    }
+
+    private static void formatHex(byte[] chars, int offset, long value, int digits) {
+        for (int i = digits - 1; i >= 0; i--) {
+            chars[offset + i] = HEX_DIGITS[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+}
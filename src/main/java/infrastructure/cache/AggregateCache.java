@@ -0,0 +1,173 @@
+package infrastructure.cache;
+
+import domain.functional.es.customer.CustomerState;
+import domain.oop.es.customer.Customer4;
+import domain.oop.es.customer.CustomerMemento;
+import domain.shared.event.Event;
+import domain.shared.value.ID;
+import infrastructure.eventstore.EventStore;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of reconstituted aggregate states together with the stream version they cover. A hit only folds
+ * the events that were appended since the cached version.
+ * <p>
+ * Reads are a plain ConcurrentHashMap lookup. Inserts and evictions are serialized: the victim is chosen by a CLOCK
+ * sweep, and a new entry only replaces it if the frequency sketch has seen the new key more often (TinyLFU
+ * admission), so one-off lookups cannot flush frequently used customers.
+ * <p>
+ * The cached states must be immutable, which is why Customer4 is cached as its CustomerMemento.
+ */
+public final class AggregateCache<S> {
+    private final EventStore eventStore;
+    private final int maximumSize;
+    private final Function<List<Event>, S> replay;
+    private final BiFunction<S, List<Event>, S> catchUp;
+
+    private final ConcurrentHashMap<ID, Entry<S>> entries = new ConcurrentHashMap<>();
+    private final LinkedHashSet<ID> clock = new LinkedHashSet<>();
+    private final FrequencySketch sketch;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public AggregateCache(EventStore eventStore, int maximumSize, Function<List<Event>, S> replay, BiFunction<S, List<Event>, S> catchUp) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximum size must be positive");
+        }
+
+        this.eventStore = eventStore;
+        this.maximumSize = maximumSize;
+        this.replay = replay;
+        this.catchUp = catchUp;
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    public static AggregateCache<CustomerState> forCustomerState(EventStore eventStore, int maximumSize) {
+        return new AggregateCache<>(
+                eventStore,
+                maximumSize,
+                CustomerState::reconstitute,
+                (state, newEvents) -> state.advance(state.version(), newEvents)
+        );
+    }
+
+    /**
+     * Use Customer4.reconstitute(memento, List.of()) to get an aggregate that commands can be executed on.
+     */
+    public static AggregateCache<CustomerMemento> forCustomer4(EventStore eventStore, int maximumSize) {
+        return new AggregateCache<>(
+                eventStore,
+                maximumSize,
+                events -> Customer4.reconstitute(events).memento(),
+                (memento, newEvents) -> Customer4.reconstitute(memento, newEvents).memento()
+        );
+    }
+
+    public S get(ID customerID) {
+        sketch.increment(customerID.hashCode());
+
+        var entry = entries.get(customerID);
+        if (entry != null) {
+            hits.increment();
+            entry.referenced = true;
+
+            var newEvents = eventStore.load(customerID, entry.version);
+            if (newEvents.isEmpty()) {
+                return entry.state;
+            }
+
+            var state = catchUp.apply(entry.state, newEvents);
+            entries.replace(customerID, entry, new Entry<>(state, entry.version + newEvents.size()));
+
+            return state;
+        }
+
+        misses.increment();
+        var events = eventStore.load(customerID);
+        var state = replay.apply(events);
+        admit(customerID, new Entry<>(state, events.size()));
+
+        return state;
+    }
+
+    public synchronized void invalidate(ID customerID) {
+        if (entries.remove(customerID) != null) {
+            clock.remove(customerID);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    private synchronized void admit(ID customerID, Entry<S> entry) {
+        var current = entries.get(customerID);
+        if (current != null) {
+            if (entry.version > current.version) {
+                entries.replace(customerID, current, entry);
+            }
+            return;
+        }
+
+        if (clock.size() >= maximumSize) {
+            var victim = selectVictim();
+            if (sketch.frequency(customerID.hashCode()) <= sketch.frequency(victim.hashCode())) {
+                clock.add(victim);
+                return;
+            }
+
+            entries.remove(victim);
+            evictions.increment();
+        }
+
+        entries.put(customerID, entry);
+        clock.add(customerID);
+    }
+
+    private ID selectVictim() {
+        while (true) {
+            var iterator = clock.iterator();
+            var candidate = iterator.next();
+            iterator.remove();
+
+            var entry = entries.get(candidate);
+            if (!entry.referenced) {
+                return candidate;
+            }
+            entry.referenced = false;
+            clock.add(candidate);
+        }
+    }
+
+    private static final class Entry<S> {
+        final S state;
+        final long version;
+        // Set on every hit without synchronization, the CLOCK sweep only needs a hint.
+        boolean referenced;
+
+        Entry(S state, long version) {
+            this.state = state;
+            this.version = version;
+        }
+    }
+}
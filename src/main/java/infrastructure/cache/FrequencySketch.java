@@ -0,0 +1,62 @@
+package infrastructure.cache;
+
+/**
+ * Count-min sketch with four rows of saturating 4 bit counters. All counters are halved once the number of
+ * increments reaches ten times the cache size, so the sketch favours recent popularity. Updates are not atomic,
+ * the estimate only has to be good enough to compare candidates.
+ */
+final class FrequencySketch {
+    private static final int ROWS = 4;
+    private static final int MAX_COUNT = 15;
+    private static final int[] SEEDS = {0x97cb3127, 0xec5a3f2b, 0x3b1e5d43, 0x8f0e5a31};
+
+    private final byte[] counters;
+    private final int rowMask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int maximumSize) {
+        int width = Integer.highestOneBit(Math.max(16, maximumSize - 1) << 1);
+        this.counters = new byte[ROWS * width];
+        this.rowMask = width - 1;
+        this.sampleSize = 10 * Math.max(16, maximumSize);
+    }
+
+    void increment(int hashCode) {
+        boolean added = false;
+        for (int row = 0; row < ROWS; row++) {
+            int index = index(hashCode, row);
+            if (counters[index] < MAX_COUNT) {
+                counters[index]++;
+                added = true;
+            }
+        }
+
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    int frequency(int hashCode) {
+        int frequency = MAX_COUNT;
+        for (int row = 0; row < ROWS; row++) {
+            frequency = Math.min(frequency, counters[index(hashCode, row)]);
+        }
+
+        return frequency;
+    }
+
+    private int index(int hashCode, int row) {
+        int h = (hashCode ^ SEEDS[row]) * 0x9E3779B9;
+        h ^= h >>> 16;
+
+        return row * (rowMask + 1) + (h & rowMask);
+    }
+
+    private void reset() {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = (byte) (counters[i] >> 1);
+        }
+        additions /= 2;
+    }
+}
@@ -0,0 +1,50 @@
+package infrastructure.dispatch;
+
+import domain.functional.es.customer.CustomerBatch;
+import domain.shared.event.Event;
+import domain.shared.value.ID;
+import infrastructure.eventstore.ConcurrencyConflictException;
+import infrastructure.eventstore.EventStore;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Groups commands by customer and handles each group with one load, one reconstitution and one append.
+ * Customers are handled one after the other in the order of their first command. A failure stops the batch:
+ * nothing is appended for the customer whose command failed, the events of the customers handled before it stay
+ * appended.
+ */
+public final class BatchCommandHandler {
+    private final EventStore eventStore;
+    private final CustomerBatch.Decider decider;
+
+    public BatchCommandHandler(EventStore eventStore) {
+        this(eventStore, CustomerBatch.CUSTOMER7);
+    }
+
+    public BatchCommandHandler(EventStore eventStore, CustomerBatch.Decider decider) {
+        this.eventStore = eventStore;
+        this.decider = decider;
+    }
+
+    public Map<ID, List<Event>> handle(List<?> commands) throws ConcurrencyConflictException {
+        var commandsByCustomer = new LinkedHashMap<ID, List<Object>>();
+        for (Object command : commands) {
+            commandsByCustomer.computeIfAbsent(CommandDispatcher.customerID(command), id -> new ArrayList<>()).add(command);
+        }
+
+        var recordedEvents = new LinkedHashMap<ID, List<Event>>();
+        for (var group : commandsByCustomer.entrySet()) {
+            var customerID = group.getKey();
+            var eventStream = eventStore.load(customerID);
+            var events = CustomerBatch.handle(eventStream, group.getValue(), decider);
+            eventStore.append(customerID, eventStream.size(), events);
+            recordedEvents.put(customerID, events);
+        }
+
+        return recordedEvents;
+    }
+}
@@ -0,0 +1,141 @@
+package infrastructure.dispatch;
+
+import domain.shared.command.ChangeCustomerEmailAddress;
+import domain.shared.command.ChangeCustomerName;
+import domain.shared.command.ConfirmCustomerEmailAddress;
+import domain.shared.command.RegisterCustomer;
+import domain.shared.value.ID;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Routes commands to a mailbox per customer. A mailbox only exists while it has work: the first command creates it
+ * and starts a virtual thread that drains it, the thread removes the mailbox again once it is empty. So commands of
+ * one customer are executed one after the other, while idle customers cost nothing.
+ * <p>
+ * Mailboxes are bounded, a command that does not fit is rejected with a RejectedExecutionException.
+ * <p>
+ * A mailbox thread reads the clock when it starts draining and hands the end of each command to the handler as the
+ * start of the next, so a handler that records latencies reads the clock once per command.
+ */
+public final class CommandDispatcher implements AutoCloseable {
+    public static final int DEFAULT_MAILBOX_CAPACITY = 64;
+
+    private final CommandHandler handler;
+    private final int mailboxCapacity;
+    private final ConcurrentHashMap<ID, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile boolean closed;
+
+    public CommandDispatcher(CommandHandler handler) {
+        this(handler, DEFAULT_MAILBOX_CAPACITY);
+    }
+
+    public CommandDispatcher(CommandHandler handler, int mailboxCapacity) {
+        if (mailboxCapacity < 1) {
+            throw new IllegalArgumentException("mailbox capacity must be positive");
+        }
+
+        this.handler = handler;
+        this.mailboxCapacity = mailboxCapacity;
+    }
+
+    public CompletableFuture<Void> dispatch(Object command) {
+        var envelope = new Envelope(command);
+        var customerID = customerID(command);
+
+        mailboxes.compute(customerID, (id, mailbox) -> {
+            if (closed) {
+                envelope.result.completeExceptionally(new RejectedExecutionException("dispatcher is closed"));
+                return mailbox;
+            }
+            if (mailbox == null) {
+                var started = new Mailbox(id, mailboxCapacity);
+                try {
+                    executor.execute(() -> drain(started));
+                } catch (RejectedExecutionException e) {
+                    envelope.result.completeExceptionally(e);
+                    return null;
+                }
+                mailbox = started;
+            }
+            if (!mailbox.queue.offer(envelope)) {
+                envelope.result.completeExceptionally(new RejectedExecutionException("mailbox of customer " + id.value() + " is full"));
+            }
+
+            return mailbox;
+        });
+
+        return envelope.result;
+    }
+
+    int activeMailboxes() {
+        return mailboxes.size();
+    }
+
+    /**
+     * Rejects new commands and waits until all queued commands were handled.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        executor.close();
+    }
+
+    static ID customerID(Object command) {
+        if (command instanceof RegisterCustomer register) {
+            return register.customerID;
+        }
+        if (command instanceof ConfirmCustomerEmailAddress confirm) {
+            return confirm.customerID;
+        }
+        if (command instanceof ChangeCustomerEmailAddress change) {
+            return change.customerID;
+        }
+        if (command instanceof ChangeCustomerName change) {
+            return change.customerID;
+        }
+
+        throw new IllegalArgumentException("unsupported command " + command.getClass().getSimpleName());
+    }
+
+    private void drain(Mailbox mailbox) {
+        do {
+            long start = System.nanoTime();
+            Envelope envelope;
+            while ((envelope = mailbox.queue.poll()) != null) {
+                try {
+                    start = handler.handle(envelope.command, start);
+                    envelope.result.complete(null);
+                } catch (Exception e) {
+                    start = System.nanoTime();
+                    envelope.result.completeExceptionally(e);
+                }
+            }
+        } while (mailboxes.computeIfPresent(mailbox.customerID, (id, current) -> current.queue.isEmpty() ? null : current) != null);
+    }
+
+    private static final class Mailbox {
+        final ID customerID;
+        final ArrayBlockingQueue<Envelope> queue;
+
+        Mailbox(ID customerID, int capacity) {
+            this.customerID = customerID;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+
+    private static final class Envelope {
+        final Object command;
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+
+        Envelope(Object command) {
+            this.command = command;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package infrastructure.dispatch;
+
+/**
+ * Executes one command. The CommandDispatcher never runs two commands of the same customer at the same time.
+ */
+@FunctionalInterface
+public interface CommandHandler {
+    void handle(Object command) throws Exception;
+
+    /**
+     * Handles a command that started at startNanos, a System.nanoTime() value the caller already read. Returns the
+     * time the command ended if the handler read the clock, startNanos if it did not. A caller that runs commands back
+     * to back passes the result on as the start of the next one, so timing costs one clock read per command.
+     */
+    default long handle(Object command, long startNanos) throws Exception {
+        handle(command);
+
+        return startNanos;
+    }
+}
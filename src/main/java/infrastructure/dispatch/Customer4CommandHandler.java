@@ -0,0 +1,109 @@
+package infrastructure.dispatch;
+
+import domain.oop.es.customer.Customer4;
+import domain.shared.command.ChangeCustomerEmailAddress;
+import domain.shared.command.ConfirmCustomerEmailAddress;
+import domain.shared.command.RegisterCustomer;
+import domain.shared.event.Event;
+import domain.shared.exception.EmailAddressAlreadyInUseException;
+import domain.shared.value.EmailAddress;
+import domain.shared.value.ID;
+import infrastructure.eventstore.ConcurrencyConflictException;
+import infrastructure.eventstore.EventStore;
+import infrastructure.index.EmailAddressIndex;
+import infrastructure.metrics.CustomerMetrics;
+import infrastructure.metrics.CustomerMetrics.Command;
+
+import java.util.List;
+
+public final class Customer4CommandHandler implements CommandHandler {
+    private final EventStore eventStore;
+    private final EmailAddressIndex emailAddressIndex;
+    private final CustomerMetrics metrics;
+
+    public Customer4CommandHandler(EventStore eventStore) {
+        this(eventStore, null);
+    }
+
+    /**
+     * Reserves the email address of RegisterCustomer and ChangeCustomerEmailAddress in the index before the
+     * aggregate is asked, and feeds the appended events into it.
+     */
+    public Customer4CommandHandler(EventStore eventStore, EmailAddressIndex emailAddressIndex) {
+        this(eventStore, emailAddressIndex, null);
+    }
+
+    /**
+     * Also records latency, replayed and emitted events of every successfully handled command.
+     */
+    public Customer4CommandHandler(EventStore eventStore, EmailAddressIndex emailAddressIndex, CustomerMetrics metrics) {
+        this.eventStore = eventStore;
+        this.emailAddressIndex = emailAddressIndex;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void handle(Object command) throws Exception {
+        handle(command, metrics != null ? System.nanoTime() : 0);
+    }
+
+    @Override
+    public long handle(Object command, long start) throws Exception {
+        if (command instanceof RegisterCustomer register) {
+            reserve(register.emailAddress, register.customerID);
+            try {
+                var customer = Customer4.register(register);
+                return append(Command.REGISTER, start, register.customerID, 0, customer.getRecordedEvents());
+            } finally {
+                release(register.emailAddress, register.customerID);
+            }
+        } else if (command instanceof ConfirmCustomerEmailAddress confirm) {
+            var events = eventStore.load(confirm.customerID);
+            var customer = Customer4.reconstitute(events);
+            customer.confirmEmailAddress(confirm);
+            return append(Command.CONFIRM_EMAIL_ADDRESS, start, confirm.customerID, events.size(), customer.getRecordedEvents());
+        } else if (command instanceof ChangeCustomerEmailAddress change) {
+            reserve(change.emailAddress, change.customerID);
+            try {
+                var events = eventStore.load(change.customerID);
+                var customer = Customer4.reconstitute(events);
+                customer.changeEmailAddress(change);
+                return append(Command.CHANGE_EMAIL_ADDRESS, start, change.customerID, events.size(), customer.getRecordedEvents());
+            } finally {
+                release(change.emailAddress, change.customerID);
+            }
+        }
+
+        throw new IllegalArgumentException("Customer4 does not handle " + command.getClass().getSimpleName());
+    }
+
+    /**
+     * Returns the end of the command if it was recorded, the start otherwise.
+     */
+    private long append(Command command, long start, ID customerID, long expectedVersion, List<Event> events) throws ConcurrencyConflictException {
+        eventStore.append(customerID, expectedVersion, events);
+        if (emailAddressIndex != null) {
+            emailAddressIndex.apply(events);
+        }
+        if (metrics == null) {
+            return start;
+        }
+
+        long end = System.nanoTime();
+        metrics.recordCommand(command, end - start, (int) expectedVersion, events.size());
+
+        return end;
+    }
+
+    private void reserve(EmailAddress emailAddress, ID customerID) throws EmailAddressAlreadyInUseException {
+        if (emailAddressIndex != null && !emailAddressIndex.reserve(emailAddress, customerID)) {
+            throw new EmailAddressAlreadyInUseException();
+        }
+    }
+
+    private void release(EmailAddress emailAddress, ID customerID) {
+        if (emailAddressIndex != null) {
+            emailAddressIndex.release(emailAddress, customerID);
+        }
+    }
+}
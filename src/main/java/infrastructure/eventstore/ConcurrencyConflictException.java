@@ -0,0 +1,12 @@
+package infrastructure.eventstore;
+
+public class ConcurrencyConflictException extends Exception {
+    public final long expectedVersion;
+    public final long actualVersion;
+
+    public ConcurrencyConflictException(long expectedVersion, long actualVersion) {
+        super(String.format("expected stream version %d but stream is at version %d", expectedVersion, actualVersion));
+        this.expectedVersion = expectedVersion;
+        this.actualVersion = actualVersion;
+    }
+}
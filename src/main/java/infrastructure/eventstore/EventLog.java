@@ -0,0 +1,80 @@
+package infrastructure.eventstore;
+
+import domain.shared.event.Event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The global log of an InMemoryEventStore. An append reserves its positions with one atomic add and fills them
+ * without a lock, a read stops at the first position that is reserved but not filled yet. The log is held in chunks,
+ * so the chunks that every reader has acknowledged can be dropped.
+ */
+final class EventLog {
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    private final AtomicLong next = new AtomicLong();
+    private final ConcurrentHashMap<Long, AtomicReferenceArray<Event>> chunks = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> acknowledged = new ConcurrentHashMap<>();
+    private volatile long firstChunk;
+
+    EventLog(String... readerNames) {
+        for (String readerName : readerNames) {
+            acknowledged.put(readerName, 0L);
+        }
+    }
+
+    void append(List<Event> events) {
+        long position = next.getAndAdd(events.size());
+        for (Event event : events) {
+            chunks.computeIfAbsent(position >>> CHUNK_BITS, chunk -> new AtomicReferenceArray<>(CHUNK_SIZE))
+                    .set((int) (position & (CHUNK_SIZE - 1)), event);
+            position++;
+        }
+    }
+
+    LogSlice read(long fromPosition, int maxEvents) {
+        if (fromPosition < firstChunk << CHUNK_BITS) {
+            throw new IllegalStateException("the log before position " + (firstChunk << CHUNK_BITS) + " was already trimmed");
+        }
+
+        long end = Math.min(next.get(), fromPosition + maxEvents);
+        var events = new ArrayList<Event>((int) Math.max(0, end - fromPosition));
+        long position = fromPosition;
+        while (position < end) {
+            var chunk = chunks.get(position >>> CHUNK_BITS);
+            Event event = chunk == null ? null : chunk.get((int) (position & (CHUNK_SIZE - 1)));
+            if (event == null) {
+                break;
+            }
+            events.add(event);
+            position++;
+        }
+
+        return new LogSlice(Collections.unmodifiableList(events), position);
+    }
+
+    /**
+     * Drops the chunks that every reader has read past. Readers the log was not created for are ignored.
+     */
+    void acknowledge(String readerName, long position) {
+        if (acknowledged.computeIfPresent(readerName, (name, previous) -> Math.max(previous, position)) == null) {
+            return;
+        }
+
+        synchronized (acknowledged) {
+            long keepFrom = Collections.min(acknowledged.values()) >>> CHUNK_BITS;
+            for (long chunk = firstChunk; chunk < keepFrom; chunk++) {
+                chunks.remove(chunk);
+            }
+            if (keepFrom > firstChunk) {
+                firstChunk = keepFrom;
+            }
+        }
+    }
+}
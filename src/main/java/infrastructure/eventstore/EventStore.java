@@ -0,0 +1,101 @@
+package infrastructure.eventstore;
+
+import domain.shared.event.Event;
+import domain.shared.value.ID;
+import infrastructure.serialization.EventCodec;
+import infrastructure.serialization.EventViewCursor;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+public interface EventStore {
+    default List<Event> load(ID customerID) {
+        return load(customerID, 0);
+    }
+
+    /**
+     * Loads the events of the stream that were appended after the stream reached the given version.
+     */
+    List<Event> load(ID customerID, long fromVersion);
+
+    /**
+     * Like load, but the events may be read lazily while the iterator is consumed. The iterator only covers the
+     * events that were appended when it was created.
+     */
+    default Iterator<Event> cursor(ID customerID, long fromVersion) {
+        return load(customerID, fromVersion).iterator();
+    }
+
+    /**
+     * Replays the stream as flyweight views, for loops that only need a few fields of each event.
+     */
+    default EventViewCursor viewCursor(ID customerID, long fromVersion) {
+        return EventViewCursor.encoding(cursor(customerID, fromVersion));
+    }
+
+    long streamVersion(ID customerID);
+
+    /**
+     * The customers that have a stream, in no particular order.
+     */
+    Set<ID> customerIDs();
+
+    /**
+     * Reads up to maxEvents events of all streams in the order they were appended, starting at a position returned
+     * by an earlier read, or at 0 for the start of the log. Every appended event is in the log as soon as the
+     * append returns, or for a store on disk as soon as it was forced, so the log doubles as the outbox of the store.
+     */
+    LogSlice readLog(long fromPosition, int maxEvents);
+
+    /**
+     * Like readLog, but hands the events to the reader still encoded by EventCodec, so a caller that only routes
+     * events by their header does not decode them. The buffer is positioned at the event with its limit at the end of
+     * it, and is only valid during the call.
+     *
+     * @return the position to continue reading from
+     */
+    default long readLogRecords(long fromPosition, int maxEvents, Consumer<ByteBuffer> reader) {
+        var slice = readLog(fromPosition, maxEvents);
+        var buffer = ByteBuffer.allocate(512);
+        for (Event event : slice.events) {
+            while (true) {
+                try {
+                    EventCodec.encode(event, buffer.clear());
+                    break;
+                } catch (BufferOverflowException e) {
+                    buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+                }
+            }
+            reader.accept(buffer.flip());
+        }
+
+        return slice.nextPosition;
+    }
+
+    /**
+     * The last record boundary of the log at or before the position, for a position saved before a crash that may
+     * have cut the log short.
+     */
+    default long logBoundary(long position) {
+        return position;
+    }
+
+    /**
+     * Tells the store that the reader has consumed the log up to the position, so a store that keeps the log only
+     * for its readers may drop the start of it.
+     */
+    default void acknowledgeLog(String readerName, long position) {
+    }
+
+    /**
+     * Appends the events to the stream of the customer, if the stream is still at the expected version.
+     * The version of a stream is the number of events it contains, so a new stream is at version 0.
+     *
+     * @return the version of the stream after the append
+     */
+    long append(ID customerID, long expectedVersion, List<Event> events) throws ConcurrencyConflictException;
+}
@@ -0,0 +1,508 @@
+package infrastructure.eventstore;
+
+import domain.shared.event.Event;
+import domain.shared.value.ID;
+import infrastructure.serialization.EventCodec;
+import infrastructure.serialization.EventView;
+import infrastructure.serialization.EventViewCursor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only event log made of segment files. Appends go through a FileChannel, reads through memory-mapped
+ * segments. An in-memory index of record positions per customer is rebuilt on open, so loading a stream only
+ * touches the records of that stream.
+ * <p>
+ * Record layout: payload length (int), CRC32C of the payload (int), payload.
+ */
+public final class FileEventStore implements EventStore, AutoCloseable {
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ConcurrentHashMap<ID, StreamIndex> streams = new ConcurrentHashMap<>();
+    private volatile Segment[] segments;
+    private volatile long durableEnd;
+    private ByteBuffer writeBuffer = ByteBuffer.allocate(4096);
+
+    private FileEventStore(Path directory, int segmentSize, Segment[] segments) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.segments = segments;
+    }
+
+    public static FileEventStore open(Path directory) throws IOException {
+        return open(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    public static FileEventStore open(Path directory, int segmentSize) throws IOException {
+        if (segmentSize <= RECORD_HEADER_SIZE || segmentSize > (1 << 30)) {
+            throw new IllegalArgumentException("segment size must be between " + RECORD_HEADER_SIZE + " and 1 GiB");
+        }
+
+        Files.createDirectories(directory);
+
+        var segments = new ArrayList<Segment>();
+        while (Files.exists(segmentFile(directory, segments.size()))) {
+            segments.add(Segment.open(segmentFile(directory, segments.size()), segments.size(), segmentSize));
+        }
+        if (segments.isEmpty()) {
+            segments.add(Segment.open(segmentFile(directory, 0), 0, segmentSize));
+        }
+
+        var store = new FileEventStore(directory, segmentSize, segments.toArray(new Segment[0]));
+        store.rebuildIndex();
+        var last = store.activeSegment();
+        store.durableEnd = StreamIndex.position(last.number, last.size());
+
+        return store;
+    }
+
+    @Override
+    public long append(ID customerID, long expectedVersion, List<Event> events) throws ConcurrencyConflictException {
+        long version = streamVersion(customerID);
+        if (version != expectedVersion) {
+            throw new ConcurrencyConflictException(expectedVersion, version);
+        }
+        for (Event event : events) {
+            if (!EventCodec.customerID(event).equals(customerID)) {
+                throw new IllegalArgumentException("event does not belong to the stream of customer " + customerID.value());
+            }
+        }
+
+        return write(customerID, expectedVersion, events);
+    }
+
+    private synchronized long write(ID customerID, long expectedVersion, List<Event> events) throws ConcurrencyConflictException {
+        var index = streams.get(customerID);
+        long version = index == null ? 0 : index.size();
+        if (version != expectedVersion) {
+            throw new ConcurrencyConflictException(expectedVersion, version);
+        }
+        if (events.isEmpty()) {
+            return version;
+        }
+
+        var recordOffsets = new int[events.size()];
+        var records = encode(events, recordOffsets);
+
+        try {
+            var segment = activeSegment();
+            if (segment.size() > 0 && segment.size() + records.remaining() > segmentSize) {
+                segment = roll();
+            }
+
+            long start = segment.append(records);
+            if (index == null) {
+                index = streams.computeIfAbsent(customerID, key -> new StreamIndex());
+            }
+            for (int i = 0; i < events.size(); i++) {
+                index.add(StreamIndex.position(segment.number, start + recordOffsets[i]));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return index.size();
+    }
+
+    @Override
+    public List<Event> load(ID customerID, long fromVersion) {
+        var index = streams.get(customerID);
+        if (index == null) {
+            return List.of();
+        }
+
+        int size = index.size();
+        long[] positions = index.positions();
+        if (fromVersion >= size) {
+            return List.of();
+        }
+
+        var current = segments;
+        var events = new ArrayList<Event>(size - (int) fromVersion);
+        ByteBuffer view = null;
+        int viewSegment = -1;
+
+        try {
+            for (int i = (int) fromVersion; i < size; i++) {
+                int segment = StreamIndex.segment(positions[i]);
+                int offset = StreamIndex.offset(positions[i]);
+                if (segment != viewSegment || view.capacity() <= offset) {
+                    view = current[segment].view(offset);
+                    viewSegment = segment;
+                }
+                view.position(offset + RECORD_HEADER_SIZE);
+                events.add(EventCodec.decode(view));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return events;
+    }
+
+    /**
+     * Decodes one record per call to next(), so replaying a stream through the cursor needs constant memory.
+     */
+    @Override
+    public Iterator<Event> cursor(ID customerID, long fromVersion) {
+        var index = streams.get(customerID);
+        if (index == null) {
+            return Collections.emptyIterator();
+        }
+
+        int size = index.size();
+        long[] positions = index.positions();
+        var current = segments;
+        if (fromVersion >= size) {
+            return Collections.emptyIterator();
+        }
+
+        return new Cursor(current, positions, (int) fromVersion, size);
+    }
+
+    /**
+     * The views point straight into the mapped segments, no event is decoded unless one of its fields is read.
+     */
+    @Override
+    public EventViewCursor viewCursor(ID customerID, long fromVersion) {
+        var index = streams.get(customerID);
+        if (index == null) {
+            return new Cursor(segments, new long[0], 0, 0);
+        }
+
+        int size = index.size();
+        long[] positions = index.positions();
+        var current = segments;
+        if (fromVersion >= size) {
+            return new Cursor(current, new long[0], 0, 0);
+        }
+
+        return new Cursor(current, positions, (int) fromVersion, size);
+    }
+
+    @Override
+    public long streamVersion(ID customerID) {
+        var index = streams.get(customerID);
+
+        return index == null ? 0 : index.size();
+    }
+
+    /**
+     * Log positions are the segment number and the offset of the next record, packed like the stream index. Only
+     * records that were forced to disk are in the log, so an event is never relayed and then lost in a crash.
+     */
+    @Override
+    public LogSlice readLog(long fromPosition, int maxEvents) {
+        var events = new ArrayList<Event>(Math.min(maxEvents, 1024));
+        long nextPosition = readLogRecords(fromPosition, maxEvents, record -> events.add(EventCodec.decode(record)));
+
+        return new LogSlice(events, nextPosition);
+    }
+
+    /**
+     * Hands out the forced records straight from the mapped segments.
+     */
+    @Override
+    public long readLogRecords(long fromPosition, int maxEvents, Consumer<ByteBuffer> reader) {
+        var current = segments;
+        long end = durableEnd;
+        int endSegment = StreamIndex.segment(end);
+        int segment = StreamIndex.segment(fromPosition);
+        int offset = StreamIndex.offset(fromPosition);
+        int read = 0;
+
+        try {
+            while (read < maxEvents && segment <= endSegment) {
+                long size = segment == endSegment ? StreamIndex.offset(end) : current[segment].size();
+                if (offset >= size) {
+                    if (segment == endSegment) {
+                        break;
+                    }
+                    segment++;
+                    offset = 0;
+                    continue;
+                }
+
+                var view = current[segment].view(size - 1);
+                while (offset < size && read < maxEvents) {
+                    int start = offset + RECORD_HEADER_SIZE;
+                    int recordEnd = start + view.getInt(offset);
+                    reader.accept(view.limit(recordEnd).position(start));
+                    view.limit(view.capacity());
+                    offset = recordEnd;
+                    read++;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return StreamIndex.position(segment, offset);
+    }
+
+    /**
+     * Moves the position back to the last record boundary of the forced log at or before it.
+     */
+    @Override
+    public long logBoundary(long position) {
+        long end = durableEnd;
+        if (position >= end) {
+            return end;
+        }
+
+        int segment = StreamIndex.segment(position);
+        int target = StreamIndex.offset(position);
+        if (target == 0) {
+            return position;
+        }
+
+        try {
+            var view = segments[segment].view(target - 1);
+            int offset = 0;
+            while (offset + RECORD_HEADER_SIZE <= target) {
+                int next = offset + RECORD_HEADER_SIZE + view.getInt(offset);
+                if (next > target) {
+                    break;
+                }
+                offset = next;
+            }
+
+            return StreamIndex.position(segment, offset);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Set<ID> customerIDs() {
+        return Collections.unmodifiableSet(streams.keySet());
+    }
+
+    /**
+     * Forces every appended event to disk and makes it readable through the log. Segments before the active one
+     * were forced when they were rolled.
+     */
+    public void flush() {
+        Segment segment;
+        long size;
+        synchronized (this) {
+            segment = activeSegment();
+            size = segment.size();
+        }
+        try {
+            segment.force();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        advanceDurableEnd(StreamIndex.position(segment.number, size));
+    }
+
+    private synchronized void advanceDurableEnd(long position) {
+        if (position > durableEnd) {
+            durableEnd = position;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (Segment segment : segments) {
+            segment.close();
+        }
+    }
+
+    private ByteBuffer encode(List<Event> events, int[] recordOffsets) {
+        while (true) {
+            var buffer = writeBuffer.clear();
+            try {
+                var crc = new CRC32C();
+                for (int i = 0; i < events.size(); i++) {
+                    int start = buffer.position();
+                    recordOffsets[i] = start;
+                    buffer.position(start + RECORD_HEADER_SIZE);
+                    EventCodec.encode(events.get(i), buffer);
+                    int end = buffer.position();
+
+                    crc.reset();
+                    crc.update(buffer.duplicate().position(start + RECORD_HEADER_SIZE).limit(end));
+                    buffer.putInt(start, end - start - RECORD_HEADER_SIZE);
+                    buffer.putInt(start + Integer.BYTES, (int) crc.getValue());
+                }
+
+                return buffer.flip();
+            } catch (BufferOverflowException e) {
+                writeBuffer = ByteBuffer.allocate(writeBuffer.capacity() * 2);
+            }
+        }
+    }
+
+    private void rebuildIndex() throws IOException {
+        var all = segments;
+        var crc = new CRC32C();
+
+        for (Segment segment : all) {
+            long size = segment.size();
+            if (size == 0) {
+                continue;
+            }
+
+            var view = segment.view(size - 1);
+            int offset = 0;
+            while (offset < size) {
+                int length = isCompleteRecord(view, offset, size) ? view.getInt(offset) : -1;
+                if (length >= 0) {
+                    var payload = view.duplicate().position(offset + RECORD_HEADER_SIZE).limit(offset + RECORD_HEADER_SIZE + length);
+                    crc.reset();
+                    crc.update(payload.duplicate());
+                    if ((int) crc.getValue() != view.getInt(offset + Integer.BYTES)) {
+                        length = -1;
+                    } else {
+                        streams.computeIfAbsent(EventCodec.peekCustomerID(payload), key -> new StreamIndex())
+                                .add(StreamIndex.position(segment.number, offset));
+                    }
+                }
+
+                if (length < 0) {
+                    if (segment != all[all.length - 1] && !isMappedPadding(view, offset, size)) {
+                        throw new IOException("corrupt record in " + segmentFile(directory, segment.number) + " at offset " + offset);
+                    }
+                    segment.truncate(offset);
+                    break;
+                }
+
+                offset += RECORD_HEADER_SIZE + length;
+            }
+        }
+    }
+
+    /**
+     * A zero length where the next record would start is the end of the records in a segment that was mapped to its
+     * capacity and not closed.
+     */
+    private static boolean isMappedPadding(ByteBuffer view, int offset, long size) {
+        return size - offset >= Integer.BYTES && view.getInt(offset) == 0;
+    }
+
+    private static boolean isCompleteRecord(ByteBuffer view, int offset, long size) {
+        if (size - offset < RECORD_HEADER_SIZE) {
+            return false;
+        }
+        int length = view.getInt(offset);
+
+        return length > 0 && length <= size - offset - RECORD_HEADER_SIZE;
+    }
+
+    private Segment activeSegment() {
+        var current = segments;
+
+        return current[current.length - 1];
+    }
+
+    /**
+     * Forces the outgoing segment first, flush only forces the active one.
+     */
+    private Segment roll() throws IOException {
+        var current = segments;
+        var outgoing = current[current.length - 1];
+        outgoing.force();
+        advanceDurableEnd(StreamIndex.position(outgoing.number, outgoing.size()));
+        var next = Segment.open(segmentFile(directory, current.length), current.length, segmentSize);
+        var rolled = Arrays.copyOf(current, current.length + 1);
+        rolled[current.length] = next;
+        segments = rolled;
+
+        return next;
+    }
+
+    private static Path segmentFile(Path directory, int number) {
+        return directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    private static final class Cursor implements Iterator<Event>, EventViewCursor {
+        private final Segment[] segments;
+        private final long[] positions;
+        private final int end;
+        private final EventView view = new EventView();
+        private int next;
+        private ByteBuffer segmentView;
+        private int viewSegment = -1;
+
+        Cursor(Segment[] segments, long[] positions, int from, int end) {
+            this.segments = segments;
+            this.positions = positions;
+            this.next = from;
+            this.end = end;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < end;
+        }
+
+        @Override
+        public Event next() {
+            if (next >= end) {
+                throw new NoSuchElementException();
+            }
+
+            int offset = seek();
+            segmentView.position(offset);
+
+            return EventCodec.decode(segmentView);
+        }
+
+        @Override
+        public boolean advance() {
+            if (next >= end) {
+                return false;
+            }
+
+            int offset = seek();
+            view.wrap(segmentView, offset);
+
+            return true;
+        }
+
+        @Override
+        public EventView view() {
+            return view;
+        }
+
+        private int seek() {
+            int segment = StreamIndex.segment(positions[next]);
+            int offset = StreamIndex.offset(positions[next]);
+            next++;
+            try {
+                if (segment != viewSegment || segmentView.capacity() <= offset) {
+                    segmentView = segments[segment].view(offset);
+                    viewSegment = segment;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            return offset + RECORD_HEADER_SIZE;
+        }
+    }
+}
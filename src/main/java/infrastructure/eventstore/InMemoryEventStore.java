@@ -0,0 +1,153 @@
+package infrastructure.eventstore;
+
+import domain.shared.event.Event;
+import domain.shared.value.ID;
+import infrastructure.serialization.EventCodec;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Each stream carries its own lock and a volatile version, so appends to different customers never contend and
+ * stale appends are rejected by a single volatile read before any lock is taken. The global log is only kept when
+ * the store is created for outbox relays or replays, appends then take their log positions inside the stream lock,
+ * so the log order matches the stream order, but still without any lock shared between streams.
+ */
+public final class InMemoryEventStore implements EventStore {
+    private final ConcurrentHashMap<ID, Stream> streams = new ConcurrentHashMap<>();
+    private final EventLog log;
+
+    /**
+     * A store without a global log, readLog is not supported.
+     */
+    public InMemoryEventStore() {
+        this.log = null;
+    }
+
+    private InMemoryEventStore(EventLog log) {
+        this.log = log;
+    }
+
+    /**
+     * A store that keeps the global log for the named readers, usually the names of its outbox relays, and drops
+     * the start of the log once all of them have acknowledged it. Without reader names the whole log is kept.
+     */
+    public static InMemoryEventStore withLog(String... readerNames) {
+        return new InMemoryEventStore(new EventLog(readerNames));
+    }
+
+    @Override
+    public List<Event> load(ID customerID, long fromVersion) {
+        var stream = streams.get(customerID);
+        if (stream == null) {
+            return List.of();
+        }
+
+        int version = stream.version;
+        Event[] events = stream.events;
+        if (fromVersion >= version) {
+            return List.of();
+        }
+
+        return Collections.unmodifiableList(Arrays.asList(Arrays.copyOfRange(events, (int) fromVersion, version)));
+    }
+
+    @Override
+    public Iterator<Event> cursor(ID customerID, long fromVersion) {
+        var stream = streams.get(customerID);
+        if (stream == null) {
+            return Collections.emptyIterator();
+        }
+
+        int version = stream.version;
+        Event[] events = stream.events;
+        if (fromVersion >= version) {
+            return Collections.emptyIterator();
+        }
+
+        return Collections.unmodifiableList(Arrays.asList(events).subList((int) fromVersion, version)).iterator();
+    }
+
+    @Override
+    public long streamVersion(ID customerID) {
+        var stream = streams.get(customerID);
+
+        return stream == null ? 0 : stream.version;
+    }
+
+    /**
+     * Log positions are indexes into the global log.
+     *
+     * @throws IllegalStateException if the store keeps no log, or the log before the position was trimmed
+     */
+    @Override
+    public LogSlice readLog(long fromPosition, int maxEvents) {
+        if (log == null) {
+            throw new IllegalStateException("the store keeps no log, create it with InMemoryEventStore.withLog");
+        }
+
+        return log.read(fromPosition, maxEvents);
+    }
+
+    @Override
+    public void acknowledgeLog(String readerName, long position) {
+        if (log != null) {
+            log.acknowledge(readerName, position);
+        }
+    }
+
+    @Override
+    public Set<ID> customerIDs() {
+        return Collections.unmodifiableSet(streams.keySet());
+    }
+
+    @Override
+    public long append(ID customerID, long expectedVersion, List<Event> events) throws ConcurrencyConflictException {
+        var stream = streams.get(customerID);
+        long version = stream == null ? 0 : stream.version;
+        if (version != expectedVersion) {
+            throw new ConcurrencyConflictException(expectedVersion, version);
+        }
+        for (Event event : events) {
+            if (!EventCodec.customerID(event).equals(customerID)) {
+                throw new IllegalArgumentException("event does not belong to the stream of customer " + customerID.value());
+            }
+        }
+
+        if (stream == null) {
+            stream = streams.computeIfAbsent(customerID, key -> new Stream());
+        }
+
+        return stream.append(expectedVersion, events);
+    }
+
+    private final class Stream {
+        private Event[] events = new Event[8];
+        private volatile int version;
+
+        synchronized long append(long expectedVersion, List<Event> newEvents) throws ConcurrencyConflictException {
+            int current = version;
+            if (current != expectedVersion) {
+                throw new ConcurrencyConflictException(expectedVersion, current);
+            }
+
+            int next = current + newEvents.size();
+            if (next > events.length) {
+                events = Arrays.copyOf(events, Math.max(next, events.length * 2));
+            }
+            for (int i = 0; i < newEvents.size(); i++) {
+                events[current + i] = newEvents.get(i);
+            }
+            if (log != null) {
+                log.append(newEvents);
+            }
+            version = next;
+
+            return next;
+        }
+    }
+}
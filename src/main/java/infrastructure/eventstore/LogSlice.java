@@ -0,0 +1,18 @@
+package infrastructure.eventstore;
+
+import domain.shared.event.Event;
+
+import java.util.List;
+
+/**
+ * Events of all streams in append order, and the log position to continue reading from.
+ */
+public final class LogSlice {
+    public final List<Event> events;
+    public final long nextPosition;
+
+    public LogSlice(List<Event> events, long nextPosition) {
+        this.events = events;
+        this.nextPosition = nextPosition;
+    }
+}
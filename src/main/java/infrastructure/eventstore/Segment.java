@@ -0,0 +1,86 @@
+package infrastructure.eventstore;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * One file of the log. Reads go through a single mapping of the whole segment capacity, which extends the file with
+ * zeros up to the capacity, so size() is the end of the records and not the size of the file. The zeros are cut off
+ * again when the segment is closed, after a crash they are found and cut off by the next open.
+ */
+final class Segment implements Closeable {
+    final int number;
+    private final FileChannel channel;
+    private final long capacity;
+    private volatile long size;
+    private volatile MappedByteBuffer mapped;
+
+    private Segment(int number, FileChannel channel, long capacity) throws IOException {
+        this.number = number;
+        this.channel = channel;
+        this.capacity = capacity;
+        this.size = channel.size();
+    }
+
+    static Segment open(Path file, int number, long capacity) throws IOException {
+        return new Segment(number, FileChannel.open(file, CREATE, READ, WRITE), capacity);
+    }
+
+    long size() {
+        return size;
+    }
+
+    long append(ByteBuffer records) throws IOException {
+        long start = size;
+        long position = start;
+        while (records.hasRemaining()) {
+            position += channel.write(records, position);
+        }
+        size = position;
+
+        return start;
+    }
+
+    ByteBuffer view(long offset) throws IOException {
+        var current = mapped;
+        if (current == null || current.capacity() <= offset) {
+            current = remap(offset);
+        }
+
+        return current.duplicate();
+    }
+
+    /**
+     * Maps the capacity, or the size if a single oversized append went beyond it, so a filling segment is mapped once.
+     */
+    private synchronized MappedByteBuffer remap(long offset) throws IOException {
+        if (mapped == null || mapped.capacity() <= offset) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.max(capacity, size));
+        }
+
+        return mapped;
+    }
+
+    synchronized void truncate(long newSize) throws IOException {
+        channel.truncate(newSize);
+        size = newSize;
+        mapped = null;
+    }
+
+    void force() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (channel) {
+            channel.truncate(size);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package infrastructure.eventstore;
+
+import java.util.Arrays;
+
+final class StreamIndex {
+    private long[] positions = new long[4];
+    private volatile int size;
+
+    void add(long position) {
+        int current = size;
+        if (current == positions.length) {
+            positions = Arrays.copyOf(positions, current * 2);
+        }
+        positions[current] = position;
+        size = current + 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long[] positions() {
+        return positions;
+    }
+
+    static long position(int segment, long offset) {
+        return ((long) segment << 32) | offset;
+    }
+
+    static int segment(long position) {
+        return (int) (position >>> 32);
+    }
+
+    static int offset(long position) {
+        return (int) position;
+    }
+}
@@ -0,0 +1,149 @@
+package infrastructure.index;
+
+import domain.shared.event.CustomerEmailAddressChanged;
+import domain.shared.event.CustomerEmailAddressConfirmed;
+import domain.shared.event.CustomerRegistered;
+import domain.shared.event.Event;
+import domain.shared.value.Hash;
+import domain.shared.value.ID;
+import infrastructure.eventstore.EventStore;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Finds the customer of a pending confirmation hash, so a confirmation link only needs to carry the hash.
+ * A hash is pending from the CustomerRegistered or CustomerEmailAddressChanged event that carries it until the
+ * address is confirmed or changed again.
+ * <p>
+ * Hashes and IDs are kept as 128 bit keys in flat long arrays. Lookups are optimistic reads that only fall back to
+ * the read lock if an update ran concurrently.
+ */
+public final class ConfirmationHashIndex {
+    private final LongPairMap customerByHash;
+    private final LongPairMap hashByCustomer;
+    private final StampedLock lock = new StampedLock();
+
+    public ConfirmationHashIndex() {
+        this(16);
+    }
+
+    public ConfirmationHashIndex(int expectedPendingConfirmations) {
+        customerByHash = new LongPairMap(expectedPendingConfirmations);
+        hashByCustomer = new LongPairMap(expectedPendingConfirmations);
+    }
+
+    /**
+     * Replays every stream through flyweight views and only keeps the hash that is still pending at its end.
+     */
+    public static ConfirmationHashIndex rebuild(EventStore eventStore) {
+        var customerIDs = eventStore.customerIDs();
+        var index = new ConfirmationHashIndex(customerIDs.size());
+        for (ID customerID : customerIDs) {
+            boolean pending = false;
+            long hashHigh = 0;
+            long hashLow = 0;
+            var cursor = eventStore.viewCursor(customerID, 0);
+            while (cursor.advance()) {
+                var view = cursor.view();
+                switch (view.type()) {
+                    case Event.CUSTOMER_REGISTERED:
+                    case Event.CUSTOMER_EMAIL_ADDRESS_CHANGED:
+                        pending = true;
+                        hashHigh = view.confirmationHashMostSignificantBits();
+                        hashLow = view.confirmationHashLeastSignificantBits();
+                        break;
+                    case Event.CUSTOMER_EMAIL_ADDRESS_CONFIRMED:
+                        pending = false;
+                        break;
+                }
+            }
+            if (pending) {
+                index.pending(customerID.mostSignificantBits(), customerID.leastSignificantBits(), hashHigh, hashLow);
+            }
+        }
+
+        return index;
+    }
+
+    public Optional<ID> customerOf(Hash confirmationHash) {
+        var customerID = new long[2];
+        long stamp = lock.tryOptimisticRead();
+        boolean found = customerByHash.get(confirmationHash.mostSignificantBits(), confirmationHash.leastSignificantBits(), customerID);
+
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                found = customerByHash.get(confirmationHash.mostSignificantBits(), confirmationHash.leastSignificantBits(), customerID);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        return found ? Optional.of(ID.build(customerID[0], customerID[1])) : Optional.empty();
+    }
+
+    public void apply(List<Event> events) {
+        for (Event event : events) {
+            apply(event);
+        }
+    }
+
+    public void apply(Event event) {
+        switch (event.type()) {
+            case Event.CUSTOMER_REGISTERED:
+                var registered = (CustomerRegistered) event;
+                pending(registered.customerID, registered.confirmationHash);
+                break;
+            case Event.CUSTOMER_EMAIL_ADDRESS_CHANGED:
+                var changed = (CustomerEmailAddressChanged) event;
+                pending(changed.customerID, changed.confirmationHash);
+                break;
+            case Event.CUSTOMER_EMAIL_ADDRESS_CONFIRMED:
+                confirmed(((CustomerEmailAddressConfirmed) event).customerID);
+                break;
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return customerByHash.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private void pending(ID customerID, Hash confirmationHash) {
+        pending(customerID.mostSignificantBits(), customerID.leastSignificantBits(), confirmationHash.mostSignificantBits(), confirmationHash.leastSignificantBits());
+    }
+
+    private void pending(long customerIDHigh, long customerIDLow, long hashHigh, long hashLow) {
+        long stamp = lock.writeLock();
+        try {
+            removeHashOf(customerIDHigh, customerIDLow);
+            customerByHash.put(hashHigh, hashLow, customerIDHigh, customerIDLow);
+            hashByCustomer.put(customerIDHigh, customerIDLow, hashHigh, hashLow);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void confirmed(ID customerID) {
+        long stamp = lock.writeLock();
+        try {
+            removeHashOf(customerID.mostSignificantBits(), customerID.leastSignificantBits());
+            hashByCustomer.remove(customerID.mostSignificantBits(), customerID.leastSignificantBits());
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void removeHashOf(long customerIDHigh, long customerIDLow) {
+        var previousHash = new long[2];
+        if (hashByCustomer.get(customerIDHigh, customerIDLow, previousHash)) {
+            customerByHash.remove(previousHash[0], previousHash[1]);
+        }
+    }
+}
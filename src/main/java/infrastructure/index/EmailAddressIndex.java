@@ -0,0 +1,231 @@
+package infrastructure.index;
+
+import domain.shared.event.CustomerEmailAddressChanged;
+import domain.shared.event.CustomerRegistered;
+import domain.shared.event.Event;
+import domain.shared.value.EmailAddress;
+import domain.shared.value.ID;
+import infrastructure.eventstore.EventStore;
+import infrastructure.serialization.EventCodec;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Which customer owns which email address, compared case-insensitively. An address is owned by a customer once
+ * reserved for it, or once a CustomerRegistered or CustomerEmailAddressChanged event of that customer carries it;
+ * the previous address of a customer is released when an event moves it to a new one.
+ * <p>
+ * Addresses are kept as a 128 bit hash of their normalized form, so both directions are flat long arrays without an
+ * object per entry. Lookups are optimistic reads that only fall back to the read lock if an update ran concurrently.
+ */
+public final class EmailAddressIndex {
+    private final LongPairMap customerByEmailAddress;
+    private final LongPairMap emailAddressByCustomer;
+    private final StampedLock lock = new StampedLock();
+
+    public EmailAddressIndex() {
+        this(16);
+    }
+
+    public EmailAddressIndex(int expectedCustomers) {
+        customerByEmailAddress = new LongPairMap(expectedCustomers);
+        emailAddressByCustomer = new LongPairMap(expectedCustomers);
+    }
+
+    /**
+     * Folds every stream, read as flyweight views, to the current address of its customer, so the result does not
+     * depend on the order in which the streams are read. If several customers ended up with the same address, one
+     * of them owns it.
+     */
+    public static EmailAddressIndex rebuild(EventStore eventStore) {
+        var customerIDs = eventStore.customerIDs();
+        var index = new EmailAddressIndex(customerIDs.size());
+        var owner = new long[2];
+        for (ID customerID : customerIDs) {
+            EmailAddress current = null;
+            var cursor = eventStore.viewCursor(customerID, 0);
+            while (cursor.advance()) {
+                var view = cursor.view();
+                if (view.type() == Event.CUSTOMER_REGISTERED || view.type() == Event.CUSTOMER_EMAIL_ADDRESS_CHANGED) {
+                    current = view.emailAddress();
+                }
+            }
+            if (current != null) {
+                var key = key(current);
+                index.emailAddressByCustomer.put(customerID.mostSignificantBits(), customerID.leastSignificantBits(), key[0], key[1]);
+                if (!index.customerByEmailAddress.get(key[0], key[1], owner)) {
+                    index.customerByEmailAddress.put(key[0], key[1], customerID.mostSignificantBits(), customerID.leastSignificantBits());
+                }
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * @return false if the address is owned by another customer
+     * @throws IllegalArgumentException if the customer ID is not a UUID, the index keeps only its bits
+     */
+    public boolean reserve(EmailAddress emailAddress, ID customerID) {
+        if (!customerID.isUUID()) {
+            throw new IllegalArgumentException("the ID " + customerID.value() + " is not a UUID and cannot be indexed");
+        }
+        var key = key(emailAddress);
+        var owner = new long[2];
+
+        long stamp = lock.writeLock();
+        try {
+            if (customerByEmailAddress.get(key[0], key[1], owner)) {
+                return isCustomer(owner, customerID);
+            }
+            customerByEmailAddress.put(key[0], key[1], customerID.mostSignificantBits(), customerID.leastSignificantBits());
+
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Gives up a reservation that was not followed by an event, the current address of the customer is kept.
+     */
+    public void release(EmailAddress emailAddress, ID customerID) {
+        var key = key(emailAddress);
+        var current = new long[2];
+
+        long stamp = lock.writeLock();
+        try {
+            boolean isCurrent = emailAddressByCustomer.get(customerID.mostSignificantBits(), customerID.leastSignificantBits(), current)
+                    && current[0] == key[0] && current[1] == key[1];
+            if (!isCurrent) {
+                removeIfOwnedBy(key[0], key[1], customerID.mostSignificantBits(), customerID.leastSignificantBits());
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public Optional<ID> owner(EmailAddress emailAddress) {
+        var owner = new long[2];
+
+        return ownerOf(key(emailAddress), owner) ? Optional.of(ID.build(owner[0], owner[1])) : Optional.empty();
+    }
+
+    public boolean isAvailableFor(EmailAddress emailAddress, ID customerID) {
+        var owner = new long[2];
+
+        return !ownerOf(key(emailAddress), owner) || isCustomer(owner, customerID);
+    }
+
+    public void apply(List<Event> events) {
+        for (Event event : events) {
+            apply(event);
+        }
+    }
+
+    public void apply(Event event) {
+        var emailAddress = emailAddressOf(event);
+        if (emailAddress == null) {
+            return;
+        }
+
+        var customerID = EventCodec.customerID(event);
+        long customerIDHigh = customerID.mostSignificantBits();
+        long customerIDLow = customerID.leastSignificantBits();
+        var key = key(emailAddress);
+        var previous = new long[2];
+
+        long stamp = lock.writeLock();
+        try {
+            customerByEmailAddress.put(key[0], key[1], customerIDHigh, customerIDLow);
+            boolean hadAddress = emailAddressByCustomer.get(customerIDHigh, customerIDLow, previous);
+            emailAddressByCustomer.put(customerIDHigh, customerIDLow, key[0], key[1]);
+            if (hadAddress && (previous[0] != key[0] || previous[1] != key[1])) {
+                removeIfOwnedBy(previous[0], previous[1], customerIDHigh, customerIDLow);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return customerByEmailAddress.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    static String normalize(EmailAddress emailAddress) {
+        return emailAddress.value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Two independent 64 bit hashes of the normalized address, FNV-1a and a multiplicative hash, each finished with
+     * the murmur3 mixer. Distinct addresses only collide with a chance of about n^2 / 2^129.
+     */
+    static long[] key(EmailAddress emailAddress) {
+        var normalized = normalize(emailAddress);
+        long fnv = 0xCBF29CE484222325L;
+        long multiplicative = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            fnv = (fnv ^ c) * 0x100000001B3L;
+            multiplicative = (multiplicative + c) * 0xC2B2AE3D27D4EB4FL;
+        }
+
+        return new long[]{mix(fnv), mix(multiplicative ^ normalized.length())};
+    }
+
+    private boolean ownerOf(long[] key, long[] owner) {
+        long stamp = lock.tryOptimisticRead();
+        boolean found = customerByEmailAddress.get(key[0], key[1], owner);
+
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                found = customerByEmailAddress.get(key[0], key[1], owner);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        return found;
+    }
+
+    private void removeIfOwnedBy(long keyHigh, long keyLow, long customerIDHigh, long customerIDLow) {
+        var owner = new long[2];
+        if (customerByEmailAddress.get(keyHigh, keyLow, owner) && owner[0] == customerIDHigh && owner[1] == customerIDLow) {
+            customerByEmailAddress.remove(keyHigh, keyLow);
+        }
+    }
+
+    private static boolean isCustomer(long[] owner, ID customerID) {
+        return customerID.isUUID() && owner[0] == customerID.mostSignificantBits() && owner[1] == customerID.leastSignificantBits();
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+
+        return h;
+    }
+
+    private static EmailAddress emailAddressOf(Event event) {
+        switch (event.type()) {
+            case Event.CUSTOMER_REGISTERED:
+                return ((CustomerRegistered) event).emailAddress;
+            case Event.CUSTOMER_EMAIL_ADDRESS_CHANGED:
+                return ((CustomerEmailAddressChanged) event).emailAddress;
+            default:
+                return null;
+        }
+    }
+}
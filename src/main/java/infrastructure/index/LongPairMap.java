@@ -0,0 +1,160 @@
+package infrastructure.index;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing map from a 128 bit key to a 128 bit value, both stored as two longs in one flat array, so an
+ * entry costs 32 bytes and no objects. Linear probing with backward shift deletion, hence no tombstones.
+ * The all-zero key marks a free slot in the table, so that key is kept in a separate entry beside it.
+ * <p>
+ * Not thread-safe. get() never fails on a table that is modified concurrently, it may just return garbage, so
+ * callers can run it under an optimistic read and validate afterwards.
+ */
+final class LongPairMap {
+    private static final int SLOT_SIZE = 4;
+
+    private long[] table;
+    private int size;
+    private boolean hasZeroKey;
+    private long zeroKeyValueHigh;
+    private long zeroKeyValueLow;
+
+    LongPairMap(int expectedSize) {
+        table = new long[tableCapacity(expectedSize) * SLOT_SIZE];
+    }
+
+    int size() {
+        return hasZeroKey ? size + 1 : size;
+    }
+
+    boolean get(long keyHigh, long keyLow, long[] value) {
+        if (keyHigh == 0 && keyLow == 0) {
+            value[0] = zeroKeyValueHigh;
+            value[1] = zeroKeyValueLow;
+
+            return hasZeroKey;
+        }
+
+        long[] current = table;
+        int mask = current.length / SLOT_SIZE - 1;
+        int slot = home(keyHigh, keyLow, mask);
+
+        for (int probes = 0; probes <= mask; probes++) {
+            int base = slot * SLOT_SIZE;
+            long high = current[base];
+            long low = current[base + 1];
+            if (high == keyHigh && low == keyLow) {
+                value[0] = current[base + 2];
+                value[1] = current[base + 3];
+                return true;
+            }
+            if (high == 0 && low == 0) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return false;
+    }
+
+    void put(long keyHigh, long keyLow, long valueHigh, long valueLow) {
+        if (keyHigh == 0 && keyLow == 0) {
+            hasZeroKey = true;
+            zeroKeyValueHigh = valueHigh;
+            zeroKeyValueLow = valueLow;
+            return;
+        }
+        if ((size + 1) * 4L > (table.length / SLOT_SIZE) * 3L) {
+            resize();
+        }
+
+        int mask = table.length / SLOT_SIZE - 1;
+        int slot = home(keyHigh, keyLow, mask);
+        while (true) {
+            int base = slot * SLOT_SIZE;
+            boolean free = table[base] == 0 && table[base + 1] == 0;
+            if (free || (table[base] == keyHigh && table[base + 1] == keyLow)) {
+                table[base] = keyHigh;
+                table[base + 1] = keyLow;
+                table[base + 2] = valueHigh;
+                table[base + 3] = valueLow;
+                if (free) {
+                    size++;
+                }
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    boolean remove(long keyHigh, long keyLow) {
+        if (keyHigh == 0 && keyLow == 0) {
+            boolean removed = hasZeroKey;
+            hasZeroKey = false;
+
+            return removed;
+        }
+
+        int mask = table.length / SLOT_SIZE - 1;
+        int slot = home(keyHigh, keyLow, mask);
+        while (true) {
+            int base = slot * SLOT_SIZE;
+            if (table[base] == keyHigh && table[base + 1] == keyLow) {
+                break;
+            }
+            if (table[base] == 0 && table[base + 1] == 0) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int free = slot;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            int base = next * SLOT_SIZE;
+            if (table[base] == 0 && table[base + 1] == 0) {
+                break;
+            }
+            int home = home(table[base], table[base + 1], mask);
+            boolean stays = free <= next ? home > free && home <= next : home > free || home <= next;
+            if (!stays) {
+                System.arraycopy(table, base, table, free * SLOT_SIZE, SLOT_SIZE);
+                free = next;
+            }
+        }
+        Arrays.fill(table, free * SLOT_SIZE, free * SLOT_SIZE + SLOT_SIZE, 0);
+        size--;
+
+        return true;
+    }
+
+    private void resize() {
+        long[] old = table;
+        table = new long[old.length * 2];
+        size = 0;
+        for (int base = 0; base < old.length; base += SLOT_SIZE) {
+            if (old[base] != 0 || old[base + 1] != 0) {
+                put(old[base], old[base + 1], old[base + 2], old[base + 3]);
+            }
+        }
+    }
+
+    private static int home(long keyHigh, long keyLow, int mask) {
+        long h = keyHigh * 0x9E3779B97F4A7C15L ^ keyLow;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+
+        return (int) h & mask;
+    }
+
+    private static int tableCapacity(int expectedSize) {
+        int capacity = 16;
+        while (capacity * 3L < expectedSize * 4L) {
+            capacity <<= 1;
+        }
+
+        return capacity;
+    }
+}
@@ -0,0 +1,18 @@
+package infrastructure.metrics;
+
+/**
+ * Latencies are in nanoseconds, the command counts are the counts of the latency histograms.
+ */
+public interface CustomerMetricsMXBean {
+    HistogramSummary getRegisterLatency();
+
+    HistogramSummary getConfirmEmailAddressLatency();
+
+    HistogramSummary getChangeEmailAddressLatency();
+
+    HistogramSummary getEventsAppliedPerReconstitution();
+
+    HistogramSummary getEventsEmittedPerCommand();
+
+    long getEventsEmitted();
+}
@@ -0,0 +1,142 @@
+package infrastructure.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of non-negative longs with log-linear buckets as in HdrHistogram: every power of two is split into
+ * 16 buckets, so a recorded value is known within 1/16 of itself, and all longs fit in 960 buckets.
+ * <p>
+ * Recording is a single atomic increment in one of several stripes chosen by thread ID, so it neither allocates
+ * nor contends much. Stripes rather than thread locals, because virtual threads come and go by the million.
+ * No exact sum is kept, the mean is computed from the bucket midpoints.
+ */
+public final class LogHistogram {
+    static final int SUB_BUCKET_BITS = 4;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray[] stripes;
+    private final int stripeMask;
+
+    public LogHistogram() {
+        int stripeCount = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2 - 1);
+        stripes = new AtomicLongArray[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new AtomicLongArray(BUCKETS);
+        }
+        stripeMask = stripeCount - 1;
+    }
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+
+        stripes[(int) mix(Thread.currentThread().threadId()) & stripeMask].getAndIncrement(bucket(value));
+    }
+
+    public Snapshot snapshot() {
+        var counts = new long[BUCKETS];
+        for (var stripe : stripes) {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] += stripe.get(i);
+            }
+        }
+
+        return new Snapshot(counts);
+    }
+
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long lowestValueIn(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+
+        return (long) (bucket % SUB_BUCKETS + SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    static long highestValueIn(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+
+        return lowestValueIn(bucket) + (1L << (bucket / SUB_BUCKETS - 1)) - 1;
+    }
+
+    private static long mix(long threadID) {
+        long h = threadID * 0x9E3779B97F4A7C15L;
+
+        return h ^ (h >>> 32);
+    }
+
+    /**
+     * Percentiles and the maximum are reported as the highest value of their bucket. Values below 16 are exact,
+     * so is the sum of histograms that only ever see such values.
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final double sum;
+
+        Snapshot(long[] counts) {
+            this.counts = counts;
+            long total = 0;
+            double sum = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                total += counts[i];
+                sum += counts[i] * ((lowestValueIn(i) + (double) highestValueIn(i)) / 2);
+            }
+            this.count = total;
+            this.sum = sum;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        public double sum() {
+            return sum;
+        }
+
+        public double mean() {
+            return count == 0 ? 0 : sum / count;
+        }
+
+        public long percentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return highestValueIn(i);
+                }
+            }
+
+            return max();
+        }
+
+        public long max() {
+            for (int i = BUCKETS - 1; i >= 0; i--) {
+                if (counts[i] > 0) {
+                    return highestValueIn(i);
+                }
+            }
+
+            return 0;
+        }
+    }
+}
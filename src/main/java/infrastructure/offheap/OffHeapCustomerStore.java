@@ -0,0 +1,603 @@
+package infrastructure.offheap;
+
+import domain.functional.es.customer.CustomerState;
+import domain.functional.es.customer.CustomerStateSnapshot;
+import domain.shared.event.*;
+import domain.shared.snapshot.CustomerSnapshotCodec;
+import domain.shared.value.EmailAddress;
+import domain.shared.value.Hash;
+import domain.shared.value.ID;
+import domain.shared.value.PersonName;
+import infrastructure.replay.Projection;
+import infrastructure.serialization.EventCodec;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.StampedLock;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Customer states kept outside the heap, so the heap does not grow with the number of customers and the collector
+ * never has to trace them. Events are written field by field straight into the record, nothing is materialized on
+ * the heap but the bytes of changed strings. Records live in chunks of direct memory and are found through an
+ * open-addressing index that is off-heap as well.
+ * <p>
+ * Record layout: ID (16 bytes), version (long), confirmation hash (16 bytes), flags (byte), then the email address,
+ * given name and family name, each as an unsigned short byte length followed by UTF-8. Like in a snapshot, the flags
+ * tell which fields are known, unknown strings are stored empty. Version, hash and flags are updated in place, a
+ * state whose strings changed gets a new record and leaves the old one as garbage until compact is called.
+ * <p>
+ * Locking is striped by the index slot of the customer: reads and in-place updates share the structure lock and take
+ * the stripe of their customer, so customers on different stripes are updated in parallel. Only new records, restore,
+ * compact and close take the structure lock exclusively. The direct memory is released once the store is closed and
+ * has been collected.
+ */
+public final class OffHeapCustomerStore implements Projection, AutoCloseable {
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024 * 1024;
+
+    static final int ID_OFFSET = 0;
+    static final int VERSION_OFFSET = 16;
+    static final int HASH_OFFSET = 24;
+    static final int FLAGS_OFFSET = 40;
+    static final int STRINGS_OFFSET = 41;
+
+    private static final byte CONFIRMED = 1;
+    private static final byte HAS_EMAIL_ADDRESS = 1 << 1;
+    private static final byte HAS_CONFIRMATION_HASH = 1 << 2;
+    private static final byte HAS_NAME = 1 << 3;
+    private static final byte[] NO_STRING = new byte[0];
+    private static final int MAX_STRING_SIZE = 0xFFFF;
+    private static final int MAX_RECORD_SIZE = STRINGS_OFFSET + 3 * (Short.BYTES + MAX_STRING_SIZE);
+    private static final int STRIPES = 64;
+
+    private final int chunkSize;
+    private final StampedLock structureLock = new StampedLock();
+    private final StampedLock[] stripes = new StampedLock[STRIPES];
+    private final ArrayList<ByteBuffer> chunks = new ArrayList<>();
+    private OffHeapIndex index;
+    private long garbageBytes;
+
+    public OffHeapCustomerStore() {
+        this(DEFAULT_CHUNK_SIZE, 1024);
+    }
+
+    public OffHeapCustomerStore(int chunkSize, int expectedCustomers) {
+        if (chunkSize < MAX_RECORD_SIZE) {
+            throw new IllegalArgumentException("chunk size must be at least " + MAX_RECORD_SIZE + " bytes");
+        }
+
+        this.chunkSize = chunkSize;
+        this.index = new OffHeapIndex(expectedCustomers);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new StampedLock();
+        }
+        chunks.add(ByteBuffer.allocateDirect(chunkSize).limit(0));
+    }
+
+    /**
+     * Updates the record in place under the stripe of the customer if no string changes, otherwise writes a new
+     * record under the exclusive structure lock.
+     */
+    @Override
+    public void apply(ID customerID, List<Event> events) {
+        for (Event event : events) {
+            if (!EventCodec.customerID(event).equals(customerID)) {
+                throw new IllegalArgumentException("event does not belong to customer " + customerID.value());
+            }
+        }
+        if (events.isEmpty()) {
+            return;
+        }
+
+        var stripe = stripe(customerID);
+        long structureStamp = structureLock.readLock();
+        try {
+            long stamp = stripe.writeLock();
+            try {
+                long address = address(customerID);
+                if (address >= 0) {
+                    var chunk = chunk(address);
+                    int offset = offset(address);
+                    var update = new RecordUpdate(chunk, offset);
+                    update.apply(events);
+                    if (update.keepsStrings(chunk, offset)) {
+                        update.writeFixedFields(chunk, offset);
+                        return;
+                    }
+                }
+            } finally {
+                stripe.unlockWrite(stamp);
+            }
+        } finally {
+            structureLock.unlockRead(structureStamp);
+        }
+
+        long stamp = structureLock.writeLock();
+        try {
+            applyExclusively(customerID, events);
+        } finally {
+            structureLock.unlockWrite(stamp);
+        }
+    }
+
+    public void apply(Event event) {
+        apply(EventCodec.customerID(event), List.of(event));
+    }
+
+    /**
+     * Replaces the stored state of the customer with the snapshot, e.g. to seed the store from a SnapshotStore.
+     */
+    public void restore(ID customerID, CustomerStateSnapshot snapshot) {
+        long stamp = structureLock.writeLock();
+        try {
+            store(customerID, address(customerID), snapshot);
+        } finally {
+            structureLock.unlockWrite(stamp);
+        }
+    }
+
+    public boolean contains(ID customerID) {
+        return version(customerID) > 0;
+    }
+
+    /**
+     * The number of events applied for the customer, 0 if there were none.
+     */
+    public long version(ID customerID) {
+        var stripe = stripe(customerID);
+        long structureStamp = structureLock.readLock();
+        long stamp = stripe.readLock();
+        try {
+            long address = address(customerID);
+
+            return address < 0 ? 0 : chunk(address).getLong(offset(address) + VERSION_OFFSET);
+        } finally {
+            stripe.unlockRead(stamp);
+            structureLock.unlockRead(structureStamp);
+        }
+    }
+
+    public boolean isEmailAddressConfirmed(ID customerID) {
+        var stripe = stripe(customerID);
+        long structureStamp = structureLock.readLock();
+        long stamp = stripe.readLock();
+        try {
+            long address = address(customerID);
+
+            return address >= 0 && (flags(address) & CONFIRMED) != 0;
+        } finally {
+            stripe.unlockRead(stamp);
+            structureLock.unlockRead(structureStamp);
+        }
+    }
+
+    /**
+     * Compares the hash with the stored one without decoding anything.
+     */
+    public boolean hasConfirmationHash(ID customerID, Hash confirmationHash) {
+        var stripe = stripe(customerID);
+        long structureStamp = structureLock.readLock();
+        long stamp = stripe.readLock();
+        try {
+            long address = address(customerID);
+            if (address < 0 || (flags(address) & HAS_CONFIRMATION_HASH) == 0) {
+                return false;
+            }
+            var chunk = chunk(address);
+            int offset = offset(address);
+
+            return confirmationHash.matches(chunk.getLong(offset + HASH_OFFSET), chunk.getLong(offset + HASH_OFFSET + Long.BYTES));
+        } finally {
+            stripe.unlockRead(stamp);
+            structureLock.unlockRead(structureStamp);
+        }
+    }
+
+    public Optional<EmailAddress> emailAddress(ID customerID) {
+        var stripe = stripe(customerID);
+        long structureStamp = structureLock.readLock();
+        long stamp = stripe.readLock();
+        try {
+            long address = address(customerID);
+            if (address < 0 || (flags(address) & HAS_EMAIL_ADDRESS) == 0) {
+                return Optional.empty();
+            }
+
+            return Optional.of(EmailAddress.build(getString(chunk(address), offset(address) + STRINGS_OFFSET)));
+        } finally {
+            stripe.unlockRead(stamp);
+            structureLock.unlockRead(structureStamp);
+        }
+    }
+
+    public Optional<PersonName> name(ID customerID) {
+        var stripe = stripe(customerID);
+        long structureStamp = structureLock.readLock();
+        long stamp = stripe.readLock();
+        try {
+            long address = address(customerID);
+            if (address < 0 || (flags(address) & HAS_NAME) == 0) {
+                return Optional.empty();
+            }
+            var chunk = chunk(address);
+            int givenNameOffset = nextString(chunk, offset(address) + STRINGS_OFFSET);
+
+            return Optional.of(PersonName.build(getString(chunk, givenNameOffset), getString(chunk, nextString(chunk, givenNameOffset))));
+        } finally {
+            stripe.unlockRead(stamp);
+            structureLock.unlockRead(structureStamp);
+        }
+    }
+
+    /**
+     * Materializes the customer as an on-heap CustomerState, e.g. to decide a command with Customer5 to 7.
+     */
+    public Optional<CustomerState> state(ID customerID) {
+        var stripe = stripe(customerID);
+        long structureStamp = structureLock.readLock();
+        long stamp = stripe.readLock();
+        try {
+            long address = address(customerID);
+
+            return address < 0 ? Optional.empty() : Optional.of(state(address));
+        } finally {
+            stripe.unlockRead(stamp);
+            structureLock.unlockRead(structureStamp);
+        }
+    }
+
+    public int size() {
+        long stamp = structureLock.readLock();
+        try {
+            return index.size();
+        } finally {
+            structureLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Direct memory held by the records and the index.
+     */
+    public long offHeapBytes() {
+        long stamp = structureLock.readLock();
+        try {
+            return (long) chunks.size() * chunkSize + index.capacityBytes();
+        } finally {
+            structureLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Bytes of records that were superseded by a newer record of the same customer.
+     */
+    public long garbageBytes() {
+        long stamp = structureLock.readLock();
+        try {
+            return garbageBytes;
+        } finally {
+            structureLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Copies the live records into fresh chunks and drops the old ones.
+     */
+    public void compact() {
+        long stamp = structureLock.writeLock();
+        try {
+            var old = new ArrayList<>(chunks);
+            chunks.clear();
+            chunks.add(ByteBuffer.allocateDirect(chunkSize).limit(0));
+            garbageBytes = 0;
+
+            index.forEach((slotOffset, address) -> {
+                var chunk = old.get((int) (address >>> 32));
+                int offset = (int) address;
+                int size = recordSize(chunk, offset);
+                long target = allocate(size);
+                chunk(target).put(offset(target), chunk, offset, size);
+                index.update(slotOffset, target);
+            });
+        } finally {
+            structureLock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void close() {
+        long stamp = structureLock.writeLock();
+        try {
+            chunks.clear();
+            index = new OffHeapIndex(0);
+        } finally {
+            structureLock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Folds the events from the record as it is now, another apply may have moved it since the in-place attempt.
+     */
+    private void applyExclusively(ID customerID, List<Event> events) {
+        if (!customerID.isUUID()) {
+            throw new IllegalArgumentException("the ID " + customerID.value() + " is not a UUID and cannot be stored");
+        }
+        long address = address(customerID);
+        if (address < 0 && events.get(0).type() != Event.CUSTOMER_REGISTERED) {
+            throw new IllegalStateException("customer " + customerID.value() + " has no CustomerRegistered event yet");
+        }
+
+        var update = address < 0 ? new RecordUpdate() : new RecordUpdate(chunk(address), offset(address));
+        update.apply(events);
+        if (address >= 0 && update.keepsStrings(chunk(address), offset(address))) {
+            update.writeFixedFields(chunk(address), offset(address));
+            return;
+        }
+
+        byte[] email = update.emailAddress != null ? update.emailAddress : storedString(address, 0);
+        byte[] givenName = update.givenName != null ? update.givenName : storedString(address, 1);
+        byte[] familyName = update.familyName != null ? update.familyName : storedString(address, 2);
+        long target = allocate(STRINGS_OFFSET + 3 * Short.BYTES + email.length + givenName.length + familyName.length);
+        var chunk = chunk(target);
+        int offset = offset(target);
+        int next = putString(chunk, offset + STRINGS_OFFSET, email);
+        next = putString(chunk, next, givenName);
+        putString(chunk, next, familyName);
+        chunk.putLong(offset + ID_OFFSET, customerID.mostSignificantBits());
+        chunk.putLong(offset + ID_OFFSET + Long.BYTES, customerID.leastSignificantBits());
+        update.writeFixedFields(chunk, offset);
+
+        if (address >= 0) {
+            garbageBytes += recordSize(chunk(address), offset(address));
+        }
+        index.put(customerID.mostSignificantBits(), customerID.leastSignificantBits(), target);
+    }
+
+    private byte[] storedString(long address, int position) {
+        if (address < 0) {
+            return NO_STRING;
+        }
+        var chunk = chunk(address);
+        int offset = offset(address) + STRINGS_OFFSET;
+        for (int i = 0; i < position; i++) {
+            offset = nextString(chunk, offset);
+        }
+
+        return rawString(chunk, offset);
+    }
+
+    private CustomerState state(long address) {
+        var chunk = chunk(address);
+        int offset = offset(address);
+        int flags = chunk.get(offset + FLAGS_OFFSET);
+        int givenNameOffset = nextString(chunk, offset + STRINGS_OFFSET);
+
+        var snapshot = CustomerStateSnapshot.build(
+                chunk.getLong(offset + VERSION_OFFSET),
+                (flags & HAS_EMAIL_ADDRESS) != 0 ? EmailAddress.build(getString(chunk, offset + STRINGS_OFFSET)) : null,
+                (flags & HAS_CONFIRMATION_HASH) != 0 ? Hash.build(chunk.getLong(offset + HASH_OFFSET), chunk.getLong(offset + HASH_OFFSET + Long.BYTES)) : null,
+                (flags & HAS_NAME) != 0 ? PersonName.build(getString(chunk, givenNameOffset), getString(chunk, nextString(chunk, givenNameOffset))) : null,
+                (flags & CONFIRMED) != 0
+        );
+
+        return CustomerState.reconstitute(snapshot, Collections.emptyIterator());
+    }
+
+    /**
+     * Encodes the snapshot into the record of the customer, in place if its strings did not change.
+     */
+    private void store(ID customerID, long address, CustomerStateSnapshot snapshot) {
+        if (!customerID.isUUID()) {
+            throw new IllegalArgumentException("the ID " + customerID.value() + " is not a UUID and cannot be stored");
+        }
+        CustomerSnapshotCodec.decode(snapshot.toBytes(), (version, emailAddress, confirmationHash, isEmailAddressConfirmed, name) -> {
+            byte flags = (byte) ((isEmailAddressConfirmed ? CONFIRMED : 0)
+                    | (emailAddress != null ? HAS_EMAIL_ADDRESS : 0)
+                    | (confirmationHash != null ? HAS_CONFIRMATION_HASH : 0)
+                    | (name != null ? HAS_NAME : 0));
+            byte[] email = emailAddress != null ? bytes(emailAddress.value) : NO_STRING;
+            byte[] givenName = name != null ? bytes(name.givenName) : NO_STRING;
+            byte[] familyName = name != null ? bytes(name.familyName) : NO_STRING;
+
+            long target = address;
+            if (address < 0 || !hasStrings(chunk(address), offset(address), email, givenName, familyName)) {
+                target = allocate(STRINGS_OFFSET + 3 * Short.BYTES + email.length + givenName.length + familyName.length);
+                var chunk = chunk(target);
+                int next = putString(chunk, offset(target) + STRINGS_OFFSET, email);
+                next = putString(chunk, next, givenName);
+                putString(chunk, next, familyName);
+            }
+
+            var chunk = chunk(target);
+            int offset = offset(target);
+            chunk.putLong(offset + ID_OFFSET, customerID.mostSignificantBits());
+            chunk.putLong(offset + ID_OFFSET + Long.BYTES, customerID.leastSignificantBits());
+            chunk.putLong(offset + VERSION_OFFSET, version);
+            chunk.putLong(offset + HASH_OFFSET, confirmationHash != null ? confirmationHash.mostSignificantBits() : 0);
+            chunk.putLong(offset + HASH_OFFSET + Long.BYTES, confirmationHash != null ? confirmationHash.leastSignificantBits() : 0);
+            chunk.put(offset + FLAGS_OFFSET, flags);
+
+            if (target != address) {
+                if (address >= 0) {
+                    garbageBytes += recordSize(chunk(address), offset(address));
+                }
+                index.put(customerID.mostSignificantBits(), customerID.leastSignificantBits(), target);
+            }
+
+            return null;
+        });
+    }
+
+    private long allocate(int size) {
+        var chunk = chunks.get(chunks.size() - 1);
+        if (chunk.limit() + size > chunk.capacity()) {
+            chunk = ByteBuffer.allocateDirect(chunkSize).limit(0);
+            chunks.add(chunk);
+        }
+
+        int offset = chunk.limit();
+        chunk.limit(offset + size);
+
+        return (long) (chunks.size() - 1) << 32 | offset;
+    }
+
+    private StampedLock stripe(ID customerID) {
+        return stripes[OffHeapIndex.home(customerID.mostSignificantBits(), customerID.leastSignificantBits()) & (STRIPES - 1)];
+    }
+
+    private long address(ID customerID) {
+        return index.get(customerID.mostSignificantBits(), customerID.leastSignificantBits());
+    }
+
+    private ByteBuffer chunk(long address) {
+        return chunks.get((int) (address >>> 32));
+    }
+
+    private static int offset(long address) {
+        return (int) address;
+    }
+
+    private byte flags(long address) {
+        return chunk(address).get(offset(address) + FLAGS_OFFSET);
+    }
+
+    private static boolean hasStrings(ByteBuffer chunk, int offset, byte[] emailAddress, byte[] givenName, byte[] familyName) {
+        int givenNameOffset = nextString(chunk, offset + STRINGS_OFFSET);
+
+        return hasString(chunk, offset + STRINGS_OFFSET, emailAddress)
+                && hasString(chunk, givenNameOffset, givenName)
+                && hasString(chunk, nextString(chunk, givenNameOffset), familyName);
+    }
+
+    private static boolean hasString(ByteBuffer chunk, int offset, byte[] bytes) {
+        return Short.toUnsignedInt(chunk.getShort(offset)) == bytes.length
+                && chunk.slice(offset + Short.BYTES, bytes.length).equals(ByteBuffer.wrap(bytes));
+    }
+
+    private static int recordSize(ByteBuffer chunk, int offset) {
+        int end = nextString(chunk, nextString(chunk, nextString(chunk, offset + STRINGS_OFFSET)));
+
+        return end - offset;
+    }
+
+    private static int nextString(ByteBuffer chunk, int offset) {
+        return offset + Short.BYTES + Short.toUnsignedInt(chunk.getShort(offset));
+    }
+
+    private static int putString(ByteBuffer chunk, int offset, byte[] bytes) {
+        chunk.putShort(offset, (short) bytes.length);
+        chunk.put(offset + Short.BYTES, bytes);
+
+        return offset + Short.BYTES + bytes.length;
+    }
+
+    private static String getString(ByteBuffer chunk, int offset) {
+        return new String(rawString(chunk, offset), UTF_8);
+    }
+
+    private static byte[] rawString(ByteBuffer chunk, int offset) {
+        var bytes = new byte[Short.toUnsignedInt(chunk.getShort(offset))];
+        chunk.get(offset + Short.BYTES, bytes);
+
+        return bytes;
+    }
+
+    private static byte[] bytes(String value) {
+        var bytes = value.getBytes(UTF_8);
+        if (bytes.length > MAX_STRING_SIZE) {
+            throw new IllegalArgumentException("string exceeds " + MAX_STRING_SIZE + " bytes");
+        }
+
+        return bytes;
+    }
+
+    /**
+     * The fixed fields of a record while events are folded into them, and the bytes of the strings the events
+     * replaced, null while the stored string is kept.
+     */
+    private static final class RecordUpdate {
+        private long version;
+        private byte flags;
+        private long hashHigh;
+        private long hashLow;
+        private byte[] emailAddress;
+        private byte[] givenName;
+        private byte[] familyName;
+
+        RecordUpdate() {
+        }
+
+        RecordUpdate(ByteBuffer chunk, int offset) {
+            version = chunk.getLong(offset + VERSION_OFFSET);
+            flags = chunk.get(offset + FLAGS_OFFSET);
+            hashHigh = chunk.getLong(offset + HASH_OFFSET);
+            hashLow = chunk.getLong(offset + HASH_OFFSET + Long.BYTES);
+        }
+
+        void apply(List<Event> events) {
+            for (Event event : events) {
+                switch (event.type()) {
+                    case Event.CUSTOMER_REGISTERED:
+                        var registered = (CustomerRegistered) event;
+                        emailAddress = bytes(registered.emailAddress.value);
+                        confirmationHash(registered.confirmationHash);
+                        name(registered.name);
+                        flags = HAS_EMAIL_ADDRESS | HAS_CONFIRMATION_HASH | HAS_NAME;
+                        break;
+                    case Event.CUSTOMER_EMAIL_ADDRESS_CONFIRMED:
+                        flags |= CONFIRMED;
+                        break;
+                    case Event.CUSTOMER_EMAIL_ADDRESS_CONFIRMATION_FAILED:
+                        break;
+                    case Event.CUSTOMER_EMAIL_ADDRESS_CHANGED:
+                        var emailAddressChanged = (CustomerEmailAddressChanged) event;
+                        emailAddress = bytes(emailAddressChanged.emailAddress.value);
+                        confirmationHash(emailAddressChanged.confirmationHash);
+                        flags = (byte) ((flags | HAS_EMAIL_ADDRESS | HAS_CONFIRMATION_HASH) & ~CONFIRMED);
+                        break;
+                    case Event.CUSTOMER_NAME_CHANGED:
+                        name(((CustomerNameChanged) event).name);
+                        flags |= HAS_NAME;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("unsupported event type " + event.type());
+                }
+                version++;
+            }
+        }
+
+        /**
+         * True if every string the events replaced equals the stored one, so the record can be updated in place.
+         */
+        boolean keepsStrings(ByteBuffer chunk, int offset) {
+            int givenNameOffset = nextString(chunk, offset + STRINGS_OFFSET);
+
+            return (emailAddress == null || hasString(chunk, offset + STRINGS_OFFSET, emailAddress))
+                    && (givenName == null || hasString(chunk, givenNameOffset, givenName))
+                    && (familyName == null || hasString(chunk, nextString(chunk, givenNameOffset), familyName));
+        }
+
+        void writeFixedFields(ByteBuffer chunk, int offset) {
+            chunk.putLong(offset + VERSION_OFFSET, version);
+            chunk.putLong(offset + HASH_OFFSET, hashHigh);
+            chunk.putLong(offset + HASH_OFFSET + Long.BYTES, hashLow);
+            chunk.put(offset + FLAGS_OFFSET, flags);
+        }
+
+        private void confirmationHash(Hash confirmationHash) {
+            if (!confirmationHash.isUUID()) {
+                throw new IllegalArgumentException("the hash " + confirmationHash.value() + " is not a UUID and cannot be stored");
+            }
+            hashHigh = confirmationHash.mostSignificantBits();
+            hashLow = confirmationHash.leastSignificantBits();
+        }
+
+        private void name(PersonName name) {
+            givenName = bytes(name.givenName);
+            familyName = bytes(name.familyName);
+        }
+    }
+}
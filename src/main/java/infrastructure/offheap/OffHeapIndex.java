@@ -0,0 +1,129 @@
+package infrastructure.offheap;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Open-addressing hash table from 128 bit keys to long values in a direct buffer, with linear probing. A slot
+ * holds the two halves of the key and the value plus one, so an all-zero slot is free. Nothing is ever removed.
+ */
+final class OffHeapIndex {
+    private static final int SLOT_SIZE = 3 * Long.BYTES;
+    private static final int MAX_SLOTS = Integer.highestOneBit(Integer.MAX_VALUE / SLOT_SIZE);
+
+    private ByteBuffer slots;
+    private int mask;
+    private int size;
+
+    OffHeapIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) - 1) << 2;
+        allocate(Math.min(capacity, MAX_SLOTS));
+    }
+
+    /**
+     * The value of the key, or -1 if the key is absent.
+     */
+    long get(long high, long low) {
+        for (int slot = slot(high, low); ; slot = (slot + 1) & mask) {
+            int offset = slot * SLOT_SIZE;
+            long value = slots.getLong(offset + 2 * Long.BYTES);
+            if (value == 0) {
+                return -1;
+            }
+            if (slots.getLong(offset) == high && slots.getLong(offset + Long.BYTES) == low) {
+                return value - 1;
+            }
+        }
+    }
+
+    void put(long high, long low, long value) {
+        if (value < 0 || value == Long.MAX_VALUE) {
+            throw new IllegalArgumentException("value out of range");
+        }
+        if (2 * (size + 1) > mask + 1) {
+            grow();
+        }
+
+        int offset = find(high, low);
+        if (slots.getLong(offset + 2 * Long.BYTES) == 0) {
+            size++;
+            slots.putLong(offset, high);
+            slots.putLong(offset + Long.BYTES, low);
+        }
+        slots.putLong(offset + 2 * Long.BYTES, value + 1);
+    }
+
+    int size() {
+        return size;
+    }
+
+    long capacityBytes() {
+        return slots.capacity();
+    }
+
+    /**
+     * Calls the visitor with the offset of every occupied slot, whose value can then be replaced through update.
+     */
+    void forEach(SlotVisitor visitor) {
+        for (int offset = 0; offset < slots.capacity(); offset += SLOT_SIZE) {
+            long value = slots.getLong(offset + 2 * Long.BYTES);
+            if (value != 0) {
+                visitor.visit(offset, value - 1);
+            }
+        }
+    }
+
+    void update(int slotOffset, long value) {
+        slots.putLong(slotOffset + 2 * Long.BYTES, value + 1);
+    }
+
+    interface SlotVisitor {
+        void visit(int slotOffset, long value);
+    }
+
+    private int find(long high, long low) {
+        for (int slot = slot(high, low); ; slot = (slot + 1) & mask) {
+            int offset = slot * SLOT_SIZE;
+            if (slots.getLong(offset + 2 * Long.BYTES) == 0
+                    || (slots.getLong(offset) == high && slots.getLong(offset + Long.BYTES) == low)) {
+                return offset;
+            }
+        }
+    }
+
+    private int slot(long high, long low) {
+        return home(high, low) & mask;
+    }
+
+    /**
+     * The hash the slot of a key is taken from, also used to pick the lock stripe of the key.
+     */
+    static int home(long high, long low) {
+        long hash = (high ^ Long.rotateLeft(low, 32)) * 0x9E3779B97F4A7C15L;
+
+        return (int) (hash >>> 32);
+    }
+
+    private void grow() {
+        int capacity = mask + 1;
+        if (capacity >= MAX_SLOTS) {
+            throw new IllegalStateException("index is full at " + size + " keys");
+        }
+
+        var old = slots;
+        allocate(capacity * 2);
+        for (int offset = 0; offset < old.capacity(); offset += SLOT_SIZE) {
+            long value = old.getLong(offset + 2 * Long.BYTES);
+            if (value != 0) {
+                int target = find(old.getLong(offset), old.getLong(offset + Long.BYTES));
+                slots.putLong(target, old.getLong(offset));
+                slots.putLong(target + Long.BYTES, old.getLong(offset + Long.BYTES));
+                slots.putLong(target + 2 * Long.BYTES, value);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        slots = ByteBuffer.allocateDirect(capacity * SLOT_SIZE);
+        mask = capacity - 1;
+    }
+}
@@ -0,0 +1,10 @@
+package infrastructure.outbox;
+
+/**
+ * The log position up to which a relay has delivered, by relay name. Unknown relays start at position 0.
+ */
+public interface CheckpointStore {
+    long load(String relayName);
+
+    void save(String relayName, long position);
+}
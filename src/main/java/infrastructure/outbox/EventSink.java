@@ -0,0 +1,14 @@
+package infrastructure.outbox;
+
+import domain.shared.event.Event;
+
+import java.util.List;
+
+/**
+ * Receives the events relayed from the outbox. A batch can be delivered again after a failure or a restart, so
+ * sinks must tolerate duplicates.
+ */
+@FunctionalInterface
+public interface EventSink {
+    void publish(List<Event> events) throws Exception;
+}
@@ -0,0 +1,70 @@
+package infrastructure.outbox;
+
+import infrastructure.eventstore.EventStore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * One file per relay holding the position as 8 bytes. A checkpoint is written to a temporary file and moved over
+ * the old one, so a crash leaves either the old or the new position.
+ */
+public final class FileCheckpointStore implements CheckpointStore {
+    private final Path directory;
+    private final EventStore eventStore;
+
+    public FileCheckpointStore(Path directory) throws IOException {
+        this(directory, null);
+    }
+
+    /**
+     * Loaded positions are moved back to a record boundary of the store's log, in case the log lost its tail in a
+     * crash after the checkpoint was saved.
+     */
+    public FileCheckpointStore(Path directory, EventStore eventStore) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.eventStore = eventStore;
+    }
+
+    @Override
+    public long load(String relayName) {
+        var file = file(relayName);
+        try {
+            if (!Files.exists(file)) {
+                return 0;
+            }
+
+            long position = ByteBuffer.wrap(Files.readAllBytes(file)).getLong();
+
+            return eventStore == null ? position : eventStore.logBoundary(position);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void save(String relayName, long position) {
+        var file = file(relayName);
+        var temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.write(temporary, ByteBuffer.allocate(Long.BYTES).putLong(position).array());
+            Files.move(temporary, file, ATOMIC_MOVE, REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path file(String relayName) {
+        if (!relayName.matches("[A-Za-z0-9_.-]+")) {
+            throw new IllegalArgumentException("relay names may only contain letters, digits, '_', '.' and '-'");
+        }
+
+        return directory.resolve(relayName + ".checkpoint");
+    }
+}
@@ -0,0 +1,17 @@
+package infrastructure.outbox;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class InMemoryCheckpointStore implements CheckpointStore {
+    private final ConcurrentHashMap<String, Long> positions = new ConcurrentHashMap<>();
+
+    @Override
+    public long load(String relayName) {
+        return positions.getOrDefault(relayName, 0L);
+    }
+
+    @Override
+    public void save(String relayName, long position) {
+        positions.put(relayName, position);
+    }
+}
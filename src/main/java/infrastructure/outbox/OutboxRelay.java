@@ -0,0 +1,126 @@
+package infrastructure.outbox;
+
+import infrastructure.eventstore.EventStore;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Delivers the events of the store to a sink in the background. The store's log is the outbox: an event is in it
+ * as soon as its stream append succeeded, so persisting the outbox entry cannot fail separately and the request
+ * path never waits for a sink.
+ * <p>
+ * The relay reads the log from its checkpoint in batches, hands each batch to the sink and only then advances the
+ * checkpoint and acknowledges the batch to the store, which may then drop it from its log. Delivery is at least
+ * once. A failed batch is retried after the pause, each sink gets its own relay and checkpoint so a slow sink does
+ * not hold back the others.
+ */
+public final class OutboxRelay implements AutoCloseable {
+    private final String name;
+    private final EventStore eventStore;
+    private final EventSink sink;
+    private final CheckpointStore checkpoints;
+    private final int batchSize;
+    private final LongAdder published = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    private volatile long position;
+    private volatile boolean running;
+    private Thread worker;
+
+    public OutboxRelay(String name, EventStore eventStore, EventSink sink, CheckpointStore checkpoints, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batch size must be positive");
+        }
+
+        this.name = name;
+        this.eventStore = eventStore;
+        this.sink = sink;
+        this.checkpoints = checkpoints;
+        this.batchSize = batchSize;
+        this.position = checkpoints.load(name);
+    }
+
+    /**
+     * Delivers at most one batch on the calling thread.
+     *
+     * @return the number of delivered events, 0 if the relay has caught up with the log
+     */
+    public synchronized int relayBatch() throws Exception {
+        var slice = eventStore.readLog(position, batchSize);
+        if (slice.events.isEmpty()) {
+            return 0;
+        }
+
+        sink.publish(slice.events);
+        checkpoints.save(name, slice.nextPosition);
+        eventStore.acknowledgeLog(name, slice.nextPosition);
+        position = slice.nextPosition;
+        published.add(slice.events.size());
+
+        return slice.events.size();
+    }
+
+    /**
+     * Starts relaying on a background thread that waits for the given pause whenever it has caught up or a batch
+     * failed.
+     */
+    public synchronized void start(Duration pause) {
+        if (worker != null) {
+            throw new IllegalStateException("relay " + name + " is already started");
+        }
+
+        running = true;
+        worker = Thread.ofPlatform().daemon().name("outbox-relay-" + name).start(() -> {
+            while (running) {
+                try {
+                    if (relayBatch() == 0) {
+                        Thread.sleep(pause.toMillis());
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                } catch (Exception e) {
+                    failures.increment();
+                    try {
+                        Thread.sleep(pause.toMillis());
+                    } catch (InterruptedException interrupted) {
+                        return;
+                    }
+                }
+            }
+        });
+    }
+
+    public long position() {
+        return position;
+    }
+
+    public long publishedCount() {
+        return published.sum();
+    }
+
+    public long failureCount() {
+        return failures.sum();
+    }
+
+    /**
+     * Stops the background thread and waits for it. A batch it was delivering may be delivered again by the next
+     * relay. If the calling thread is interrupted while waiting, its interrupt flag is set again.
+     */
+    @Override
+    public void close() {
+        Thread current;
+        synchronized (this) {
+            running = false;
+            current = worker;
+        }
+        if (current != null) {
+            current.interrupt();
+            try {
+                current.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
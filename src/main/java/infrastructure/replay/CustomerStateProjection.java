@@ -0,0 +1,30 @@
+package infrastructure.replay;
+
+import domain.functional.es.customer.CustomerState;
+import domain.shared.event.Event;
+import domain.shared.value.ID;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Folds every customer into a CustomerState, advancing it once per batch of events rather than once per event.
+ */
+public final class CustomerStateProjection implements Projection {
+    private final ConcurrentHashMap<ID, CustomerState> states = new ConcurrentHashMap<>();
+
+    @Override
+    public void apply(ID customerID, List<Event> events) {
+        var current = states.get(customerID);
+        states.put(customerID, current == null ? CustomerState.reconstitute(events) : current.advance(current.version(), events));
+    }
+
+    public Optional<CustomerState> state(ID customerID) {
+        return Optional.ofNullable(states.get(customerID));
+    }
+
+    public int size() {
+        return states.size();
+    }
+}
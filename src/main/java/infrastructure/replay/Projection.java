@@ -0,0 +1,15 @@
+package infrastructure.replay;
+
+import domain.shared.event.Event;
+import domain.shared.value.ID;
+
+import java.util.List;
+
+/**
+ * Target of a replay. The events of one customer always arrive in stream order and on the same thread, events of
+ * different customers arrive concurrently.
+ */
+@FunctionalInterface
+public interface Projection {
+    void apply(ID customerID, List<Event> events);
+}
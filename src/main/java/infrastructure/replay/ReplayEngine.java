@@ -0,0 +1,194 @@
+package infrastructure.replay;
+
+import domain.shared.event.Event;
+import domain.shared.value.ID;
+import infrastructure.eventstore.EventStore;
+import infrastructure.serialization.EventCodec;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Rebuilds projections from the whole log. The calling thread reads the log sequentially in chunks of encoded
+ * records and copies each record into the batch of the worker that owns its customer, reading only the customer ID
+ * from the record header. Decoding happens on the workers. A worker owns its customers, so their order is kept
+ * without any locking, and it groups its batch by customer so projections can fold several events at once.
+ * Worker queues are bounded, a slow worker holds back the reader instead of piling up the log in memory.
+ */
+public final class ReplayEngine {
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+    private static final long PROGRESS_INTERVAL_NANOS = 1_000_000_000L;
+
+    private final EventStore eventStore;
+    private final int parallelism;
+    private final int chunkSize;
+
+    public ReplayEngine(EventStore eventStore, int parallelism, int chunkSize) {
+        if (parallelism < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("parallelism and chunk size must be positive");
+        }
+
+        this.eventStore = eventStore;
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+    }
+
+    public ReplayEngine(EventStore eventStore) {
+        this(eventStore, Runtime.getRuntime().availableProcessors(), 4096);
+    }
+
+    public ReplayProgress replay(List<Projection> projections) throws InterruptedException {
+        return replay(projections, progress -> {
+        });
+    }
+
+    /**
+     * @param onProgress called on the reading thread about once per second
+     * @throws IllegalStateException if a projection failed, with that failure as the cause
+     */
+    public ReplayProgress replay(List<Projection> projections, Consumer<ReplayProgress> onProgress) throws InterruptedException {
+        long start = System.nanoTime();
+        var applied = new LongAdder();
+        var failure = new AtomicReference<Throwable>();
+        var queues = new ArrayList<BlockingQueue<ByteBuffer>>(parallelism);
+        var workers = new ArrayList<Thread>(parallelism);
+
+        for (int i = 0; i < parallelism; i++) {
+            var queue = new ArrayBlockingQueue<ByteBuffer>(4);
+            queues.add(queue);
+            workers.add(Thread.ofPlatform().name("replay-" + i).start(() -> work(queue, projections, applied, failure)));
+        }
+
+        boolean completed = false;
+        try {
+            long position = 0;
+            long lastProgress = start;
+            var partitioner = new Partitioner(parallelism, Math.max(256, chunkSize / parallelism * 64));
+            while (failure.get() == null) {
+                partitioner.reset();
+                position = eventStore.readLogRecords(position, chunkSize, partitioner);
+                if (partitioner.records == 0) {
+                    break;
+                }
+
+                for (int i = 0; i < parallelism; i++) {
+                    var batch = partitioner.batches[i];
+                    if (batch.position() > 0) {
+                        queues.get(i).put(batch.flip());
+                    }
+                }
+
+                long now = System.nanoTime();
+                if (now - lastProgress >= PROGRESS_INTERVAL_NANOS) {
+                    onProgress.accept(new ReplayProgress(applied.sum(), now - start));
+                    lastProgress = now;
+                }
+            }
+            completed = true;
+        } finally {
+            for (int i = 0; i < parallelism; i++) {
+                if (!completed) {
+                    queues.get(i).clear();
+                }
+                queues.get(i).put(END);
+            }
+            for (var worker : workers) {
+                worker.join();
+            }
+        }
+
+        if (failure.get() != null) {
+            throw new IllegalStateException("replay failed", failure.get());
+        }
+        var progress = new ReplayProgress(applied.sum(), System.nanoTime() - start);
+        onProgress.accept(progress);
+
+        return progress;
+    }
+
+    private static void work(BlockingQueue<ByteBuffer> queue, List<Projection> projections, LongAdder applied, AtomicReference<Throwable> failure) {
+        try {
+            while (true) {
+                var batch = queue.take();
+                if (batch == END) {
+                    return;
+                }
+                if (failure.get() != null) {
+                    continue;
+                }
+
+                var byCustomer = new LinkedHashMap<ID, List<Event>>();
+                int events = 0;
+                while (batch.hasRemaining()) {
+                    var event = EventCodec.decode(batch);
+                    byCustomer.computeIfAbsent(EventCodec.customerID(event), id -> new ArrayList<>()).add(event);
+                    events++;
+                }
+                for (var customer : byCustomer.entrySet()) {
+                    for (Projection projection : projections) {
+                        projection.apply(customer.getKey(), customer.getValue());
+                    }
+                }
+                applied.add(events);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException | Error e) {
+            failure.compareAndSet(null, e);
+            drainUntilEnd(queue);
+        }
+    }
+
+    private static void drainUntilEnd(BlockingQueue<ByteBuffer> queue) {
+        try {
+            while (queue.take() != END) {
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Copies each record into the batch of the worker that owns its customer, by the same customer ID hash for every
+     * chunk.
+     */
+    private static final class Partitioner implements Consumer<ByteBuffer> {
+        private final ByteBuffer[] batches;
+        private final int batchCapacity;
+        private int records;
+
+        Partitioner(int partitions, int batchCapacity) {
+            this.batches = new ByteBuffer[partitions];
+            this.batchCapacity = batchCapacity;
+        }
+
+        /**
+         * Starts new batches, the previous ones belong to the workers now.
+         */
+        void reset() {
+            for (int i = 0; i < batches.length; i++) {
+                batches[i] = ByteBuffer.allocate(batchCapacity);
+            }
+            records = 0;
+        }
+
+        @Override
+        public void accept(ByteBuffer record) {
+            int partition = Math.floorMod(EventCodec.peekCustomerIDHash(record), batches.length);
+            var batch = batches[partition];
+            if (batch.remaining() < record.remaining()) {
+                batch = ByteBuffer.allocate(Math.max(batch.capacity() * 2, batch.position() + record.remaining())).put(batch.flip());
+                batches[partition] = batch;
+            }
+            batch.put(record);
+            records++;
+        }
+    }
+}
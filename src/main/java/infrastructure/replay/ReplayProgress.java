@@ -0,0 +1,15 @@
+package infrastructure.replay;
+
+public final class ReplayProgress {
+    public final long events;
+    public final long elapsedNanos;
+
+    ReplayProgress(long events, long elapsedNanos) {
+        this.events = events;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public double eventsPerSecond() {
+        return elapsedNanos == 0 ? 0 : events * 1e9 / elapsedNanos;
+    }
+}
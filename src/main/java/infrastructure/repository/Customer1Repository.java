@@ -0,0 +1,358 @@
+package infrastructure.repository;
+
+import domain.oop.traditional.customer.Customer1;
+import domain.shared.value.EmailAddress;
+import domain.shared.value.Hash;
+import domain.shared.value.ID;
+import domain.shared.value.PersonName;
+import infrastructure.eventstore.ConcurrencyConflictException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * State-based persistence for Customer1: one fixed-size slot per customer in a page file. Saving a customer that is
+ * already stored writes only the fields its commands dirtied, plus the version column, which is checked before
+ * every save so that concurrent modifications fail with a ConcurrencyConflictException.
+ * <p>
+ * Slot layout: version (long), flags (byte), ID (16 bytes), confirmation hash (16 bytes), then the email address,
+ * given name and family name, each as an unsigned short byte length followed by UTF-8 in a fixed-size field, and
+ * last a CRC32C of all the bytes before it. A delta write rewrites the CRC after the fields, so a record torn by a
+ * crash in the middle of a write fails to load instead of loading a mix of old and new fields.
+ * <p>
+ * Before a save touches its slot, the whole record as it was is written to the undo file beside the page file, one
+ * entry per lock stripe, and the entry is cleared once the save is done. Opening the repository writes a pending
+ * before-image back over a torn record, so the customer loads as it was before the save that crashed. The entry is
+ * not forced ahead of the record, which covers a crashed process, whose writes the page cache keeps in order.
+ */
+public final class Customer1Repository implements AutoCloseable {
+    static final int SLOT_SIZE = 512;
+
+    static final int VERSION_OFFSET = 0;
+    static final int FLAGS_OFFSET = 8;
+    static final int ID_OFFSET = 9;
+    static final int HASH_OFFSET = 25;
+    static final int EMAIL_ADDRESS_OFFSET = 41;
+    static final int GIVEN_NAME_OFFSET = 297;
+    static final int FAMILY_NAME_OFFSET = 404;
+    static final int CRC_OFFSET = SLOT_SIZE - Integer.BYTES;
+    static final int UNDO_SLOT_SIZE = 2 * SLOT_SIZE;
+
+    public static final int MAX_EMAIL_ADDRESS_SIZE = GIVEN_NAME_OFFSET - EMAIL_ADDRESS_OFFSET - Short.BYTES;
+    public static final int MAX_GIVEN_NAME_SIZE = FAMILY_NAME_OFFSET - GIVEN_NAME_OFFSET - Short.BYTES;
+    public static final int MAX_FAMILY_NAME_SIZE = CRC_OFFSET - FAMILY_NAME_OFFSET - Short.BYTES;
+
+    private static final int HEADER_SIZE = ID_OFFSET;
+    private static final byte USED = 1;
+    private static final byte CONFIRMED = 1 << 1;
+    private static final int LOCK_STRIPES = 64;
+    private static final int UNDO_SLOT_OFFSET = 0;
+    private static final int UNDO_CRC_OFFSET = Integer.BYTES;
+    private static final int UNDO_IMAGE_OFFSET = 2 * Integer.BYTES;
+    private static final ByteBuffer EMPTY_RECORD = ByteBuffer.allocate(SLOT_SIZE);
+
+    private final PageFile pages;
+    private final PageFile undo;
+    private final ConcurrentHashMap<ID, Integer> slots;
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private int nextSlot;
+
+    private Customer1Repository(PageFile pages, PageFile undo, ConcurrentHashMap<ID, Integer> slots, int nextSlot) {
+        this.pages = pages;
+        this.undo = undo;
+        this.slots = slots;
+        this.nextSlot = nextSlot;
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public static Customer1Repository open(Path file) throws IOException {
+        var pages = PageFile.open(file, SLOT_SIZE);
+        var undo = PageFile.open(undoFile(file), UNDO_SLOT_SIZE);
+        rollBackTornSaves(pages, undo);
+        var slots = new ConcurrentHashMap<ID, Integer>();
+
+        int slotCount = pages.slotCount();
+        int nextSlot = 0;
+        var header = ByteBuffer.allocate(HEADER_SIZE + 2 * Long.BYTES);
+        for (int slot = 0; slot < slotCount; slot++) {
+            pages.read(slot, VERSION_OFFSET, header.clear());
+            if ((header.get(FLAGS_OFFSET) & USED) != 0) {
+                slots.put(ID.build(header.getLong(ID_OFFSET), header.getLong(ID_OFFSET + Long.BYTES)), slot);
+                nextSlot = slot + 1;
+            }
+        }
+
+        return new Customer1Repository(pages, undo, slots, nextSlot);
+    }
+
+    static Path undoFile(Path file) {
+        return file.resolveSibling(file.getFileName() + ".undo");
+    }
+
+    public Optional<Customer1> find(ID customerID) {
+        var lock = lock(customerID);
+        lock.lock();
+        try {
+            var slot = slots.get(customerID);
+            if (slot == null) {
+                return Optional.empty();
+            }
+
+            var buffer = read(slot, customerID);
+
+            return Optional.of(Customer1.restore(
+                    customerID,
+                    EmailAddress.build(getString(buffer, EMAIL_ADDRESS_OFFSET)),
+                    Hash.build(buffer.getLong(HASH_OFFSET), buffer.getLong(HASH_OFFSET + Long.BYTES)),
+                    (buffer.get(FLAGS_OFFSET) & CONFIRMED) != 0,
+                    PersonName.build(getString(buffer, GIVEN_NAME_OFFSET), getString(buffer, FAMILY_NAME_OFFSET)),
+                    buffer.getLong(VERSION_OFFSET)
+            ));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the dirty fields of the customer if the stored version still equals customer.version(), then marks the
+     * customer as saved with the incremented version, which is returned. A customer without dirty fields is not
+     * written at all.
+     *
+     * @throws IllegalArgumentException if a field exceeds its size, before anything is written or allocated
+     */
+    public long save(Customer1 customer) throws ConcurrencyConflictException {
+        int dirtyFields = customer.dirtyFields();
+        if (dirtyFields == 0) {
+            return customer.version();
+        }
+
+        var customerID = customer.id();
+        var lock = lock(customerID);
+        lock.lock();
+        try {
+            var slot = slots.get(customerID);
+            var stored = slot == null ? null : read(slot, customerID);
+            long storedVersion = stored == null ? 0 : stored.getLong(VERSION_OFFSET);
+            if (storedVersion != customer.version()) {
+                throw new ConcurrencyConflictException(customer.version(), storedVersion);
+            }
+
+            long version = storedVersion + 1;
+            if (slot == null) {
+                var record = encodeAll(customer, version);
+                slot = allocate();
+                undo.write(stripe(customerID), 0, beforeImage(slot, EMPTY_RECORD));
+                write(slot, 0, record);
+                slots.put(customerID, slot);
+            } else {
+                var beforeImage = beforeImage(slot, stored);
+                writeDirty(slot, stored, beforeImage, customer, dirtyFields, version);
+            }
+            undo.write(stripe(customerID), UNDO_CRC_OFFSET, ByteBuffer.allocate(Integer.BYTES));
+            customer.markSaved(version);
+
+            return version;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    /**
+     * Total bytes written to the page file, to observe how much the delta writes save.
+     */
+    public long bytesWritten() {
+        return bytesWritten.get();
+    }
+
+    public void flush() {
+        pages.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (undo) {
+            pages.close();
+        }
+    }
+
+    /**
+     * The undo entry of a save to the slot: the slot number, a CRC32C of the entry, and the record as it was.
+     */
+    static ByteBuffer beforeImage(int slot, ByteBuffer record) {
+        var entry = ByteBuffer.allocate(UNDO_IMAGE_OFFSET + SLOT_SIZE);
+        entry.putInt(UNDO_SLOT_OFFSET, slot);
+        entry.put(UNDO_IMAGE_OFFSET, record, 0, SLOT_SIZE);
+        entry.putInt(UNDO_CRC_OFFSET, undoCrc(entry));
+
+        return entry;
+    }
+
+    static int stripe(ID customerID) {
+        return (customerID.hashCode() & 0x7FFFFFFF) % LOCK_STRIPES;
+    }
+
+    /**
+     * Writes the before-image of every save that did not finish back to its slot if the record there is torn. A
+     * record that is intact was either not touched yet or written completely before the crash.
+     */
+    private static void rollBackTornSaves(PageFile pages, PageFile undo) {
+        var entry = ByteBuffer.allocate(UNDO_IMAGE_OFFSET + SLOT_SIZE);
+        var record = ByteBuffer.allocate(SLOT_SIZE);
+        for (int stripe = 0; stripe < undo.slotCount(); stripe++) {
+            undo.read(stripe, 0, entry.clear());
+            if (entry.getInt(UNDO_CRC_OFFSET) != undoCrc(entry)) {
+                continue;
+            }
+
+            int slot = entry.getInt(UNDO_SLOT_OFFSET);
+            pages.read(slot, 0, record.clear());
+            if (record.getInt(CRC_OFFSET) != crc(record)) {
+                pages.write(slot, 0, entry.slice(UNDO_IMAGE_OFFSET, SLOT_SIZE));
+            }
+            undo.write(stripe, UNDO_CRC_OFFSET, ByteBuffer.allocate(Integer.BYTES));
+        }
+        pages.force();
+    }
+
+    /**
+     * @throws IllegalStateException if the CRC of the record does not match and there was no before-image to restore
+     */
+    private ByteBuffer read(int slot, ID customerID) {
+        var buffer = ByteBuffer.allocate(SLOT_SIZE);
+        pages.read(slot, 0, buffer);
+        if (buffer.getInt(CRC_OFFSET) != crc(buffer)) {
+            throw new IllegalStateException("the record of customer " + customerID + " is torn");
+        }
+
+        return buffer;
+    }
+
+    private static ByteBuffer encodeAll(Customer1 customer, long version) {
+        if (!customer.id().isUUID()) {
+            throw new IllegalArgumentException("the ID " + customer.id().value() + " is not a UUID and cannot be stored");
+        }
+        var buffer = ByteBuffer.allocate(SLOT_SIZE);
+        putHeader(buffer, customer, version);
+        buffer.putLong(ID_OFFSET, customer.id().mostSignificantBits());
+        buffer.putLong(ID_OFFSET + Long.BYTES, customer.id().leastSignificantBits());
+        putHash(buffer, customer.confirmationHash());
+        putString(buffer, EMAIL_ADDRESS_OFFSET, customer.emailAddress().value, MAX_EMAIL_ADDRESS_SIZE);
+        putString(buffer, GIVEN_NAME_OFFSET, customer.name().givenName, MAX_GIVEN_NAME_SIZE);
+        putString(buffer, FAMILY_NAME_OFFSET, customer.name().familyName, MAX_FAMILY_NAME_SIZE);
+        buffer.putInt(CRC_OFFSET, crc(buffer));
+
+        return buffer;
+    }
+
+    /**
+     * All dirty fields are encoded into the stored record before the first write, so a field that is too large
+     * leaves the slot untouched, and the CRC covers the record as it will be on disk. The header and the CRC go last,
+     * the confirmed flag lives in the header next to the version. The before-image goes to the undo file between
+     * encoding and the first write.
+     */
+    private void writeDirty(int slot, ByteBuffer buffer, ByteBuffer beforeImage, Customer1 customer, int dirtyFields, long version) {
+        putHeader(buffer, customer, version);
+
+        int emailAddressEnd = 0;
+        int nameEnd = 0;
+        if ((dirtyFields & Customer1.EMAIL_ADDRESS) != 0) {
+            emailAddressEnd = EMAIL_ADDRESS_OFFSET + Short.BYTES
+                    + putString(buffer, EMAIL_ADDRESS_OFFSET, customer.emailAddress().value, MAX_EMAIL_ADDRESS_SIZE);
+        }
+        if ((dirtyFields & Customer1.CONFIRMATION_HASH) != 0) {
+            putHash(buffer, customer.confirmationHash());
+        }
+        if ((dirtyFields & Customer1.NAME) != 0) {
+            putString(buffer, GIVEN_NAME_OFFSET, customer.name().givenName, MAX_GIVEN_NAME_SIZE);
+            nameEnd = FAMILY_NAME_OFFSET + Short.BYTES
+                    + putString(buffer, FAMILY_NAME_OFFSET, customer.name().familyName, MAX_FAMILY_NAME_SIZE);
+        }
+
+        undo.write(stripe(customer.id()), 0, beforeImage);
+        if (emailAddressEnd > 0) {
+            write(slot, EMAIL_ADDRESS_OFFSET, buffer.slice(EMAIL_ADDRESS_OFFSET, emailAddressEnd - EMAIL_ADDRESS_OFFSET));
+        }
+        if ((dirtyFields & Customer1.CONFIRMATION_HASH) != 0) {
+            write(slot, HASH_OFFSET, buffer.slice(HASH_OFFSET, 2 * Long.BYTES));
+        }
+        if (nameEnd > 0) {
+            write(slot, GIVEN_NAME_OFFSET, buffer.slice(GIVEN_NAME_OFFSET, nameEnd - GIVEN_NAME_OFFSET));
+        }
+        buffer.putInt(CRC_OFFSET, crc(buffer));
+        write(slot, VERSION_OFFSET, buffer.slice(VERSION_OFFSET, HEADER_SIZE));
+        write(slot, CRC_OFFSET, buffer.slice(CRC_OFFSET, Integer.BYTES));
+    }
+
+    private void write(int slot, int offset, ByteBuffer buffer) {
+        bytesWritten.addAndGet(buffer.remaining());
+        pages.write(slot, offset, buffer);
+    }
+
+    private synchronized int allocate() {
+        return nextSlot++;
+    }
+
+    private ReentrantLock lock(ID customerID) {
+        return locks[stripe(customerID)];
+    }
+
+    private static int crc(ByteBuffer buffer) {
+        var crc = new CRC32C();
+        crc.update(buffer.array(), 0, CRC_OFFSET);
+
+        return (int) crc.getValue();
+    }
+
+    private static int undoCrc(ByteBuffer entry) {
+        var crc = new CRC32C();
+        crc.update(entry.array(), UNDO_SLOT_OFFSET, Integer.BYTES);
+        crc.update(entry.array(), UNDO_IMAGE_OFFSET, SLOT_SIZE);
+
+        return (int) crc.getValue();
+    }
+
+    private static void putHeader(ByteBuffer buffer, Customer1 customer, long version) {
+        buffer.putLong(VERSION_OFFSET, version);
+        buffer.put(FLAGS_OFFSET, (byte) (USED | (customer.isEmailAddressConfirmed() ? CONFIRMED : 0)));
+    }
+
+    private static void putHash(ByteBuffer buffer, Hash hash) {
+        if (!hash.isUUID()) {
+            throw new IllegalArgumentException("the hash " + hash.value() + " is not a UUID and cannot be stored");
+        }
+        buffer.putLong(HASH_OFFSET, hash.mostSignificantBits());
+        buffer.putLong(HASH_OFFSET + Long.BYTES, hash.leastSignificantBits());
+    }
+
+    private static int putString(ByteBuffer buffer, int offset, String value, int maxSize) {
+        byte[] bytes = value.getBytes(UTF_8);
+        if (bytes.length > maxSize) {
+            throw new IllegalArgumentException("value exceeds " + maxSize + " bytes");
+        }
+        buffer.putShort(offset, (short) bytes.length);
+        buffer.put(offset + Short.BYTES, bytes);
+
+        return bytes.length;
+    }
+
+    private static String getString(ByteBuffer buffer, int offset) {
+        int size = Short.toUnsignedInt(buffer.getShort(offset));
+
+        return new String(buffer.array(), offset + Short.BYTES, size, UTF_8);
+    }
+}
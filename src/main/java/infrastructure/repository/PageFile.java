@@ -0,0 +1,101 @@
+package infrastructure.repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * A file of fixed-size slots packed into 4 KiB pages, so a slot never straddles a page boundary. Reads and writes
+ * are positional, any part of a slot can be written without touching the rest of it.
+ */
+final class PageFile implements AutoCloseable {
+    static final int PAGE_SIZE = 4096;
+
+    private final FileChannel channel;
+    private final int slotSize;
+    private final int slotsPerPage;
+
+    private PageFile(FileChannel channel, int slotSize) {
+        this.channel = channel;
+        this.slotSize = slotSize;
+        this.slotsPerPage = PAGE_SIZE / slotSize;
+    }
+
+    static PageFile open(Path file, int slotSize) throws IOException {
+        if (slotSize <= 0 || PAGE_SIZE % slotSize != 0) {
+            throw new IllegalArgumentException("slot size must divide the page size of " + PAGE_SIZE);
+        }
+
+        return new PageFile(FileChannel.open(file, CREATE, READ, WRITE), slotSize);
+    }
+
+    int slotCount() {
+        try {
+            long pages = (channel.size() + PAGE_SIZE - 1) / PAGE_SIZE;
+
+            return (int) (pages * slotsPerPage);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Fills the remaining bytes of the buffer from the slot, starting at the given offset within the slot. Bytes
+     * beyond the end of the file read as zero.
+     */
+    void read(int slot, int offset, ByteBuffer buffer) {
+        long position = position(slot, offset, buffer.remaining());
+        try {
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    while (buffer.hasRemaining()) {
+                        buffer.put((byte) 0);
+                    }
+                    break;
+                }
+                position += read;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void write(int slot, int offset, ByteBuffer buffer) {
+        long position = position(slot, offset, buffer.remaining());
+        try {
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void force() {
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private long position(int slot, int offset, int length) {
+        if (offset < 0 || offset + length > slotSize) {
+            throw new IllegalArgumentException("range exceeds the slot size of " + slotSize);
+        }
+
+        return (long) (slot / slotsPerPage) * PAGE_SIZE + (long) (slot % slotsPerPage) * slotSize + offset;
+    }
+}
@@ -0,0 +1,223 @@
+package infrastructure.serialization;
+
+import domain.shared.event.*;
+import domain.shared.value.EmailAddress;
+import domain.shared.value.Hash;
+import domain.shared.value.ID;
+import domain.shared.value.PersonName;
+
+import java.nio.ByteBuffer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Binary encoding of the customer events: the type tag of the event as one byte, followed by its fields.
+ * IDs and hashes are written as the 16 raw bytes of their UUID, so one that is not a UUID is rejected, strings as an unsigned short byte length
+ * followed by UTF-8. Encoding and decoding work directly on the given buffer, only the decoded values are allocated.
+ * Decoded names are built through their factory, so they share the StringPool in use.
+ */
+public final class EventCodec {
+    private static final int MAX_STRING_SIZE = 0xFFFF;
+
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[256]);
+
+    private EventCodec() {
+    }
+
+    public static void encode(Event event, ByteBuffer buffer) {
+        buffer.put((byte) event.type());
+
+        switch (event.type()) {
+            case Event.CUSTOMER_REGISTERED:
+                var registered = (CustomerRegistered) event;
+                putID(buffer, registered.customerID);
+                putString(buffer, registered.emailAddress.value);
+                putHash(buffer, registered.confirmationHash);
+                putString(buffer, registered.name.givenName);
+                putString(buffer, registered.name.familyName);
+                break;
+            case Event.CUSTOMER_EMAIL_ADDRESS_CONFIRMED:
+                putID(buffer, ((CustomerEmailAddressConfirmed) event).customerID);
+                break;
+            case Event.CUSTOMER_EMAIL_ADDRESS_CONFIRMATION_FAILED:
+                putID(buffer, ((CustomerEmailAddressConfirmationFailed) event).customerID);
+                break;
+            case Event.CUSTOMER_EMAIL_ADDRESS_CHANGED:
+                var emailAddressChanged = (CustomerEmailAddressChanged) event;
+                putID(buffer, emailAddressChanged.customerID);
+                putString(buffer, emailAddressChanged.emailAddress.value);
+                putHash(buffer, emailAddressChanged.confirmationHash);
+                break;
+            case Event.CUSTOMER_NAME_CHANGED:
+                var nameChanged = (CustomerNameChanged) event;
+                putID(buffer, nameChanged.customerID);
+                putString(buffer, nameChanged.name.givenName);
+                putString(buffer, nameChanged.name.familyName);
+                break;
+            default:
+                throw new IllegalArgumentException("unsupported event type " + event.type());
+        }
+    }
+
+    public static Event decode(ByteBuffer buffer) {
+        int type = buffer.get();
+        var customerID = getID(buffer);
+
+        switch (type) {
+            case Event.CUSTOMER_REGISTERED:
+                return CustomerRegistered.build(
+                        customerID,
+                        EmailAddress.build(getString(buffer)),
+                        getHash(buffer),
+                        PersonName.build(getString(buffer), getString(buffer))
+                );
+            case Event.CUSTOMER_EMAIL_ADDRESS_CONFIRMED:
+                return CustomerEmailAddressConfirmed.build(customerID);
+            case Event.CUSTOMER_EMAIL_ADDRESS_CONFIRMATION_FAILED:
+                return CustomerEmailAddressConfirmationFailed.build(customerID);
+            case Event.CUSTOMER_EMAIL_ADDRESS_CHANGED:
+                return CustomerEmailAddressChanged.build(
+                        customerID,
+                        EmailAddress.build(getString(buffer)),
+                        getHash(buffer)
+                );
+            case Event.CUSTOMER_NAME_CHANGED:
+                return CustomerNameChanged.build(
+                        customerID,
+                        PersonName.build(getString(buffer), getString(buffer))
+                );
+            default:
+                throw new IllegalArgumentException("unknown event type " + type);
+        }
+    }
+
+    /**
+     * Reads only the customer ID of the event at the current position, the position is left unchanged.
+     */
+    public static ID peekCustomerID(ByteBuffer buffer) {
+        int position = buffer.position() + 1;
+
+        return ID.build(buffer.getLong(position), buffer.getLong(position + Long.BYTES));
+    }
+
+    /**
+     * The hashCode of the customer ID of the event at the current position, read without building the ID.
+     */
+    public static int peekCustomerIDHash(ByteBuffer buffer) {
+        int position = buffer.position() + 1;
+
+        return Long.hashCode(buffer.getLong(position) ^ buffer.getLong(position + Long.BYTES));
+    }
+
+    public static ID customerID(Event event) {
+        switch (event.type()) {
+            case Event.CUSTOMER_REGISTERED:
+                return ((CustomerRegistered) event).customerID;
+            case Event.CUSTOMER_EMAIL_ADDRESS_CONFIRMED:
+                return ((CustomerEmailAddressConfirmed) event).customerID;
+            case Event.CUSTOMER_EMAIL_ADDRESS_CONFIRMATION_FAILED:
+                return ((CustomerEmailAddressConfirmationFailed) event).customerID;
+            case Event.CUSTOMER_EMAIL_ADDRESS_CHANGED:
+                return ((CustomerEmailAddressChanged) event).customerID;
+            case Event.CUSTOMER_NAME_CHANGED:
+                return ((CustomerNameChanged) event).customerID;
+            default:
+                throw new IllegalArgumentException("unsupported event type " + event.type());
+        }
+    }
+
+    static void putID(ByteBuffer buffer, ID id) {
+        if (!id.isUUID()) {
+            throw new IllegalArgumentException("the ID " + id.value() + " is not a UUID and cannot be encoded");
+        }
+        buffer.putLong(id.mostSignificantBits());
+        buffer.putLong(id.leastSignificantBits());
+    }
+
+    static ID getID(ByteBuffer buffer) {
+        return ID.build(buffer.getLong(), buffer.getLong());
+    }
+
+    static void putHash(ByteBuffer buffer, Hash hash) {
+        if (!hash.isUUID()) {
+            throw new IllegalArgumentException("the hash " + hash.value() + " is not a UUID and cannot be encoded");
+        }
+        buffer.putLong(hash.mostSignificantBits());
+        buffer.putLong(hash.leastSignificantBits());
+    }
+
+    static Hash getHash(ByteBuffer buffer) {
+        return Hash.build(buffer.getLong(), buffer.getLong());
+    }
+
+    static void putString(ByteBuffer buffer, String value) {
+        int lengthPosition = buffer.position();
+        buffer.putShort((short) 0);
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | (c >> 6)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xE0 | (c >> 12)));
+                buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+
+        int size = buffer.position() - lengthPosition - Short.BYTES;
+        if (size > MAX_STRING_SIZE) {
+            throw new IllegalArgumentException("string exceeds " + MAX_STRING_SIZE + " bytes");
+        }
+        buffer.putShort(lengthPosition, (short) size);
+    }
+
+    static String getString(ByteBuffer buffer) {
+        var value = getString(buffer, buffer.position());
+        buffer.position(buffer.position() + Short.BYTES + stringSize(buffer, buffer.position()));
+
+        return value;
+    }
+
+    /**
+     * Reads the string at the given index without moving the position of the buffer.
+     */
+    static String getString(ByteBuffer buffer, int index) {
+        int size = stringSize(buffer, index);
+        int start = index + Short.BYTES;
+
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + start, size, UTF_8);
+        }
+
+        byte[] scratch = scratch(size);
+        buffer.get(start, scratch, 0, size);
+
+        return new String(scratch, 0, size, UTF_8);
+    }
+
+    static int stringSize(ByteBuffer buffer, int index) {
+        return Short.toUnsignedInt(buffer.getShort(index));
+    }
+
+    private static byte[] scratch(int size) {
+        byte[] scratch = SCRATCH.get();
+        if (scratch.length < size) {
+            scratch = new byte[Math.max(size, scratch.length * 2)];
+            SCRATCH.set(scratch);
+        }
+
+        return scratch;
+    }
+}
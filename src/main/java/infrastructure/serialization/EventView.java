@@ -0,0 +1,107 @@
+package infrastructure.serialization;
+
+import domain.shared.event.Event;
+import domain.shared.value.EmailAddress;
+import domain.shared.value.Hash;
+import domain.shared.value.ID;
+import domain.shared.value.PersonName;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight over an event encoded by EventCodec. Nothing is decoded up front, each accessor reads just its field
+ * from the buffer, and the raw bit accessors and hasConfirmationHash do not allocate at all. The view is
+ * re-pointed to the next event by wrap, so it must not be kept.
+ */
+public final class EventView {
+    private static final int CUSTOMER_ID_OFFSET = 1;
+    private static final int FIELDS_OFFSET = CUSTOMER_ID_OFFSET + 2 * Long.BYTES;
+
+    private ByteBuffer buffer;
+    private int offset;
+
+    public EventView wrap(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+
+        return this;
+    }
+
+    public int type() {
+        return buffer.get(offset);
+    }
+
+    public ID customerID() {
+        return ID.build(customerIDMostSignificantBits(), customerIDLeastSignificantBits());
+    }
+
+    public long customerIDMostSignificantBits() {
+        return buffer.getLong(offset + CUSTOMER_ID_OFFSET);
+    }
+
+    public long customerIDLeastSignificantBits() {
+        return buffer.getLong(offset + CUSTOMER_ID_OFFSET + Long.BYTES);
+    }
+
+    public EmailAddress emailAddress() {
+        return EmailAddress.build(EventCodec.getString(buffer, emailAddressOffset()));
+    }
+
+    public Hash confirmationHash() {
+        return Hash.build(confirmationHashMostSignificantBits(), confirmationHashLeastSignificantBits());
+    }
+
+    public long confirmationHashMostSignificantBits() {
+        return buffer.getLong(confirmationHashOffset());
+    }
+
+    public long confirmationHashLeastSignificantBits() {
+        return buffer.getLong(confirmationHashOffset() + Long.BYTES);
+    }
+
+    public boolean hasConfirmationHash(Hash confirmationHash) {
+        int hashOffset = confirmationHashOffset();
+
+        return confirmationHash.matches(buffer.getLong(hashOffset), buffer.getLong(hashOffset + Long.BYTES));
+    }
+
+    public PersonName name() {
+        int givenNameOffset;
+        switch (type()) {
+            case Event.CUSTOMER_REGISTERED:
+                givenNameOffset = confirmationHashOffset() + 2 * Long.BYTES;
+                break;
+            case Event.CUSTOMER_NAME_CHANGED:
+                givenNameOffset = offset + FIELDS_OFFSET;
+                break;
+            default:
+                throw noSuchField("name");
+        }
+        int familyNameOffset = givenNameOffset + Short.BYTES + EventCodec.stringSize(buffer, givenNameOffset);
+
+        return PersonName.build(EventCodec.getString(buffer, givenNameOffset), EventCodec.getString(buffer, familyNameOffset));
+    }
+
+    public Event decode() {
+        return EventCodec.decode(buffer.duplicate().position(offset));
+    }
+
+    private int emailAddressOffset() {
+        int type = type();
+        if (type != Event.CUSTOMER_REGISTERED && type != Event.CUSTOMER_EMAIL_ADDRESS_CHANGED) {
+            throw noSuchField("email address");
+        }
+
+        return offset + FIELDS_OFFSET;
+    }
+
+    private int confirmationHashOffset() {
+        int emailAddressOffset = emailAddressOffset();
+
+        return emailAddressOffset + Short.BYTES + EventCodec.stringSize(buffer, emailAddressOffset);
+    }
+
+    private IllegalStateException noSuchField(String field) {
+        return new IllegalStateException("event type " + type() + " has no " + field);
+    }
+}
@@ -0,0 +1,81 @@
+package infrastructure.serialization;
+
+import domain.shared.event.Event;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Pull-style replay over EventViews: every successful advance() re-points the same view to the following event.
+ */
+public interface EventViewCursor {
+    boolean advance();
+
+    EventView view();
+
+    /**
+     * Decodes the remaining events one at a time while they are pulled, so folds written against Iterator&lt;Event&gt;,
+     * like CustomerState.reconstitute or the command handlers of Customer5 to 7, replay a view cursor unchanged.
+     */
+    default Iterator<Event> events() {
+        return new Iterator<>() {
+            private boolean advanced;
+            private boolean hasNext;
+
+            @Override
+            public boolean hasNext() {
+                if (!advanced) {
+                    hasNext = advance();
+                    advanced = true;
+                }
+
+                return hasNext;
+            }
+
+            @Override
+            public Event next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                advanced = false;
+
+                return view().decode();
+            }
+        };
+    }
+
+    /**
+     * Encodes the events one by one into a reused buffer, for stores that do not hold encoded events.
+     */
+    static EventViewCursor encoding(Iterator<Event> events) {
+        return new EventViewCursor() {
+            private final EventView view = new EventView();
+            private ByteBuffer buffer = ByteBuffer.allocate(512);
+
+            @Override
+            public boolean advance() {
+                if (!events.hasNext()) {
+                    return false;
+                }
+
+                var event = events.next();
+                while (true) {
+                    try {
+                        EventCodec.encode(event, buffer.clear());
+                        view.wrap(buffer, 0);
+                        return true;
+                    } catch (BufferOverflowException e) {
+                        buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+                    }
+                }
+            }
+
+            @Override
+            public EventView view() {
+                return view;
+            }
+        };
+    }
+}
@@ -0,0 +1,44 @@
+package infrastructure.snapshot;
+
+import domain.shared.value.ID;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Writes snapshots off the request path. At most one snapshot per customer is in flight, and snapshots that cannot
+ * be scheduled are dropped, since the next replay will ask for one again.
+ */
+public final class AsyncSnapshotWriter {
+    private final SnapshotStore store;
+    private final SnapshotPolicy policy;
+    private final Executor executor;
+    private final Set<ID> inFlight = ConcurrentHashMap.newKeySet();
+
+    public AsyncSnapshotWriter(SnapshotStore store, SnapshotPolicy policy, Executor executor) {
+        this.store = store;
+        this.policy = policy;
+        this.executor = executor;
+    }
+
+    public void afterReplay(ID customerID, long snapshotVersion, long version, Supplier<byte[]> snapshot) {
+        if (!policy.shouldSnapshot(snapshotVersion, version) || !inFlight.add(customerID)) {
+            return;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    store.save(customerID, version, snapshot.get());
+                } finally {
+                    inFlight.remove(customerID);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(customerID);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package infrastructure.snapshot;
+
+import domain.functional.es.customer.CustomerState;
+import domain.functional.es.customer.CustomerStateSnapshot;
+import domain.shared.value.ID;
+import infrastructure.eventstore.EventStore;
+
+/**
+ * Reconstitutes a CustomerState from the latest snapshot plus the events appended after it, and takes a new
+ * snapshot whenever the policy asks for one.
+ */
+public final class CustomerStateLoader {
+    private final EventStore eventStore;
+    private final SnapshotStore snapshotStore;
+    private final SnapshotPolicy policy;
+
+    public CustomerStateLoader(EventStore eventStore, SnapshotStore snapshotStore, SnapshotPolicy policy) {
+        this.eventStore = eventStore;
+        this.snapshotStore = snapshotStore;
+        this.policy = policy;
+    }
+
+    public CustomerState load(ID customerID) {
+        var snapshot = snapshotStore.load(customerID).map(CustomerStateSnapshot::fromBytes);
+
+        CustomerState state;
+        long snapshotVersion = 0;
+        if (snapshot.isPresent()) {
+            snapshotVersion = snapshot.get().version;
+            state = CustomerState.reconstitute(snapshot.get(), eventStore.cursor(customerID, snapshotVersion));
+        } else {
+            state = CustomerState.reconstitute(eventStore.cursor(customerID, 0));
+        }
+
+        if (policy.shouldSnapshot(snapshotVersion, state.version())) {
+            snapshotStore.save(customerID, state.version(), state.snapshot().toBytes());
+        }
+
+        return state;
+    }
+}
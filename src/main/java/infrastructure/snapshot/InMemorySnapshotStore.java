@@ -0,0 +1,36 @@
+package infrastructure.snapshot;
+
+import domain.shared.value.ID;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class InMemorySnapshotStore implements SnapshotStore {
+    private final ConcurrentHashMap<ID, StoredSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    @Override
+    public Optional<byte[]> load(ID customerID) {
+        var stored = snapshots.get(customerID);
+
+        return stored == null ? Optional.empty() : Optional.of(stored.snapshot);
+    }
+
+    @Override
+    public void save(ID customerID, long version, byte[] snapshot) {
+        snapshots.merge(
+                customerID,
+                new StoredSnapshot(version, snapshot),
+                (current, candidate) -> candidate.version > current.version ? candidate : current
+        );
+    }
+
+    private static final class StoredSnapshot {
+        final long version;
+        final byte[] snapshot;
+
+        StoredSnapshot(long version, byte[] snapshot) {
+            this.version = version;
+            this.snapshot = snapshot;
+        }
+    }
+}
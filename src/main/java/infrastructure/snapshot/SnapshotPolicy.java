@@ -0,0 +1,17 @@
+package infrastructure.snapshot;
+
+public interface SnapshotPolicy {
+    boolean shouldSnapshot(long snapshotVersion, long streamVersion);
+
+    static SnapshotPolicy everyNEvents(int n) {
+        if (n < 1) {
+            throw new IllegalArgumentException("n must be positive");
+        }
+
+        return (snapshotVersion, streamVersion) -> streamVersion - snapshotVersion >= n;
+    }
+
+    static SnapshotPolicy never() {
+        return (snapshotVersion, streamVersion) -> false;
+    }
+}
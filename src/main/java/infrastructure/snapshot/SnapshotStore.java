@@ -0,0 +1,14 @@
+package infrastructure.snapshot;
+
+import domain.shared.value.ID;
+
+import java.util.Optional;
+
+public interface SnapshotStore {
+    Optional<byte[]> load(ID customerID);
+
+    /**
+     * Stores the snapshot unless a snapshot covering a newer stream version is already stored.
+     */
+    void save(ID customerID, long version, byte[] snapshot);
+}
@@ -1,7 +1,12 @@
 package domain;
 
-import domain.shared.event.Event;
+import domain.shared.event.*;
+import domain.shared.value.EmailAddress;
+import domain.shared.value.Hash;
+import domain.shared.value.ID;
+import domain.shared.value.PersonName;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class THelper {
@@ -66,4 +71,26 @@ public class THelper {
                 recordedEventType
         );
     }
+
+    /**
+     * A registration followed by 20 email address changes, every third one confirmed, for snapshot and memento tests.
+     */
+    public static List<Event> aLongEventStream() {
+        var customerID = ID.generate();
+        var events = new ArrayList<Event>();
+        events.add(CustomerRegistered.build(
+                customerID,
+                EmailAddress.build("john@doe.com"),
+                Hash.generate(),
+                PersonName.build("John", "Doe")
+        ));
+        for (int i = 0; i < 20; i++) {
+            events.add(CustomerEmailAddressChanged.build(customerID, EmailAddress.build("john+" + i + "@doe.com"), Hash.generate()));
+            if (i % 3 == 0) {
+                events.add(CustomerEmailAddressConfirmed.build(customerID));
+            }
+        }
+
+        return events;
+    }
 }
@@ -150,7 +150,7 @@ class Customer5Test {
     }
 
     private void WHEN_ConfirmEmailAddress_With(Hash confirmationHash) {
-        var command = ConfirmCustomerEmailAddress.build(customerID.value, confirmationHash.value);
+        var command = ConfirmCustomerEmailAddress.build(customerID.value(), confirmationHash.value());
         try {
             recordedEvents = Customer5.confirmEmailAddress(eventStream, command);
         } catch (NullPointerException e) {
@@ -159,7 +159,7 @@ class Customer5Test {
     }
 
     private void WHEN_ChangeEmailAddress_With(EmailAddress emailAddress) {
-        var command = ChangeCustomerEmailAddress.build(customerID.value, emailAddress.value);
+        var command = ChangeCustomerEmailAddress.build(customerID.value(), emailAddress.value);
         try {
             recordedEvents = Customer5.changeEmailAddress(eventStream, command);
             changedConfirmationHash = command.confirmationHash;
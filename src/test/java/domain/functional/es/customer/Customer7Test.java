@@ -146,7 +146,7 @@ class Customer7Test {
     }
 
     private void WHEN_ConfirmEmailAddress_With(Hash confirmationHash) {
-        var command = ConfirmCustomerEmailAddress.build(customerID.value, confirmationHash.value);
+        var command = ConfirmCustomerEmailAddress.build(customerID.value(), confirmationHash.value());
         try {
             recordedEvents = Customer7.confirmEmailAddress(currentState, command);
         } catch (NullPointerException e) {
@@ -155,7 +155,7 @@ class Customer7Test {
     }
 
     private void WHEN_ChangeEmailAddress_With(EmailAddress emailAddress) {
-        var command = ChangeCustomerEmailAddress.build(customerID.value, emailAddress.value);
+        var command = ChangeCustomerEmailAddress.build(customerID.value(), emailAddress.value);
         try {
             recordedEvents = Customer7.changeEmailAddress(currentState, command);
             changedConfirmationHash = command.confirmationHash;
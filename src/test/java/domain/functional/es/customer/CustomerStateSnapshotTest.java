@@ -0,0 +1,92 @@
+package domain.functional.es.customer;
+
+import domain.THelper;
+import domain.shared.event.*;
+import domain.shared.value.EmailAddress;
+import domain.shared.value.Hash;
+import domain.shared.value.PersonName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerStateSnapshotTest {
+    @Test
+    void restoresEveryPropertyOfTheState() {
+        var state = CustomerState.reconstitute(List.of());
+        state.emailAddress = EmailAddress.build("john@doe.com");
+        state.confirmationHash = Hash.generate();
+        state.name = PersonName.build("John", "Doe");
+        state.isEmailAddressConfirmed = true;
+        state.version = 42;
+
+        var snapshot = CustomerStateSnapshot.fromBytes(state.snapshot().toBytes());
+        var restored = CustomerState.reconstitute(snapshot, List.of());
+
+        assertEquals(42, snapshot.version);
+        assertEquals(state.emailAddress, restored.emailAddress);
+        assertEquals(state.confirmationHash, restored.confirmationHash);
+        assertEquals(state.name, restored.name);
+        assertTrue(restored.isEmailAddressConfirmed);
+        assertEquals(42, restored.version());
+    }
+
+    @Test
+    void snapshotPlusTailEqualsFullReplay() {
+        var events = THelper.aLongEventStream();
+        var fullReplay = fold(CustomerState.reconstitute(List.of()), events);
+        assertNotNull(fullReplay.emailAddress);
+        assertNotNull(fullReplay.confirmationHash);
+        assertNotNull(fullReplay.name);
+
+        for (int cut = 0; cut <= events.size(); cut++) {
+            var head = fold(CustomerState.reconstitute(List.of()), events.subList(0, cut));
+            var snapshot = CustomerStateSnapshot.fromBytes(head.snapshot().toBytes());
+            var decoded = CustomerState.reconstitute(snapshot, List.of());
+
+            assertEquals(cut, snapshot.version);
+            assertEquals(head.emailAddress, decoded.emailAddress);
+            assertEquals(head.confirmationHash, decoded.confirmationHash);
+            assertEquals(head.name, decoded.name);
+            assertEquals(head.isEmailAddressConfirmed, decoded.isEmailAddressConfirmed);
+
+            var restored = fold(decoded, events.subList(cut, events.size()));
+
+            assertEquals(fullReplay.version(), restored.version());
+            assertEquals(fullReplay.emailAddress, restored.emailAddress);
+            assertEquals(fullReplay.confirmationHash, restored.confirmationHash);
+            assertEquals(fullReplay.name, restored.name);
+            assertEquals(fullReplay.isEmailAddressConfirmed, restored.isEmailAddressConfirmed);
+        }
+    }
+
+    /**
+     * Folds the events into the fields the way the CustomerState.apply exercise is meant to, so the snapshots carry
+     * real values while the exercise is still open.
+     */
+    private static CustomerState fold(CustomerState state, List<Event> events) {
+        for (Event event : events) {
+            switch (event.type()) {
+                case Event.CUSTOMER_REGISTERED:
+                    var registered = (CustomerRegistered) event;
+                    state.emailAddress = registered.emailAddress;
+                    state.confirmationHash = registered.confirmationHash;
+                    state.name = registered.name;
+                    break;
+                case Event.CUSTOMER_EMAIL_ADDRESS_CONFIRMED:
+                    state.isEmailAddressConfirmed = true;
+                    break;
+                case Event.CUSTOMER_EMAIL_ADDRESS_CHANGED:
+                    var emailAddressChanged = (CustomerEmailAddressChanged) event;
+                    state.emailAddress = emailAddressChanged.emailAddress;
+                    state.confirmationHash = emailAddressChanged.confirmationHash;
+                    state.isEmailAddressConfirmed = false;
+                    break;
+            }
+            state.version++;
+        }
+
+        return state;
+    }
+}
@@ -0,0 +1,48 @@
+package domain.functional.es.customer;
+
+import domain.shared.event.CustomerEmailAddressConfirmed;
+import domain.shared.value.EmailAddress;
+import domain.shared.value.Hash;
+import domain.shared.value.ID;
+import domain.shared.value.PersonName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerStateTest {
+    @Test
+    void advancingLeavesTheCurrentStateUnchanged() {
+        var customerID = ID.generate();
+        var state = CustomerState.reconstitute(List.of());
+        state.emailAddress = EmailAddress.build("john@doe.com");
+        state.confirmationHash = Hash.generate();
+        state.name = PersonName.build("John", "Doe");
+        state.version = 3;
+
+        var advanced = state.advance(3, List.of(CustomerEmailAddressConfirmed.build(customerID), CustomerEmailAddressConfirmed.build(customerID)));
+
+        assertNotSame(state, advanced);
+        assertEquals(3, state.version());
+        assertEquals(5, advanced.version());
+        assertEquals(state.emailAddress, advanced.emailAddress);
+        assertEquals(state.confirmationHash, advanced.confirmationHash);
+        assertEquals(state.name, advanced.name);
+    }
+
+    @Test
+    void advancingWithoutEventsReturnsTheSameState() {
+        var state = CustomerState.reconstitute(List.of());
+
+        assertSame(state, state.advance(0, List.of()));
+    }
+
+    @Test
+    void rejectsEventsThatDoNotStartAtTheVersionOfTheState() {
+        var state = CustomerState.reconstitute(List.of());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> state.advance(1, List.of(CustomerEmailAddressConfirmed.build(ID.generate()))));
+    }
+}
@@ -57,7 +57,7 @@ class Customer2Test {
 
         // When confirmCustomerEmailAddress
         // Then it should succeed
-        var command = ConfirmCustomerEmailAddress.build(customerID.value, confirmationHash.value);
+        var command = ConfirmCustomerEmailAddress.build(customerID.value(), confirmationHash.value());
         var changedCustomer = assertDoesNotThrow(() -> Customer2.confirmEmailAddress(registeredCustomer, command));
 
         // and the emailAddress of the changed Customer should be confirmed
@@ -72,7 +72,20 @@ class Customer2Test {
 
         // When confirmCustomerEmailAddress
         // Then it should throw WrongConfirmationHashException
-        var command = ConfirmCustomerEmailAddress.build(customerID.value, wrongConfirmationHash.value);
+        var command = ConfirmCustomerEmailAddress.build(customerID.value(), wrongConfirmationHash.value());
+        assertThrows(WrongConfirmationHashException.class, () -> Customer2.confirmEmailAddress(registeredCustomer, command));
+    }
+
+    @Test
+    @Order(4)
+    void confirmEmailAddress_withMalformedConfirmationHash() {
+        // Given
+        givenARegisteredCustomer();
+
+        // When confirmCustomerEmailAddress with a hash that is not a UUID
+        // Then the command can be built and it should throw WrongConfirmationHashException
+        var command = ConfirmCustomerEmailAddress.build(customerID.value(), "not-a-confirmation-hash");
+        assertEquals("not-a-confirmation-hash", command.confirmationHash.value());
         assertThrows(WrongConfirmationHashException.class, () -> Customer2.confirmEmailAddress(registeredCustomer, command));
     }
 
@@ -83,7 +96,7 @@ class Customer2Test {
         givenARegisteredCustomer();
 
         // When changeCustomerEmailAddress
-        var command = ChangeCustomerEmailAddress.build(customerID.value, changedEmailAddress.value);
+        var command = ChangeCustomerEmailAddress.build(customerID.value(), changedEmailAddress.value);
         var changedCustomer = Customer2.changeEmailAddress(registeredCustomer, command);
 
         // Then the emailAddress and confirmationHash should be changed and the emailAddress should be unconfirmed
@@ -102,7 +115,7 @@ class Customer2Test {
 
         // When confirmEmailAddress
         // Then it should throw WrongConfirmationHashException
-        var command = ConfirmCustomerEmailAddress.build(customerID.value, changedConfirmationHash.value);
+        var command = ConfirmCustomerEmailAddress.build(customerID.value(), changedConfirmationHash.value());
         var changedCustomer = assertDoesNotThrow(() -> Customer2.confirmEmailAddress(registeredCustomer, command));
 
         // and the emailAddress of the changed Customer should be confirmed
@@ -120,7 +133,7 @@ class Customer2Test {
     }
 
     private void givenEmailAddressWasConfirmed() {
-        var command = ConfirmCustomerEmailAddress.build(customerID.value, confirmationHash.value);
+        var command = ConfirmCustomerEmailAddress.build(customerID.value(), confirmationHash.value());
 
         try {
             registeredCustomer = Customer2.confirmEmailAddress(registeredCustomer, command);
@@ -130,7 +143,7 @@ class Customer2Test {
     }
 
     private void givenEmailAddressWasChanged() {
-        var command = ChangeCustomerEmailAddress.build(customerID.value, changedEmailAddress.value);
+        var command = ChangeCustomerEmailAddress.build(customerID.value(), changedEmailAddress.value);
         changedConfirmationHash = command.confirmationHash;
         registeredCustomer = Customer2.changeEmailAddress(registeredCustomer, command);
     }
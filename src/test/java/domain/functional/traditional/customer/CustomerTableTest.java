@@ -0,0 +1,71 @@
+package domain.functional.traditional.customer;
+
+import domain.shared.command.ChangeCustomerEmailAddress;
+import domain.shared.command.ConfirmCustomerEmailAddress;
+import domain.shared.command.RegisterCustomer;
+import domain.shared.exception.WrongConfirmationHashException;
+import domain.shared.value.Hash;
+import domain.shared.value.ID;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerTableTest {
+    @Test
+    void decidesLikeCustomer2AgainstARow() throws Exception {
+        var table = new CustomerTable();
+        var register = RegisterCustomer.build("john@doe.com", "John", "Doe");
+        int row = Customer2Rows.register(table, register);
+
+        var wrongHash = ConfirmCustomerEmailAddress.build(register.customerID.value(), Hash.generate().value());
+        assertThrows(WrongConfirmationHashException.class, () -> Customer2Rows.confirmEmailAddress(table, row, wrongHash));
+        assertFalse(table.isEmailAddressConfirmed(row));
+
+        Customer2Rows.confirmEmailAddress(table, row, ConfirmCustomerEmailAddress.build(register.customerID.value(), register.confirmationHash.value()));
+        assertTrue(table.isEmailAddressConfirmed(row));
+
+        var change = ChangeCustomerEmailAddress.build(register.customerID.value(), "john+changed@doe.com");
+        Customer2Rows.changeEmailAddress(table, row, change);
+
+        var state = table.state(row);
+        var expected = Customer2.changeEmailAddress(
+                Customer2.confirmEmailAddress(Customer2.register(register), ConfirmCustomerEmailAddress.build(register.customerID.value(), register.confirmationHash.value())),
+                change
+        );
+        assertEquals(expected.id, state.id);
+        assertEquals(expected.emailAddress, state.emailAddress);
+        assertEquals(expected.confirmationHash, state.confirmationHash);
+        assertEquals(expected.name, state.name);
+        assertEquals(expected.isEmailAddressConfirmed, state.isEmailAddressConfirmed);
+    }
+
+    @Test
+    void findsRowsByIDAcrossGrowth() throws Exception {
+        var table = new CustomerTable(16);
+        var customerIDs = new ArrayList<ID>();
+        for (int i = 0; i < 1000; i++) {
+            var register = RegisterCustomer.build("customer" + i + "@doe.com", "John", i % 3 == 0 ? "Doe" : "Smith");
+            int row = Customer2Rows.register(table, register);
+            if (i % 2 == 0) {
+                Customer2Rows.confirmEmailAddress(table, row, ConfirmCustomerEmailAddress.build(register.customerID.value(), register.confirmationHash.value()));
+            }
+            customerIDs.add(register.customerID);
+        }
+
+        assertEquals(1000, table.size());
+        for (int i = 0; i < customerIDs.size(); i++) {
+            assertEquals(i, table.row(customerIDs.get(i)));
+            assertEquals("customer" + i + "@doe.com", table.emailAddress(i).value);
+        }
+        assertEquals(-1, table.row(ID.generate()));
+        assertEquals(500, table.countConfirmed());
+        assertEquals(167, table.countConfirmedWithFamilyName("Doe"));
+        assertEquals(0, table.countConfirmedWithFamilyName("Mustermann"));
+
+        var duplicate = table.state(0);
+        assertThrows(IllegalArgumentException.class, () -> table.insert(duplicate));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.name(1000));
+    }
+}
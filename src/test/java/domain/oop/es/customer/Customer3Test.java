@@ -147,7 +147,7 @@ class Customer3Test {
     }
 
     private void WHEN_ConfirmEmailAddress_With(Hash confirmationHash) {
-        var command = ConfirmCustomerEmailAddress.build(customerID.value, confirmationHash.value);
+        var command = ConfirmCustomerEmailAddress.build(customerID.value(), confirmationHash.value());
         try {
             recordedEvents = registeredCustomer.confirmEmailAddress(command);
         } catch (NullPointerException e) {
@@ -156,7 +156,7 @@ class Customer3Test {
     }
 
     private void WHEN_ChangeEmailAddress_With(EmailAddress emailAddress) {
-        var command = ChangeCustomerEmailAddress.build(customerID.value, emailAddress.value);
+        var command = ChangeCustomerEmailAddress.build(customerID.value(), emailAddress.value);
         try {
             recordedEvents = registeredCustomer.changeEmailAddress(command);
         } catch (NullPointerException e) {
@@ -146,7 +146,7 @@ class Customer4Test {
     }
 
     private void WHEN_ConfirmEmailAddress_With(Hash confirmationHash) {
-        var command = ConfirmCustomerEmailAddress.build(customerID.value, confirmationHash.value);
+        var command = ConfirmCustomerEmailAddress.build(customerID.value(), confirmationHash.value());
         try {
             registeredCustomer.confirmEmailAddress(command);
         } catch (NullPointerException e) {
@@ -155,7 +155,7 @@ class Customer4Test {
     }
 
     private void WHEN_ChangeEmailAddress_With(EmailAddress emailAddress) {
-        var command = ChangeCustomerEmailAddress.build(customerID.value, emailAddress.value);
+        var command = ChangeCustomerEmailAddress.build(customerID.value(), emailAddress.value);
         try {
             registeredCustomer.changeEmailAddress(command);
         } catch (NullPointerException e) {
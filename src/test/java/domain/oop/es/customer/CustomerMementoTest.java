@@ -0,0 +1,97 @@
+package domain.oop.es.customer;
+
+import domain.THelper;
+import domain.functional.es.customer.CustomerStateSnapshot;
+import domain.shared.event.*;
+import domain.shared.value.EmailAddress;
+import domain.shared.value.Hash;
+import domain.shared.value.PersonName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerMementoTest {
+    @Test
+    void survivesTheRoundTripThroughBytes() {
+        var memento = new CustomerMemento(
+                7,
+                EmailAddress.build("john@doe.com"),
+                Hash.generate(),
+                true,
+                PersonName.build("John", "Doe")
+        );
+
+        var restored = CustomerMemento.fromBytes(memento.toBytes());
+
+        assertEquals(7, restored.version);
+        assertEquals(memento.emailAddress, restored.emailAddress);
+        assertEquals(memento.confirmationHash, restored.confirmationHash);
+        assertTrue(restored.isEmailAddressConfirmed);
+        assertEquals(memento.name, restored.name);
+    }
+
+    @Test
+    void sharesTheBinaryFormatWithCustomerStateSnapshot() {
+        var memento = new CustomerMemento(3, EmailAddress.build("john@doe.com"), Hash.generate(), false, PersonName.build("John", "Doe"));
+
+        var snapshot = CustomerStateSnapshot.build(3, memento.emailAddress, memento.confirmationHash, memento.name, false);
+
+        assertArrayEquals(memento.toBytes(), snapshot.toBytes());
+        assertEquals(memento.emailAddress, CustomerMemento.fromBytes(snapshot.toBytes()).emailAddress);
+    }
+
+    @Test
+    void restoresTheMementoAtEveryPointOfTheStream() {
+        var events = THelper.aLongEventStream();
+        assertNotNull(fold(events).emailAddress);
+
+        for (int cut = 0; cut <= events.size(); cut++) {
+            var memento = fold(events.subList(0, cut));
+
+            var restored3 = Customer3.reconstitute(CustomerMemento.fromBytes(memento.toBytes()), List.of()).memento();
+            var restored4 = Customer4.reconstitute(CustomerMemento.fromBytes(memento.toBytes()), List.of()).memento();
+
+            assertEquals(cut, restored3.version);
+            assertEquals(memento.emailAddress, restored3.emailAddress);
+            assertEquals(memento.confirmationHash, restored3.confirmationHash);
+            assertEquals(memento.isEmailAddressConfirmed, restored3.isEmailAddressConfirmed);
+            assertEquals(memento.name, restored3.name);
+            assertArrayEquals(memento.toBytes(), restored4.toBytes());
+        }
+    }
+
+    /**
+     * Folds the events into a memento the way the apply exercises of Customer3 and Customer4 are meant to, so the
+     * mementos carry real values while the exercises are still open.
+     */
+    private static CustomerMemento fold(List<Event> events) {
+        EmailAddress emailAddress = null;
+        Hash confirmationHash = null;
+        boolean isEmailAddressConfirmed = false;
+        PersonName name = null;
+
+        for (Event event : events) {
+            switch (event.type()) {
+                case Event.CUSTOMER_REGISTERED:
+                    var registered = (CustomerRegistered) event;
+                    emailAddress = registered.emailAddress;
+                    confirmationHash = registered.confirmationHash;
+                    name = registered.name;
+                    break;
+                case Event.CUSTOMER_EMAIL_ADDRESS_CONFIRMED:
+                    isEmailAddressConfirmed = true;
+                    break;
+                case Event.CUSTOMER_EMAIL_ADDRESS_CHANGED:
+                    var emailAddressChanged = (CustomerEmailAddressChanged) event;
+                    emailAddress = emailAddressChanged.emailAddress;
+                    confirmationHash = emailAddressChanged.confirmationHash;
+                    isEmailAddressConfirmed = false;
+                    break;
+            }
+        }
+
+        return new CustomerMemento(events.size(), emailAddress, confirmationHash, isEmailAddressConfirmed, name);
+    }
+}
@@ -57,7 +57,7 @@ class Customer1Test {
 
         // When confirmCustomerEmailAddress
         // Then it should succeed
-        var command = ConfirmCustomerEmailAddress.build(customerID.value, confirmationHash.value);
+        var command = ConfirmCustomerEmailAddress.build(customerID.value(), confirmationHash.value());
         assertDoesNotThrow(() -> registeredCustomer.confirmEmailAddress(command));
 
         // and the emailAddress should be confirmed
@@ -72,7 +72,7 @@ class Customer1Test {
 
         // When confirmCustomerEmailAddress
         // Then it should throw WrongConfirmationHashException
-        var command = ConfirmCustomerEmailAddress.build(customerID.value, wrongConfirmationHash.value);
+        var command = ConfirmCustomerEmailAddress.build(customerID.value(), wrongConfirmationHash.value());
         assertThrows(WrongConfirmationHashException.class, () -> registeredCustomer.confirmEmailAddress(command));
 
         // and the emailAddress should not be confirmed
@@ -86,7 +86,7 @@ class Customer1Test {
         givenARegisteredCustomer();
 
         // When changeCustomerEmailAddress
-        var command = ChangeCustomerEmailAddress.build(customerID.value, changedEmailAddress.value);
+        var command = ChangeCustomerEmailAddress.build(customerID.value(), changedEmailAddress.value);
         registeredCustomer.changeEmailAddress(command);
 
         // Then the emailAddress and confirmationHash should be changed and the emailAddress should be unconfirmed
@@ -105,7 +105,7 @@ class Customer1Test {
 
         // When confirmCustomerEmailAddress
         // Then it should succeed
-        var command = ConfirmCustomerEmailAddress.build(customerID.value, changedConfirmationHash.value);
+        var command = ConfirmCustomerEmailAddress.build(customerID.value(), changedConfirmationHash.value());
         assertDoesNotThrow(() -> registeredCustomer.confirmEmailAddress(command));
 
         // and the emailAddress should be confirmed
@@ -123,7 +123,7 @@ class Customer1Test {
     }
 
     private void givenEmailAddressWasConfirmed() {
-        var command = ConfirmCustomerEmailAddress.build(customerID.value, confirmationHash.value);
+        var command = ConfirmCustomerEmailAddress.build(customerID.value(), confirmationHash.value());
 
         try {
             registeredCustomer.confirmEmailAddress(command);
@@ -133,7 +133,7 @@ class Customer1Test {
     }
 
     private void givenEmailAddressWasChanged() {
-        var command = ChangeCustomerEmailAddress.build(customerID.value, changedEmailAddress.value);
+        var command = ChangeCustomerEmailAddress.build(customerID.value(), changedEmailAddress.value);
         changedConfirmationHash = command.confirmationHash;
         registeredCustomer.changeEmailAddress(command);
     }
@@ -0,0 +1,54 @@
+package domain.shared.snapshot;
+
+import domain.shared.value.EmailAddress;
+import domain.shared.value.Hash;
+import domain.shared.value.PersonName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerSnapshotCodecTest {
+    @Test
+    void roundTripsEveryField() {
+        var emailAddress = EmailAddress.build("j\u00f6hn@doe.com");
+        var confirmationHash = Hash.generate();
+        var name = PersonName.build("John", "Doe");
+
+        var bytes = CustomerSnapshotCodec.encode(42, emailAddress, confirmationHash, true, name);
+
+        assertEquals(42L, CustomerSnapshotCodec.version(bytes));
+        CustomerSnapshotCodec.decode(bytes, (version, decodedEmailAddress, decodedConfirmationHash, isEmailAddressConfirmed, decodedName) -> {
+            assertEquals(42L, version);
+            assertEquals(emailAddress, decodedEmailAddress);
+            assertEquals(confirmationHash, decodedConfirmationHash);
+            assertTrue(isEmailAddressConfirmed);
+            assertEquals(name, decodedName);
+
+            return null;
+        });
+    }
+
+    @Test
+    void roundTripsFieldsThatAreNotKnownYet() {
+        var bytes = CustomerSnapshotCodec.encode(0, null, null, false, null);
+
+        assertEquals(Long.BYTES + 1, bytes.length);
+        CustomerSnapshotCodec.decode(bytes, (version, emailAddress, confirmationHash, isEmailAddressConfirmed, name) -> {
+            assertEquals(0L, version);
+            assertNull(emailAddress);
+            assertNull(confirmationHash);
+            assertFalse(isEmailAddressConfirmed);
+            assertNull(name);
+
+            return null;
+        });
+    }
+
+    @Test
+    void rejectsBytesThatAreNoSnapshot() {
+        var truncated = new byte[]{0, 0, 0, 0, 0, 0, 0, 1, 1 << 1, 0};
+
+        assertThrows(IllegalArgumentException.class, () -> CustomerSnapshotCodec.version(new byte[3]));
+        assertThrows(IllegalArgumentException.class, () -> CustomerSnapshotCodec.decode(truncated, (version, emailAddress, confirmationHash, isEmailAddressConfirmed, name) -> null));
+    }
+}
@@ -0,0 +1,80 @@
+package domain.shared.value;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StringPoolTest {
+    @AfterEach
+    void afterEach() {
+        PersonName.usePool(StringPool.none());
+    }
+
+    @Test
+    void returnsThePooledInstanceAndCountsHits() {
+        var pool = StringPool.bounded(100);
+
+        var first = pool.canonicalize(new String("Doe"));
+        var second = pool.canonicalize(new String("Doe"));
+
+        assertSame(first, second);
+        assertEquals(128, pool.capacity());
+        assertEquals(1L, pool.hitCount());
+        assertEquals(1L, pool.missCount());
+        assertEquals(0.5, pool.hitRate());
+    }
+
+    @Test
+    void staysBoundedWhenValuesDoNotRepeat() {
+        var pool = StringPool.bounded(16);
+
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals("customer" + i, pool.canonicalize("customer" + i));
+        }
+
+        assertEquals(16, pool.capacity());
+        assertEquals(10_000L, pool.missCount());
+    }
+
+    @Test
+    void factoriesCanonicalizeThroughThePool() {
+        var pool = StringPool.bounded(1024);
+        PersonName.usePool(pool);
+
+        var name = PersonName.build(new String("John"), new String("Doe"));
+
+        assertSame(name.givenName, PersonName.build(new String("John"), new String("Doe")).givenName);
+        assertSame(name.familyName, PersonName.build(new String("Jane"), new String("Doe")).familyName);
+        assertEquals(3L, pool.hitCount());
+    }
+
+    @Test
+    void leavesEmailAddressesOutOfThePool() {
+        var pool = StringPool.bounded(1024);
+        PersonName.usePool(pool);
+
+        var emailAddress = new String("john@doe.com");
+
+        assertSame(emailAddress, EmailAddress.build(emailAddress).value);
+        assertEquals(0L, pool.hitCount() + pool.missCount());
+    }
+
+    @Test
+    void passesNullsThrough() {
+        var pool = StringPool.bounded(16);
+        PersonName.usePool(pool);
+
+        assertNull(pool.canonicalize(null));
+        assertNull(PersonName.build(null, "Doe").givenName);
+        assertEquals(1L, pool.missCount());
+    }
+
+    @Test
+    void noPoolKeepsTheGivenInstances() {
+        var familyName = new String("Doe");
+
+        assertSame(familyName, PersonName.build("John", familyName).familyName);
+        assertNotSame(PersonName.build("John", new String("Doe")).familyName, familyName);
+    }
+}
@@ -0,0 +1,70 @@
+package domain.shared.value;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UUIDGeneratorTest {
+    @AfterEach
+    void afterEach() {
+        ID.useGenerator(UUIDGenerator.random());
+        Hash.useGenerator(UUIDGenerator.random());
+    }
+
+    @Test
+    void timeOrderedUUIDsAreVersion7AndSortByCreationTime() throws InterruptedException {
+        var generator = UUIDGenerator.timeOrdered();
+
+        var first = generator.generate();
+        Thread.sleep(2);
+        var second = generator.generate();
+
+        assertEquals(7, first.version());
+        assertEquals(2, first.variant());
+        assertTrue(Long.compareUnsigned(first.getMostSignificantBits(), second.getMostSignificantBits()) < 0);
+        assertTrue(Math.abs(System.currentTimeMillis() - (second.getMostSignificantBits() >>> 16)) < 1000);
+    }
+
+    @Test
+    void pooledSecureRandomUUIDsAreVersion4AndUnique() {
+        var generator = UUIDGenerator.pooledSecureRandom();
+        var generated = new HashSet<UUID>();
+
+        for (int i = 0; i < 10_000; i++) {
+            var uuid = generator.generate();
+            assertEquals(4, uuid.version());
+            assertEquals(2, uuid.variant());
+            assertTrue(generated.add(uuid));
+        }
+    }
+
+    @Test
+    void pooledSecureRandomUUIDsAreUniqueAcrossVirtualThreads() throws Exception {
+        var generator = UUIDGenerator.pooledSecureRandom();
+        var generated = ConcurrentHashMap.<UUID>newKeySet();
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 1000; i++) {
+                executor.submit(() -> generated.add(generator.generate()));
+            }
+        }
+
+        assertEquals(1000, generated.size());
+    }
+
+    @Test
+    void idsAndHashesUseTheConfiguredGenerator() {
+        var fixed = new UUID(0x0123456789abcdefL, 0xfedcba9876543210L);
+        ID.useGenerator(() -> fixed);
+        Hash.useGenerator(UUIDGenerator.timeOrdered());
+
+        assertEquals(ID.build("01234567-89ab-cdef-fedc-ba9876543210"), ID.generate());
+        assertEquals(7, UUID.fromString(Hash.generate().value()).version());
+    }
+}
@@ -0,0 +1,78 @@
+package domain.shared.value;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValueObjectTest {
+    @Test
+    void idsAndHashesKeepTheirTextualForm() {
+        var uuid = UUID.randomUUID().toString();
+
+        assertEquals(uuid, ID.build(uuid).value());
+        assertEquals(uuid, Hash.build(uuid).value());
+        assertEquals(ID.build(uuid), ID.build(ID.build(uuid).mostSignificantBits(), ID.build(uuid).leastSignificantBits()));
+        assertEquals(UUID.fromString(uuid), UUID.fromString(Hash.build(uuid).value()));
+    }
+
+    @Test
+    void keepsIDsAndHashesThatAreNoUUIDsAsTheirText() {
+        var malformed = "0123456z-89ab-cdef-0123-456789abcdef";
+
+        assertEquals("not-a-uuid", ID.build("not-a-uuid").value());
+        assertEquals(ID.build("not-a-uuid"), ID.build("not-a-uuid"));
+        assertNotEquals(ID.build("not-a-uuid"), ID.build("not-a-uuid-either"));
+        assertEquals(malformed, Hash.build(malformed).value());
+        assertEquals(Hash.build(malformed), Hash.build(malformed));
+        assertNotEquals(Hash.build("0123456789-abcd-ef01-2345-6789abcdef01"), Hash.build(malformed));
+    }
+
+    @Test
+    void aHashThatIsNoUUIDMatchesNothing() {
+        var malformed = Hash.build("not-a-hash");
+
+        assertFalse(malformed.matches(malformed));
+        assertFalse(malformed.matches(malformed.mostSignificantBits(), malformed.leastSignificantBits()));
+        assertFalse(Hash.generate().matches(malformed));
+    }
+
+    @Test
+    void equalValueObjectsFindTheSameMapEntry() {
+        var uuid = UUID.randomUUID().toString();
+        var map = new HashMap<Object, String>();
+        map.put(ID.build(uuid), "id");
+        map.put(Hash.build(uuid), "hash");
+        map.put(EmailAddress.build("john@doe.com"), "emailAddress");
+        map.put(PersonName.build("John", "Doe"), "name");
+
+        assertEquals("id", map.get(ID.build(uuid)));
+        assertEquals("hash", map.get(Hash.build(uuid)));
+        assertEquals("emailAddress", map.get(EmailAddress.build("john@doe.com")));
+        assertEquals("name", map.get(PersonName.build("John", "Doe")));
+        assertNull(map.get(PersonName.build("Doe", "John")));
+    }
+
+    @Test
+    void hashesMatchOnlyWhenBothHalvesAreEqual() {
+        var hash = Hash.generate();
+
+        assertTrue(hash.matches(Hash.build(hash.value())));
+        assertTrue(hash.matches(hash.mostSignificantBits(), hash.leastSignificantBits()));
+        assertFalse(hash.matches(hash.mostSignificantBits() ^ 1, hash.leastSignificantBits()));
+        assertFalse(hash.matches(hash.mostSignificantBits(), hash.leastSignificantBits() ^ Long.MIN_VALUE));
+    }
+
+    @Test
+    void parsesUpperCaseDigitsButNotNonAsciiDigits() {
+        var uuid = UUID.randomUUID().toString();
+        var fullwidth = "\uFF10" + uuid.substring(1);
+
+        assertEquals(Hash.build(uuid), Hash.build(uuid.toUpperCase()));
+        assertEquals(fullwidth, Hash.build(fullwidth).value());
+        assertFalse(Hash.build("0" + uuid.substring(1)).matches(Hash.build(fullwidth)));
+        assertEquals("\u0661" + uuid.substring(1), Hash.build("\u0661" + uuid.substring(1)).value());
+    }
+}
@@ -0,0 +1,131 @@
+package infrastructure.cache;
+
+import domain.functional.es.customer.CustomerState;
+import domain.shared.event.CustomerEmailAddressConfirmed;
+import domain.shared.event.CustomerRegistered;
+import domain.shared.event.Event;
+import domain.shared.value.EmailAddress;
+import domain.shared.value.Hash;
+import domain.shared.value.ID;
+import domain.shared.value.PersonName;
+import infrastructure.eventstore.InMemoryEventStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AggregateCacheTest {
+    private InMemoryEventStore eventStore;
+    private List<Integer> foldedEventCounts;
+
+    @BeforeEach
+    void beforeEach() {
+        eventStore = new InMemoryEventStore();
+        foldedEventCounts = new ArrayList<>();
+    }
+
+    @Test
+    void foldsOnlyTheEventsAppendedSinceTheCachedVersion() throws Exception {
+        var cache = countingCache(10);
+        var customerID = register();
+
+        assertEquals(1, (int) cache.get(customerID));
+        assertEquals(1, (int) cache.get(customerID));
+        eventStore.append(customerID, 1, List.of(CustomerEmailAddressConfirmed.build(customerID), CustomerEmailAddressConfirmed.build(customerID)));
+
+        assertEquals(3, (int) cache.get(customerID));
+        assertEquals(List.of(2), foldedEventCounts);
+        assertEquals(1, cache.missCount());
+        assertEquals(2, cache.hitCount());
+    }
+
+    @Test
+    void rejectsARarelyUsedCustomerWhenFull() throws Exception {
+        var cache = countingCache(1);
+        var frequentID = register();
+        var rareID = register();
+        for (int i = 0; i < 5; i++) {
+            cache.get(frequentID);
+        }
+
+        cache.get(rareID);
+        cache.get(frequentID);
+
+        assertEquals(1, cache.size());
+        assertEquals(2, cache.missCount());
+        assertEquals(0, cache.evictionCount());
+    }
+
+    @Test
+    void evictsWhenACustomerBecomesMoreFrequentlyUsed() throws Exception {
+        var cache = countingCache(1);
+        var formerID = register();
+        var risingID = register();
+        for (int i = 0; i < 3; i++) {
+            cache.get(formerID);
+        }
+
+        for (int i = 0; i < 20 && cache.evictionCount() == 0; i++) {
+            cache.get(risingID);
+        }
+        long missesBefore = cache.missCount();
+        cache.get(risingID);
+
+        assertEquals(1, cache.evictionCount());
+        assertEquals(missesBefore, cache.missCount());
+    }
+
+    @Test
+    void reloadsAnInvalidatedCustomer() throws Exception {
+        var cache = countingCache(10);
+        var customerID = register();
+        cache.get(customerID);
+
+        cache.invalidate(customerID);
+        cache.get(customerID);
+
+        assertEquals(2, cache.missCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void catchesUpACachedCustomerState() throws Exception {
+        var cache = AggregateCache.forCustomerState(eventStore, 10);
+        var customerID = register();
+        assertEquals(1, cache.get(customerID).version());
+
+        eventStore.append(customerID, 1, List.of(CustomerEmailAddressConfirmed.build(customerID)));
+        CustomerState state = cache.get(customerID);
+
+        assertEquals(2, state.version());
+        assertEquals(1, cache.hitCount());
+    }
+
+    private AggregateCache<Integer> countingCache(int maximumSize) {
+        return new AggregateCache<>(
+                eventStore,
+                maximumSize,
+                List::size,
+                (count, newEvents) -> {
+                    foldedEventCounts.add(newEvents.size());
+                    return count + newEvents.size();
+                }
+        );
+    }
+
+    private ID register() throws Exception {
+        var customerID = ID.generate();
+        List<Event> events = List.of(CustomerRegistered.build(
+                customerID,
+                EmailAddress.build("john@doe.com"),
+                Hash.generate(),
+                PersonName.build("John", "Doe")
+        ));
+        eventStore.append(customerID, 0, events);
+
+        return customerID;
+    }
+}
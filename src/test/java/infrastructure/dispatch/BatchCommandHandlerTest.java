@@ -0,0 +1,163 @@
+package infrastructure.dispatch;
+
+import domain.shared.command.ChangeCustomerEmailAddress;
+import domain.shared.command.ChangeCustomerName;
+import domain.shared.command.ConfirmCustomerEmailAddress;
+import domain.shared.command.RegisterCustomer;
+import domain.shared.event.CustomerEmailAddressConfirmationFailed;
+import domain.shared.event.CustomerRegistered;
+import domain.shared.event.Event;
+import domain.shared.value.EmailAddress;
+import domain.shared.value.Hash;
+import domain.shared.value.ID;
+import domain.shared.value.PersonName;
+import infrastructure.eventstore.ConcurrencyConflictException;
+import infrastructure.eventstore.EventStore;
+import infrastructure.eventstore.InMemoryEventStore;
+import infrastructure.eventstore.LogSlice;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchCommandHandlerTest {
+    private CountingEventStore eventStore;
+    private BatchCommandHandler handler;
+
+    @BeforeEach
+    void beforeEach() {
+        eventStore = new CountingEventStore();
+        handler = new BatchCommandHandler(eventStore);
+    }
+
+    @Test
+    void loadsAndAppendsOncePerCustomer() throws Exception {
+        var customerID = register();
+        var otherCustomerID = register();
+
+        var recordedEvents = handler.handle(List.of(
+                ChangeCustomerEmailAddress.build(customerID.value(), "john+changed@doe.com"),
+                ConfirmCustomerEmailAddress.build(otherCustomerID.value(), Hash.generate().value()),
+                ConfirmCustomerEmailAddress.build(customerID.value(), Hash.generate().value())
+        ));
+
+        assertEquals(List.of(customerID, otherCustomerID), List.copyOf(recordedEvents.keySet()));
+        assertEquals(List.of(customerID, otherCustomerID), eventStore.loaded);
+        assertEquals(List.of(customerID, otherCustomerID), eventStore.appended);
+    }
+
+    @Test
+    void rejectsACommandNoAggregateHandles() throws Exception {
+        var customerID = register();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> handler.handle(List.of(ChangeCustomerName.build(customerID.value(), "Jane", "Doe"))));
+        assertTrue(eventStore.appended.isEmpty());
+    }
+
+    @Test
+    void feedsTheEventsOfEarlierCommandsIntoTheStateForLaterOnes() throws Exception {
+        var customerID = register();
+        var versionsSeen = new ArrayList<Long>();
+        handler = new BatchCommandHandler(eventStore, (current, command) -> {
+            versionsSeen.add(current.version());
+
+            return List.of(CustomerEmailAddressConfirmationFailed.build(customerID));
+        });
+
+        var recordedEvents = handler.handle(List.of(
+                ConfirmCustomerEmailAddress.build(customerID.value(), Hash.generate().value()),
+                ConfirmCustomerEmailAddress.build(customerID.value(), Hash.generate().value()),
+                ConfirmCustomerEmailAddress.build(customerID.value(), Hash.generate().value())
+        ));
+
+        assertEquals(List.of(1L, 2L, 3L), versionsSeen);
+        assertEquals(3, recordedEvents.get(customerID).size());
+        assertEquals(4L, eventStore.streamVersion(customerID));
+    }
+
+    @Test
+    void appendsNothingForACustomerWhoseCommandFailsMidBatch() throws Exception {
+        var customerID = register();
+        var otherCustomerID = register();
+        var failing = ConfirmCustomerEmailAddress.build(otherCustomerID.value(), Hash.generate().value());
+        handler = new BatchCommandHandler(eventStore, (current, command) -> {
+            if (command == failing) {
+                throw new IllegalStateException("decision failed");
+            }
+
+            return List.of(CustomerEmailAddressConfirmationFailed.build(CommandDispatcher.customerID(command)));
+        });
+
+        assertThrows(IllegalStateException.class, () -> handler.handle(List.of(
+                ConfirmCustomerEmailAddress.build(customerID.value(), Hash.generate().value()),
+                ConfirmCustomerEmailAddress.build(otherCustomerID.value(), Hash.generate().value()),
+                failing,
+                ConfirmCustomerEmailAddress.build(customerID.value(), Hash.generate().value())
+        )));
+
+        assertEquals(List.of(customerID), eventStore.appended);
+        assertEquals(3L, eventStore.streamVersion(customerID));
+        assertEquals(1L, eventStore.streamVersion(otherCustomerID));
+    }
+
+    @Test
+    void registersWithoutFailingWhileCustomer7IsNotImplemented() throws Exception {
+        var register = RegisterCustomer.build("john@doe.com", "John", "Doe");
+
+        var recordedEvents = assertDoesNotThrow(() -> handler.handle(List.of(register)));
+
+        assertTrue(recordedEvents.containsKey(register.customerID));
+    }
+
+    private ID register() throws ConcurrencyConflictException {
+        var customerID = ID.generate();
+        eventStore.delegate.append(customerID, 0, List.of(CustomerRegistered.build(
+                customerID,
+                EmailAddress.build("john@doe.com"),
+                Hash.generate(),
+                PersonName.build("John", "Doe")
+        )));
+
+        return customerID;
+    }
+
+    private static final class CountingEventStore implements EventStore {
+        final InMemoryEventStore delegate = new InMemoryEventStore();
+        final List<ID> loaded = new ArrayList<>();
+        final List<ID> appended = new ArrayList<>();
+
+        @Override
+        public List<Event> load(ID customerID, long fromVersion) {
+            loaded.add(customerID);
+
+            return delegate.load(customerID, fromVersion);
+        }
+
+        @Override
+        public long streamVersion(ID customerID) {
+            return delegate.streamVersion(customerID);
+        }
+
+        @Override
+        public LogSlice readLog(long fromPosition, int maxEvents) {
+            return delegate.readLog(fromPosition, maxEvents);
+        }
+
+        @Override
+        public Set<ID> customerIDs() {
+            return delegate.customerIDs();
+        }
+
+        @Override
+        public long append(ID customerID, long expectedVersion, List<Event> events) throws ConcurrencyConflictException {
+            appended.add(customerID);
+
+            return delegate.append(customerID, expectedVersion, events);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package infrastructure.dispatch;
+
+import domain.shared.command.ChangeCustomerName;
+import domain.shared.command.ConfirmCustomerEmailAddress;
+import domain.shared.value.Hash;
+import domain.shared.value.ID;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandDispatcherTest {
+    @Test
+    void handlesTheCommandsOfOneCustomerInOrderAndOneAtATime() throws Exception {
+        var customerID = ID.generate().value();
+        var handled = Collections.synchronizedList(new ArrayList<String>());
+        var running = new AtomicInteger();
+        var overlapping = new AtomicInteger();
+
+        try (var dispatcher = new CommandDispatcher(command -> {
+            if (running.incrementAndGet() > 1) {
+                overlapping.incrementAndGet();
+            }
+            Thread.sleep(1);
+            handled.add(((ChangeCustomerName) command).name.givenName);
+            running.decrementAndGet();
+        })) {
+            var results = new ArrayList<CompletableFuture<Void>>();
+            for (int i = 0; i < 20; i++) {
+                results.add(dispatcher.dispatch(ChangeCustomerName.build(customerID, "John" + i, "Doe")));
+            }
+            CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get();
+        }
+
+        var expected = new ArrayList<String>();
+        for (int i = 0; i < 20; i++) {
+            expected.add("John" + i);
+        }
+        assertEquals(expected, handled);
+        assertEquals(0, overlapping.get());
+    }
+
+    @Test
+    void startsEachCommandWhereThePreviousOneEnded() throws Exception {
+        var customerID = ID.generate().value();
+        var starts = Collections.synchronizedList(new ArrayList<Long>());
+        var ends = Collections.synchronizedList(new ArrayList<Long>());
+        var release = new CountDownLatch(1);
+
+        try (var dispatcher = new CommandDispatcher(new CommandHandler() {
+            @Override
+            public void handle(Object command) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public long handle(Object command, long startNanos) throws Exception {
+                release.await();
+                starts.add(startNanos);
+                long end = System.nanoTime();
+                ends.add(end);
+
+                return end;
+            }
+        })) {
+            var results = new ArrayList<CompletableFuture<Void>>();
+            for (int i = 0; i < 5; i++) {
+                results.add(dispatcher.dispatch(ChangeCustomerName.build(customerID, "John" + i, "Doe")));
+            }
+            release.countDown();
+            CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get();
+        }
+
+        assertEquals(5, starts.size());
+        assertEquals(ends.subList(0, 4), starts.subList(1, 5));
+    }
+
+    @Test
+    void rejectsACommandWhenTheMailboxIsFull() throws Exception {
+        var customerID = ID.generate().value();
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+
+        try (var dispatcher = new CommandDispatcher(command -> {
+            started.countDown();
+            release.await();
+        }, 2)) {
+            var first = dispatcher.dispatch(confirm(customerID));
+            started.await();
+            var queued = List.of(dispatcher.dispatch(confirm(customerID)), dispatcher.dispatch(confirm(customerID)));
+
+            var rejected = dispatcher.dispatch(confirm(customerID));
+
+            var failure = assertThrows(ExecutionException.class, rejected::get);
+            assertTrue(failure.getCause() instanceof RejectedExecutionException);
+            release.countDown();
+            first.get();
+            for (var result : queued) {
+                result.get();
+            }
+        }
+    }
+
+    @Test
+    void removesTheMailboxOfAnIdleCustomer() throws Exception {
+        try (var dispatcher = new CommandDispatcher(command -> {
+        })) {
+            dispatcher.dispatch(confirm(ID.generate().value())).get();
+            dispatcher.dispatch(confirm(ID.generate().value())).get();
+
+            for (int i = 0; i < 100 && dispatcher.activeMailboxes() > 0; i++) {
+                Thread.sleep(10);
+            }
+
+            assertEquals(0, dispatcher.activeMailboxes());
+        }
+    }
+
+    @Test
+    void completesTheResultWithTheFailureOfTheHandler() {
+        try (var dispatcher = new CommandDispatcher(command -> {
+            throw new IllegalStateException("boom");
+        })) {
+            var result = dispatcher.dispatch(confirm(ID.generate().value()));
+
+            var failure = assertThrows(ExecutionException.class, result::get);
+            assertTrue(failure.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    private static ConfirmCustomerEmailAddress confirm(String customerID) {
+        return ConfirmCustomerEmailAddress.build(customerID, Hash.generate().value());
+    }
+}
@@ -0,0 +1,285 @@
+package infrastructure.eventstore;
+
+import domain.shared.event.*;
+import domain.shared.value.EmailAddress;
+import domain.shared.value.Hash;
+import domain.shared.value.ID;
+import domain.shared.value.PersonName;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileEventStoreTest {
+    @TempDir
+    Path directory;
+
+    private ID customerID;
+    private ID otherCustomerID;
+    private Hash confirmationHash;
+    private EmailAddress changedEmailAddress;
+    private Hash changedConfirmationHash;
+
+    @BeforeEach
+    void beforeEach() {
+        customerID = ID.generate();
+        otherCustomerID = ID.generate();
+        confirmationHash = Hash.generate();
+        changedEmailAddress = EmailAddress.build("john+changed@doe.com");
+        changedConfirmationHash = Hash.generate();
+    }
+
+    @Test
+    void loadsOnlyTheStreamOfTheRequestedCustomer() throws Exception {
+        try (var store = FileEventStore.open(directory)) {
+            store.append(customerID, 0, List.of(registered(customerID)));
+            store.append(otherCustomerID, 0, List.of(registered(otherCustomerID)));
+            store.append(customerID, 1, List.of(CustomerEmailAddressConfirmed.build(customerID)));
+            store.append(customerID, 2, List.of(CustomerEmailAddressChanged.build(customerID, changedEmailAddress, changedConfirmationHash)));
+
+            var events = store.load(customerID);
+
+            assertStreamOfCustomer(events);
+            assertEquals(1, store.load(otherCustomerID).size());
+            assertEquals(0, store.load(ID.generate()).size());
+            assertEquals(3, store.streamVersion(customerID));
+        }
+    }
+
+    @Test
+    void rebuildsTheIndexWhenReopened() throws Exception {
+        try (var store = FileEventStore.open(directory, 128)) {
+            for (int i = 0; i < 10; i++) {
+                var id = ID.generate();
+                store.append(id, 0, List.of(registered(id)));
+            }
+            store.append(customerID, 0, List.of(
+                    registered(customerID),
+                    CustomerEmailAddressConfirmed.build(customerID),
+                    CustomerEmailAddressChanged.build(customerID, changedEmailAddress, changedConfirmationHash)
+            ));
+        }
+
+        assertTrue(Files.exists(directory.resolve("segment-0000000001.log")), "the log should have been rolled");
+
+        try (var store = FileEventStore.open(directory, 128)) {
+            assertStreamOfCustomer(store.load(customerID));
+        }
+    }
+
+    @Test
+    void cursorReadsTheSameEventsAsLoadAcrossSegments() throws Exception {
+        try (var store = FileEventStore.open(directory, 128)) {
+            store.append(customerID, 0, List.of(registered(customerID)));
+            store.append(otherCustomerID, 0, List.of(registered(otherCustomerID)));
+            store.append(customerID, 1, List.of(
+                    CustomerEmailAddressConfirmed.build(customerID),
+                    CustomerEmailAddressChanged.build(customerID, changedEmailAddress, changedConfirmationHash)
+            ));
+
+            var fromCursor = new ArrayList<Event>();
+            store.cursor(customerID, 0).forEachRemaining(fromCursor::add);
+            var tail = store.cursor(customerID, 2);
+
+            assertStreamOfCustomer(fromCursor);
+            assertEquals(changedConfirmationHash, ((CustomerEmailAddressChanged) tail.next()).confirmationHash);
+            assertFalse(tail.hasNext());
+            assertFalse(store.cursor(ID.generate(), 0).hasNext());
+        }
+    }
+
+    @Test
+    void viewCursorPointsIntoTheSegments() throws Exception {
+        try (var store = FileEventStore.open(directory, 128)) {
+            store.append(customerID, 0, List.of(registered(customerID)));
+            store.append(otherCustomerID, 0, List.of(registered(otherCustomerID)));
+            store.append(customerID, 1, List.of(CustomerEmailAddressChanged.build(customerID, changedEmailAddress, changedConfirmationHash)));
+
+            var cursor = store.viewCursor(customerID, 0);
+
+            assertTrue(cursor.advance());
+            assertTrue(cursor.view().hasConfirmationHash(confirmationHash));
+            assertTrue(cursor.advance());
+            assertEquals(changedEmailAddress, cursor.view().emailAddress());
+            assertFalse(cursor.advance());
+            assertFalse(store.viewCursor(ID.generate(), 0).advance());
+        }
+    }
+
+    @Test
+    void cursorsOpenedDuringAppendsSeeAConsistentPrefix() throws Exception {
+        try (var store = FileEventStore.open(directory, 256)) {
+            store.append(customerID, 0, List.of(registered(customerID)));
+            var writer = Thread.ofPlatform().start(() -> {
+                try {
+                    for (int version = 1; version <= 2_000; version++) {
+                        store.append(customerID, version, List.of(CustomerEmailAddressConfirmed.build(customerID)));
+                    }
+                } catch (ConcurrencyConflictException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+
+            int seen = 0;
+            while (writer.isAlive()) {
+                int count = 0;
+                for (var cursor = store.cursor(customerID, 0); cursor.hasNext(); cursor.next()) {
+                    count++;
+                }
+                var view = store.viewCursor(customerID, 0);
+                while (view.advance()) {
+                    view.view();
+                }
+                assertTrue(count >= seen, "a later cursor should never see fewer events");
+                seen = count;
+            }
+            writer.join();
+
+            assertEquals(2_001, store.load(customerID).size());
+        }
+    }
+
+    @Test
+    void readsTheLogInAppendOrderAcrossSegments() throws Exception {
+        try (var store = FileEventStore.open(directory, 128)) {
+            store.append(customerID, 0, List.of(registered(customerID)));
+            store.append(otherCustomerID, 0, List.of(registered(otherCustomerID)));
+            store.append(customerID, 1, List.of(CustomerEmailAddressConfirmed.build(customerID)));
+            store.flush();
+
+            var first = store.readLog(0, 2);
+            var rest = store.readLog(first.nextPosition, 10);
+
+            assertEquals(2, first.events.size());
+            assertEquals(otherCustomerID, ((CustomerRegistered) first.events.get(1)).customerID);
+            assertEquals(1, rest.events.size());
+            assertTrue(rest.events.get(0) instanceof CustomerEmailAddressConfirmed);
+            assertEquals(0, store.readLog(rest.nextPosition, 10).events.size());
+        }
+    }
+
+    @Test
+    void readsOnlyForcedRecordsFromTheLog() throws Exception {
+        try (var store = FileEventStore.open(directory)) {
+            store.append(customerID, 0, List.of(registered(customerID)));
+            store.flush();
+            store.append(otherCustomerID, 0, List.of(registered(otherCustomerID)));
+
+            var forced = store.readLog(0, 10);
+            assertEquals(1, forced.events.size());
+            assertEquals(0, store.readLog(forced.nextPosition, 10).events.size());
+
+            store.flush();
+            assertEquals(1, store.readLog(forced.nextPosition, 10).events.size());
+        }
+    }
+
+    @Test
+    void movesPositionsBackToARecordBoundaryOfTheForcedLog() throws Exception {
+        try (var store = FileEventStore.open(directory)) {
+            store.append(customerID, 0, List.of(registered(customerID)));
+            store.append(otherCustomerID, 0, List.of(registered(otherCustomerID)));
+            store.flush();
+            long first = store.readLog(0, 1).nextPosition;
+            long end = store.readLog(first, 10).nextPosition;
+
+            assertEquals(0L, store.logBoundary(0));
+            assertEquals(first, store.logBoundary(first));
+            assertEquals(first, store.logBoundary(first + 3));
+            assertEquals(end, store.logBoundary(end + 1000));
+            assertEquals(end, store.logBoundary(Long.MAX_VALUE));
+        }
+    }
+
+    @Test
+    void truncatesAnIncompleteRecordAtTheEndOfTheLog() throws Exception {
+        try (var store = FileEventStore.open(directory)) {
+            store.append(customerID, 0, List.of(registered(customerID)));
+        }
+
+        var segment = directory.resolve("segment-0000000000.log");
+        long validSize = Files.size(segment);
+        try (var channel = FileChannel.open(segment, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 1, 0, 42, 42}));
+        }
+
+        try (var store = FileEventStore.open(directory)) {
+            assertEquals(validSize, Files.size(segment));
+            store.append(customerID, 1, List.of(CustomerEmailAddressConfirmed.build(customerID)));
+            assertEquals(2, store.load(customerID).size());
+        }
+    }
+
+    @Test
+    void cutsOffTheMappedCapacityOfSegmentsThatWereNotClosed() throws Exception {
+        try (var store = FileEventStore.open(directory, 256)) {
+            for (int i = 0; i < 4; i++) {
+                var otherCustomerID = ID.generate();
+                store.append(otherCustomerID, 0, List.of(registered(otherCustomerID)));
+            }
+            store.flush();
+            assertEquals(4, store.readLog(0, 10).events.size());
+        }
+
+        var segment = directory.resolve("segment-0000000000.log");
+        long validSize = Files.size(segment);
+        try (var channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(256 - (int) validSize), validSize);
+        }
+
+        try (var store = FileEventStore.open(directory, 256)) {
+            assertEquals(4, store.customerIDs().size());
+            store.append(customerID, 0, List.of(registered(customerID)));
+            assertEquals(1, store.load(customerID).size());
+        }
+        assertEquals(validSize, Files.size(segment));
+    }
+
+    @Test
+    void rejectsAnAppendWithAStaleExpectedVersion() throws Exception {
+        try (var store = FileEventStore.open(directory)) {
+            store.append(customerID, 0, List.of(registered(customerID)));
+
+            var conflict = assertThrows(ConcurrencyConflictException.class,
+                    () -> store.append(customerID, 0, List.of(CustomerEmailAddressConfirmed.build(customerID))));
+
+            assertEquals(1, conflict.actualVersion);
+            assertEquals(1, store.load(customerID).size());
+        }
+    }
+
+    private CustomerRegistered registered(ID id) {
+        return CustomerRegistered.build(
+                id,
+                EmailAddress.build("john@doe.com"),
+                id == customerID ? confirmationHash : Hash.generate(),
+                PersonName.build("John", "Doe")
+        );
+    }
+
+    private void assertStreamOfCustomer(List<Event> events) {
+        assertEquals(3, events.size());
+
+        var registered = (CustomerRegistered) events.get(0);
+        assertEquals(customerID, registered.customerID);
+        assertEquals(EmailAddress.build("john@doe.com"), registered.emailAddress);
+        assertEquals(confirmationHash, registered.confirmationHash);
+        assertEquals(PersonName.build("John", "Doe"), registered.name);
+
+        assertEquals(customerID, ((CustomerEmailAddressConfirmed) events.get(1)).customerID);
+
+        var changed = (CustomerEmailAddressChanged) events.get(2);
+        assertEquals(customerID, changed.customerID);
+        assertEquals(changedEmailAddress, changed.emailAddress);
+        assertEquals(changedConfirmationHash, changed.confirmationHash);
+    }
+}
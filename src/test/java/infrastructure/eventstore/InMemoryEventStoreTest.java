@@ -0,0 +1,165 @@
+package infrastructure.eventstore;
+
+import domain.shared.event.CustomerEmailAddressConfirmationFailed;
+import domain.shared.event.CustomerEmailAddressConfirmed;
+import domain.shared.event.CustomerRegistered;
+import domain.shared.value.EmailAddress;
+import domain.shared.value.Hash;
+import domain.shared.value.ID;
+import domain.shared.value.PersonName;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryEventStoreTest {
+    private InMemoryEventStore store;
+    private ID customerID;
+    private CustomerRegistered customerRegistered;
+
+    @BeforeEach
+    void beforeEach() {
+        store = new InMemoryEventStore();
+        customerID = ID.generate();
+        customerRegistered = CustomerRegistered.build(
+                customerID,
+                EmailAddress.build("john@doe.com"),
+                Hash.generate(),
+                PersonName.build("John", "Doe")
+        );
+    }
+
+    @Test
+    void appendsWithTheExpectedVersion() throws Exception {
+        assertEquals(1, store.append(customerID, 0, List.of(customerRegistered)));
+        assertEquals(2, store.append(customerID, 1, List.of(CustomerEmailAddressConfirmed.build(customerID))));
+
+        var events = store.load(customerID);
+
+        assertEquals(2, events.size());
+        assertSame(customerRegistered, events.get(0));
+        assertEquals(2, store.streamVersion(customerID));
+        assertEquals(0, store.load(ID.generate()).size());
+    }
+
+    @Test
+    void rejectsStaleAppends() throws Exception {
+        store.append(customerID, 0, List.of(customerRegistered));
+
+        var conflict = assertThrows(ConcurrencyConflictException.class,
+                () -> store.append(customerID, 0, List.of(CustomerEmailAddressConfirmed.build(customerID))));
+        assertEquals(0, conflict.expectedVersion);
+        assertEquals(1, conflict.actualVersion);
+
+        assertThrows(ConcurrencyConflictException.class,
+                () -> store.append(ID.generate(), 3, List.of(customerRegistered)));
+    }
+
+    @Test
+    void rejectsEventsOfAnotherCustomer() throws Exception {
+        var otherCustomerID = ID.generate();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> store.append(otherCustomerID, 0, List.of(customerRegistered)));
+        assertEquals(0, store.streamVersion(otherCustomerID));
+        assertEquals(0, store.streamVersion(customerID));
+    }
+
+    @Test
+    void acceptsOnlyOneOfConcurrentAppendsBuiltFromTheSameVersion() throws Exception {
+        store.append(customerID, 0, List.of(customerRegistered));
+
+        int writers = 8;
+        var executor = Executors.newFixedThreadPool(writers);
+        var start = new CountDownLatch(1);
+        var accepted = new AtomicInteger();
+        var rejected = new AtomicInteger();
+
+        for (int i = 0; i < writers; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    store.append(customerID, 1, List.of(CustomerEmailAddressConfirmationFailed.build(customerID)));
+                    accepted.incrementAndGet();
+                } catch (ConcurrencyConflictException e) {
+                    rejected.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(1, accepted.get());
+        assertEquals(writers - 1, rejected.get());
+        assertEquals(2, store.load(customerID).size());
+    }
+
+    @Test
+    void keepsNoLogUnlessCreatedWithOne() throws Exception {
+        store.append(customerID, 0, List.of(customerRegistered));
+
+        assertThrows(IllegalStateException.class, () -> store.readLog(0, 10));
+    }
+
+    @Test
+    void dropsTheLogOnceEveryReaderAcknowledgedIt() throws Exception {
+        store = InMemoryEventStore.withLog("mail", "search");
+        for (int i = 0; i < 3000; i++) {
+            var id = ID.generate();
+            store.append(id, 0, List.of(CustomerEmailAddressConfirmed.build(id)));
+        }
+
+        store.acknowledgeLog("mail", 2500);
+        assertEquals(10, store.readLog(0, 10).events.size());
+
+        store.acknowledgeLog("search", 2100);
+        store.acknowledgeLog("unknown", 3000);
+        assertThrows(IllegalStateException.class, () -> store.readLog(0, 10));
+
+        var rest = store.readLog(2100, 1000);
+        assertEquals(900, rest.events.size());
+        assertEquals(3000L, rest.nextPosition);
+    }
+
+    @Test
+    void readsTheLogOfConcurrentAppendsWithoutGaps() throws Exception {
+        store = InMemoryEventStore.withLog();
+        int writers = 8;
+        int appends = 500;
+        var executor = Executors.newFixedThreadPool(writers);
+        for (int i = 0; i < writers; i++) {
+            executor.execute(() -> {
+                var id = ID.generate();
+                try {
+                    for (int version = 0; version < appends; version++) {
+                        store.append(id, version, List.of(CustomerEmailAddressConfirmed.build(id)));
+                    }
+                } catch (ConcurrencyConflictException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+
+        long position = 0;
+        int read = 0;
+        while (read < writers * appends) {
+            var slice = store.readLog(position, 100);
+            read += slice.events.size();
+            position = slice.nextPosition;
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals((long) writers * appends, position);
+        assertEquals(0, store.readLog(position, 100).events.size());
+    }
+}
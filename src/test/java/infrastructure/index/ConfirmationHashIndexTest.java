@@ -0,0 +1,89 @@
+package infrastructure.index;
+
+import domain.shared.event.CustomerEmailAddressChanged;
+import domain.shared.event.CustomerEmailAddressConfirmed;
+import domain.shared.event.CustomerRegistered;
+import domain.shared.value.EmailAddress;
+import domain.shared.value.Hash;
+import domain.shared.value.ID;
+import domain.shared.value.PersonName;
+import infrastructure.eventstore.InMemoryEventStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfirmationHashIndexTest {
+    private ConfirmationHashIndex index;
+    private ID customerID;
+    private Hash confirmationHash;
+    private Hash changedConfirmationHash;
+
+    @BeforeEach
+    void beforeEach() {
+        index = new ConfirmationHashIndex();
+        customerID = ID.generate();
+        confirmationHash = Hash.generate();
+        changedConfirmationHash = Hash.generate();
+    }
+
+    @Test
+    void findsTheCustomerOfAPendingHash() {
+        index.apply(registered());
+
+        assertEquals(Optional.of(customerID), index.customerOf(confirmationHash));
+        assertEquals(Optional.empty(), index.customerOf(Hash.generate()));
+    }
+
+    @Test
+    void findsNoCustomerForTheAllZeroHash() {
+        index.apply(registered());
+
+        assertEquals(Optional.empty(), index.customerOf(Hash.build("00000000-0000-0000-0000-000000000000")));
+        assertEquals(Optional.empty(), index.customerOf(Hash.build(0, 0)));
+    }
+
+    @Test
+    void forgetsTheHashOnceTheAddressIsConfirmed() {
+        index.apply(registered());
+
+        index.apply(CustomerEmailAddressConfirmed.build(customerID));
+
+        assertEquals(Optional.empty(), index.customerOf(confirmationHash));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void replacesTheHashWhenTheAddressChangesAgain() {
+        index.apply(registered());
+
+        index.apply(CustomerEmailAddressChanged.build(customerID, EmailAddress.build("john+changed@doe.com"), changedConfirmationHash));
+
+        assertEquals(Optional.empty(), index.customerOf(confirmationHash));
+        assertEquals(Optional.of(customerID), index.customerOf(changedConfirmationHash));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void rebuildsThePendingHashesFromTheEventStore() throws Exception {
+        var eventStore = new InMemoryEventStore();
+        var confirmedCustomerID = ID.generate();
+        eventStore.append(customerID, 0, List.of(registered()));
+        eventStore.append(confirmedCustomerID, 0, List.of(
+                CustomerRegistered.build(confirmedCustomerID, EmailAddress.build("jane@doe.com"), changedConfirmationHash, PersonName.build("Jane", "Doe")),
+                CustomerEmailAddressConfirmed.build(confirmedCustomerID)
+        ));
+
+        var rebuilt = ConfirmationHashIndex.rebuild(eventStore);
+
+        assertEquals(Optional.of(customerID), rebuilt.customerOf(confirmationHash));
+        assertEquals(Optional.empty(), rebuilt.customerOf(changedConfirmationHash));
+    }
+
+    private CustomerRegistered registered() {
+        return CustomerRegistered.build(customerID, EmailAddress.build("john@doe.com"), confirmationHash, PersonName.build("John", "Doe"));
+    }
+}
@@ -0,0 +1,113 @@
+package infrastructure.index;
+
+import domain.shared.event.CustomerEmailAddressChanged;
+import domain.shared.event.CustomerRegistered;
+import domain.shared.value.EmailAddress;
+import domain.shared.value.Hash;
+import domain.shared.value.ID;
+import domain.shared.value.PersonName;
+import infrastructure.eventstore.InMemoryEventStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailAddressIndexTest {
+    private EmailAddressIndex index;
+    private ID customerID;
+    private ID otherCustomerID;
+    private EmailAddress emailAddress;
+    private EmailAddress changedEmailAddress;
+
+    @BeforeEach
+    void beforeEach() {
+        index = new EmailAddressIndex();
+        customerID = ID.generate();
+        otherCustomerID = ID.generate();
+        emailAddress = EmailAddress.build("john@doe.com");
+        changedEmailAddress = EmailAddress.build("john+changed@doe.com");
+    }
+
+    @Test
+    void reservesAnAddressForOneCustomerOnly() {
+        assertTrue(index.reserve(emailAddress, customerID));
+        assertTrue(index.reserve(emailAddress, customerID));
+
+        assertFalse(index.reserve(EmailAddress.build("John@Doe.com"), otherCustomerID));
+        assertEquals(Optional.of(customerID), index.owner(emailAddress));
+    }
+
+    @Test
+    void releasesAReservationThatWasNotFollowedByAnEvent() {
+        index.reserve(emailAddress, customerID);
+
+        index.release(emailAddress, otherCustomerID);
+        assertFalse(index.isAvailableFor(emailAddress, otherCustomerID));
+
+        index.release(emailAddress, customerID);
+        assertTrue(index.isAvailableFor(emailAddress, otherCustomerID));
+    }
+
+    @Test
+    void keepsTheCurrentAddressOfACustomerWhenReleased() {
+        index.apply(registered(customerID, emailAddress));
+
+        index.release(emailAddress, customerID);
+
+        assertEquals(Optional.of(customerID), index.owner(emailAddress));
+    }
+
+    @Test
+    void movesOwnershipWhenTheAddressChanges() {
+        index.apply(registered(customerID, emailAddress));
+
+        index.apply(CustomerEmailAddressChanged.build(customerID, changedEmailAddress, Hash.generate()));
+
+        assertEquals(Optional.empty(), index.owner(emailAddress));
+        assertEquals(Optional.of(customerID), index.owner(changedEmailAddress));
+        assertTrue(index.reserve(emailAddress, otherCustomerID));
+    }
+
+    @Test
+    void rebuildsTheCurrentAddressesFromTheEventStore() throws Exception {
+        var eventStore = new InMemoryEventStore();
+        eventStore.append(customerID, 0, List.of(
+                registered(customerID, emailAddress),
+                CustomerEmailAddressChanged.build(customerID, changedEmailAddress, Hash.generate())
+        ));
+        eventStore.append(otherCustomerID, 0, List.of(registered(otherCustomerID, emailAddress)));
+
+        var rebuilt = EmailAddressIndex.rebuild(eventStore);
+
+        assertEquals(Optional.of(customerID), rebuilt.owner(changedEmailAddress));
+        assertEquals(Optional.of(otherCustomerID), rebuilt.owner(emailAddress));
+        assertEquals(2, rebuilt.size());
+    }
+
+    @Test
+    void keepsManyCustomersAndFreesTheAddressesTheyMovedFrom() {
+        var customerIDs = new ID[10_000];
+        for (int i = 0; i < customerIDs.length; i++) {
+            customerIDs[i] = ID.generate();
+            index.apply(registered(customerIDs[i], EmailAddress.build("customer" + i + "@doe.com")));
+        }
+        for (int i = 0; i < customerIDs.length; i += 2) {
+            index.apply(CustomerEmailAddressChanged.build(customerIDs[i], EmailAddress.build(" Changed" + i + "@Doe.com"), Hash.generate()));
+        }
+
+        assertEquals(customerIDs.length, index.size());
+        for (int i = 0; i < customerIDs.length; i++) {
+            var current = EmailAddress.build((i % 2 == 0 ? "changed" : "customer") + i + "@doe.com");
+            assertEquals(Optional.of(customerIDs[i]), index.owner(current));
+            assertEquals(i % 2 != 0, index.owner(EmailAddress.build("customer" + i + "@doe.com")).isPresent());
+        }
+        assertThrows(IllegalArgumentException.class, () -> index.reserve(emailAddress, ID.build("not-a-uuid")));
+    }
+
+    private static CustomerRegistered registered(ID customerID, EmailAddress emailAddress) {
+        return CustomerRegistered.build(customerID, emailAddress, Hash.generate(), PersonName.build("John", "Doe"));
+    }
+}
@@ -0,0 +1,67 @@
+package infrastructure.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongPairMapTest {
+    @Test
+    void behavesLikeAHashMapUnderRandomPutsAndRemoves() {
+        var random = new Random(42);
+        var map = new LongPairMap(4);
+        var reference = new HashMap<List<Long>, List<Long>>();
+        var keys = new ArrayList<List<Long>>();
+        for (int i = 0; i < 500; i++) {
+            // few distinct high bits provoke long probe sequences
+            keys.add(List.of((long) random.nextInt(8) + 1, random.nextLong()));
+        }
+
+        for (int i = 0; i < 20_000; i++) {
+            var key = keys.get(random.nextInt(keys.size()));
+            if (random.nextInt(3) == 0) {
+                assertEquals(reference.remove(key) != null, map.remove(key.get(0), key.get(1)));
+            } else {
+                long value = random.nextLong();
+                reference.put(key, List.of(value, ~value));
+                map.put(key.get(0), key.get(1), value, ~value);
+            }
+        }
+
+        assertEquals(reference.size(), map.size());
+        var value = new long[2];
+        for (var key : keys) {
+            var expected = reference.get(key);
+            assertEquals(expected != null, map.get(key.get(0), key.get(1), value));
+            if (expected != null) {
+                assertEquals((long) expected.get(0), value[0]);
+                assertEquals((long) expected.get(1), value[1]);
+            }
+        }
+    }
+
+    @Test
+    void keepsTheAllZeroKeyApartFromFreeSlots() {
+        var map = new LongPairMap(4);
+        var value = new long[2];
+        map.put(1, 2, 3, 4);
+
+        assertFalse(map.get(0, 0, value));
+        assertFalse(map.remove(0, 0));
+
+        map.put(0, 0, 5, 6);
+        assertTrue(map.get(0, 0, value));
+        assertEquals(5L, value[0]);
+        assertEquals(6L, value[1]);
+        assertEquals(2, map.size());
+
+        assertTrue(map.remove(0, 0));
+        assertFalse(map.get(0, 0, value));
+        assertTrue(map.get(1, 2, value));
+        assertEquals(1, map.size());
+    }
+}
@@ -0,0 +1,44 @@
+package infrastructure.metrics;
+
+import infrastructure.metrics.CustomerMetrics.Command;
+import org.junit.jupiter.api.Test;
+
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerMetricsTest {
+    @Test
+    void recordsLatencyReplayDepthAndEmittedEvents() {
+        var metrics = new CustomerMetrics();
+
+        metrics.recordCommand(Command.REGISTER, 2_000, 0, 1);
+        metrics.recordCommand(Command.CONFIRM_EMAIL_ADDRESS, 5_000, 7, 1);
+        metrics.recordCommand(Command.CONFIRM_EMAIL_ADDRESS, 6_000, 9, 0);
+
+        assertEquals(1, metrics.getRegisterLatency().getCount());
+        assertEquals(2, metrics.getConfirmEmailAddressLatency().getCount());
+        assertEquals(0, metrics.getChangeEmailAddressLatency().getCount());
+        assertEquals(2, metrics.getEventsAppliedPerReconstitution().getCount());
+        assertEquals(9, metrics.getEventsAppliedPerReconstitution().getMax());
+        assertEquals(2, metrics.getEventsEmitted());
+    }
+
+    @Test
+    void isReadableThroughJmx() throws Exception {
+        var metrics = new CustomerMetrics();
+        metrics.recordCommand(Command.CHANGE_EMAIL_ADDRESS, 3_000, 4, 1);
+
+        var name = metrics.registerMBean("CustomerMetricsTest");
+        try {
+            var server = ManagementFactory.getPlatformMBeanServer();
+            var latency = (CompositeData) server.getAttribute(name, "ChangeEmailAddressLatency");
+
+            assertEquals(1L, latency.get("count"));
+            assertEquals(1L, server.getAttribute(name, "EventsEmitted"));
+        } finally {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        }
+    }
+}
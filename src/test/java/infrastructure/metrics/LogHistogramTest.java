@@ -0,0 +1,46 @@
+package infrastructure.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogHistogramTest {
+    @Test
+    void bucketsKeepValuesWithinOneSixteenth() {
+        for (long value : new long[]{0, 1, 15, 16, 17, 31, 32, 1_000, 123_456_789, Long.MAX_VALUE}) {
+            int bucket = LogHistogram.bucket(value);
+            long highest = LogHistogram.highestValueIn(bucket);
+
+            assertTrue(bucket >= 0 && bucket < LogHistogram.BUCKETS, "bucket of " + value);
+            assertTrue(highest >= value, "highest value in the bucket of " + value);
+            assertTrue(LogHistogram.lowestValueIn(bucket) <= value, "lowest value in the bucket of " + value);
+            assertTrue(highest - value <= value / 16, "precision at " + value);
+        }
+    }
+
+    @Test
+    void reportsPercentilesOfTheRecordedValues() {
+        var histogram = new LogHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        var snapshot = histogram.snapshot();
+
+        assertEquals(1000, snapshot.count());
+        assertEquals(500_500.0, snapshot.mean(), 500_500 / 16.0);
+        assertEquals(500_000, snapshot.percentile(50), 500_000 / 16.0);
+        assertEquals(990_000, snapshot.percentile(99), 990_000 / 16.0);
+        assertEquals(1_000_000, snapshot.max(), 1_000_000 / 16.0);
+        assertTrue(snapshot.max() >= 1_000_000);
+    }
+
+    @Test
+    void anEmptyHistogramReportsZeros() {
+        var snapshot = new LogHistogram().snapshot();
+
+        assertEquals(0, snapshot.count());
+        assertEquals(0, snapshot.percentile(99));
+        assertEquals(0, snapshot.max());
+    }
+}
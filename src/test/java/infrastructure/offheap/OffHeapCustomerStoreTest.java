@@ -0,0 +1,184 @@
+package infrastructure.offheap;
+
+import domain.functional.es.customer.CustomerStateSnapshot;
+import domain.shared.event.*;
+import domain.shared.value.EmailAddress;
+import domain.shared.value.Hash;
+import domain.shared.value.ID;
+import domain.shared.value.PersonName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapCustomerStoreTest {
+    @Test
+    void encodesAStateAndMaterializesItAgain() {
+        var customerID = ID.generate();
+        var confirmationHash = Hash.generate();
+        var snapshot = CustomerStateSnapshot.build(3, EmailAddress.build("j\u00f6rg@doe.com"), confirmationHash, PersonName.build("J\u00f6rg", "Doe"), true);
+
+        try (var store = new OffHeapCustomerStore()) {
+            store.restore(customerID, snapshot);
+
+            assertTrue(store.contains(customerID));
+            assertEquals(3L, store.version(customerID));
+            assertTrue(store.isEmailAddressConfirmed(customerID));
+            assertTrue(store.hasConfirmationHash(customerID, confirmationHash));
+            assertFalse(store.hasConfirmationHash(customerID, Hash.generate()));
+            assertEquals(EmailAddress.build("j\u00f6rg@doe.com"), store.emailAddress(customerID).orElseThrow());
+            assertEquals(PersonName.build("J\u00f6rg", "Doe"), store.name(customerID).orElseThrow());
+            assertArrayEquals(snapshot.toBytes(), store.state(customerID).orElseThrow().snapshot().toBytes());
+            assertEquals(1, store.size());
+
+            var unknown = ID.generate();
+            assertFalse(store.contains(unknown));
+            assertEquals(0L, store.version(unknown));
+            assertTrue(store.state(unknown).isEmpty());
+        }
+    }
+
+    @Test
+    void keepsUnknownFieldsUnknown() {
+        var customerID = ID.generate();
+        var snapshot = CustomerStateSnapshot.build(2, null, null, null, false);
+
+        try (var store = new OffHeapCustomerStore()) {
+            store.restore(customerID, snapshot);
+
+            assertEquals(2L, store.version(customerID));
+            assertTrue(store.emailAddress(customerID).isEmpty());
+            assertTrue(store.name(customerID).isEmpty());
+            assertFalse(store.hasConfirmationHash(customerID, Hash.build(0, 0)));
+            assertArrayEquals(snapshot.toBytes(), store.state(customerID).orElseThrow().snapshot().toBytes());
+        }
+    }
+
+    @Test
+    void writesTheFieldsOfTheEventsIntoTheRecord() {
+        var customerID = ID.generate();
+        var registered = CustomerRegistered.build(customerID, EmailAddress.build("john@doe.com"), Hash.generate(), PersonName.build("John", "Doe"));
+        var changedHash = Hash.generate();
+
+        try (var store = new OffHeapCustomerStore()) {
+            store.apply(registered);
+            store.apply(customerID, List.of(CustomerEmailAddressConfirmed.build(customerID)));
+            assertTrue(store.isEmailAddressConfirmed(customerID));
+            assertEquals(0L, store.garbageBytes());
+
+            store.apply(customerID, List.of(
+                    CustomerEmailAddressConfirmationFailed.build(customerID),
+                    CustomerEmailAddressChanged.build(customerID, EmailAddress.build("john+changed@doe.com"), changedHash),
+                    CustomerNameChanged.build(customerID, PersonName.build("Johnny", "Doe"))
+            ));
+
+            assertEquals(5L, store.version(customerID));
+            assertFalse(store.isEmailAddressConfirmed(customerID));
+            assertTrue(store.hasConfirmationHash(customerID, changedHash));
+            assertFalse(store.hasConfirmationHash(customerID, registered.confirmationHash));
+            assertEquals(EmailAddress.build("john+changed@doe.com"), store.emailAddress(customerID).orElseThrow());
+            assertEquals(PersonName.build("Johnny", "Doe"), store.name(customerID).orElseThrow());
+
+            var unknown = ID.generate();
+            assertThrows(IllegalStateException.class, () -> store.apply(CustomerEmailAddressConfirmed.build(unknown)));
+            assertThrows(IllegalArgumentException.class, () -> store.apply(customerID, List.of(CustomerEmailAddressConfirmed.build(unknown))));
+            assertEquals(5L, store.version(customerID));
+        }
+    }
+
+    @Test
+    void ignoresAnEmptyBatch() {
+        var customerID = ID.generate();
+
+        try (var store = new OffHeapCustomerStore()) {
+            store.apply(customerID, List.of());
+
+            assertFalse(store.contains(customerID));
+            assertEquals(0, store.size());
+        }
+    }
+
+    @Test
+    void appliesEventsOfManyCustomersInParallel() throws Exception {
+        var customerIDs = new ArrayList<ID>();
+        var name = PersonName.build("John", "Doe");
+
+        try (var store = new OffHeapCustomerStore(256 * 1024, 16)) {
+            for (int i = 0; i < 200; i++) {
+                var customerID = ID.generate();
+                customerIDs.add(customerID);
+                store.apply(CustomerRegistered.build(customerID, EmailAddress.build("customer" + i + "@doe.com"), Hash.generate(), name));
+            }
+
+            try (var executor = Executors.newFixedThreadPool(4)) {
+                for (int i = 0; i < 200; i++) {
+                    var customerID = customerIDs.get(i);
+                    var emailAddress = EmailAddress.build("changed" + i + "@doe.com");
+                    executor.submit(() -> {
+                        store.apply(CustomerEmailAddressConfirmed.build(customerID));
+                        store.apply(CustomerEmailAddressChanged.build(customerID, emailAddress, Hash.generate()));
+                        store.apply(CustomerEmailAddressConfirmed.build(customerID));
+                    });
+                }
+            }
+
+            for (int i = 0; i < 200; i++) {
+                assertEquals(4L, store.version(customerIDs.get(i)));
+                assertTrue(store.isEmailAddressConfirmed(customerIDs.get(i)));
+                assertEquals("changed" + i + "@doe.com", store.emailAddress(customerIDs.get(i)).orElseThrow().value);
+            }
+        }
+    }
+
+    @Test
+    void updatesInPlaceUnlessAStringChanged() {
+        var customerID = ID.generate();
+        var name = PersonName.build("John", "Doe");
+
+        try (var store = new OffHeapCustomerStore()) {
+            store.restore(customerID, CustomerStateSnapshot.build(1, EmailAddress.build("john@doe.com"), Hash.generate(), name, false));
+            store.restore(customerID, CustomerStateSnapshot.build(2, EmailAddress.build("john@doe.com"), Hash.generate(), name, true));
+            assertEquals(0L, store.garbageBytes());
+            assertTrue(store.isEmailAddressConfirmed(customerID));
+
+            store.restore(customerID, CustomerStateSnapshot.build(3, EmailAddress.build("jane@doe.com"), Hash.generate(), name, false));
+            assertTrue(store.garbageBytes() > 0);
+            assertEquals("jane@doe.com", store.emailAddress(customerID).orElseThrow().value);
+            assertEquals(1, store.size());
+        }
+    }
+
+    @Test
+    void spansChunksAndCompactsSupersededRecords() {
+        var customerIDs = new ArrayList<ID>();
+        var name = PersonName.build("John", "Doe");
+
+        try (var store = new OffHeapCustomerStore(256 * 1024, 16)) {
+            for (int i = 0; i < 5000; i++) {
+                var customerID = ID.generate();
+                customerIDs.add(customerID);
+                store.restore(customerID, CustomerStateSnapshot.build(1, EmailAddress.build("customer" + i + "@doe.com"), Hash.generate(), name, false));
+            }
+            for (int i = 0; i < 5000; i += 2) {
+                store.restore(customerIDs.get(i), CustomerStateSnapshot.build(2, EmailAddress.build("changed" + i + "@doe.com"), Hash.generate(), name, false));
+            }
+            long offHeapBytes = store.offHeapBytes();
+            assertTrue(store.garbageBytes() > 0);
+
+            store.compact();
+
+            assertEquals(0L, store.garbageBytes());
+            assertTrue(store.offHeapBytes() < offHeapBytes);
+            assertEquals(5000, store.size());
+            for (int i = 0; i < 5000; i++) {
+                var expected = (i % 2 == 0 ? "changed" : "customer") + i + "@doe.com";
+                assertEquals(expected, store.emailAddress(customerIDs.get(i)).orElseThrow().value);
+                assertEquals(i % 2 == 0 ? 2L : 1L, store.version(customerIDs.get(i)));
+                assertEquals("Doe", store.name(customerIDs.get(i)).orElseThrow().familyName);
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package infrastructure.outbox;
+
+import domain.shared.event.CustomerEmailAddressConfirmed;
+import domain.shared.event.Event;
+import domain.shared.value.ID;
+import infrastructure.eventstore.FileEventStore;
+import infrastructure.eventstore.InMemoryEventStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboxRelayTest {
+    @TempDir
+    Path directory;
+
+    private InMemoryEventStore eventStore;
+    private List<Event> appended;
+
+    @BeforeEach
+    void beforeEach() throws Exception {
+        eventStore = InMemoryEventStore.withLog("mail");
+        appended = new ArrayList<>();
+        var customerID = ID.generate();
+        var otherCustomerID = ID.generate();
+        append(customerID, 0, 2);
+        append(otherCustomerID, 0, 1);
+        append(customerID, 2, 2);
+    }
+
+    @Test
+    void deliversTheLogInBatchesInAppendOrder() throws Exception {
+        var batches = new ArrayList<List<Event>>();
+        var relay = new OutboxRelay("mail", eventStore, batches::add, new InMemoryCheckpointStore(), 2);
+
+        while (relay.relayBatch() > 0) {
+        }
+
+        assertEquals(List.of(2, 2, 1), batches.stream().map(List::size).toList());
+        assertEquals(appended, batches.stream().flatMap(List::stream).toList());
+        assertEquals(5, relay.publishedCount());
+    }
+
+    @Test
+    void resumesFromTheCheckpoint() throws Exception {
+        var checkpoints = new FileCheckpointStore(directory);
+        var delivered = new ArrayList<Event>();
+        new OutboxRelay("mail", eventStore, delivered::addAll, checkpoints, 3).relayBatch();
+
+        var resumed = new OutboxRelay("mail", eventStore, delivered::addAll, new FileCheckpointStore(directory), 3);
+        resumed.relayBatch();
+
+        assertEquals(appended, delivered);
+        assertEquals(0, new FileCheckpointStore(directory).load("other"));
+    }
+
+    @Test
+    void clampsACheckpointBeyondTheLogOfAFileEventStore() throws Exception {
+        try (var fileStore = FileEventStore.open(directory.resolve("log"))) {
+            var customerID = ID.generate();
+            fileStore.append(customerID, 0, List.of(CustomerEmailAddressConfirmed.build(customerID)));
+            fileStore.flush();
+            long end = fileStore.readLog(0, 10).nextPosition;
+            new FileCheckpointStore(directory).save("mail", end + 5);
+
+            var checkpoints = new FileCheckpointStore(directory, fileStore);
+
+            assertEquals(end, checkpoints.load("mail"));
+            assertEquals(end + 5, new FileCheckpointStore(directory).load("mail"));
+        }
+    }
+
+    @Test
+    void doesNotAdvanceWhenTheSinkFails() throws Exception {
+        var checkpoints = new InMemoryCheckpointStore();
+        var relay = new OutboxRelay("mail", eventStore, events -> {
+            throw new IllegalStateException("mail server down");
+        }, checkpoints, 10);
+
+        assertThrows(IllegalStateException.class, relay::relayBatch);
+
+        assertEquals(0, relay.position());
+        assertEquals(0, checkpoints.load("mail"));
+    }
+
+    @Test
+    void relaysInTheBackground() throws Exception {
+        var delivered = Collections.synchronizedList(new ArrayList<Event>());
+
+        try (var relay = new OutboxRelay("mail", eventStore, delivered::addAll, new InMemoryCheckpointStore(), 2)) {
+            relay.start(Duration.ofMillis(5));
+            var customerID = ID.generate();
+            append(customerID, 0, 1);
+
+            for (int i = 0; i < 200 && delivered.size() < appended.size(); i++) {
+                Thread.sleep(10);
+            }
+        }
+
+        assertEquals(appended, delivered);
+    }
+
+    private void append(ID customerID, long expectedVersion, int count) throws Exception {
+        var events = new ArrayList<Event>();
+        for (int i = 0; i < count; i++) {
+            events.add(CustomerEmailAddressConfirmed.build(customerID));
+        }
+        eventStore.append(customerID, expectedVersion, events);
+        appended.addAll(events);
+    }
+}
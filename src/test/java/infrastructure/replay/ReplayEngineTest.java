@@ -0,0 +1,118 @@
+package infrastructure.replay;
+
+import domain.shared.event.CustomerEmailAddressConfirmed;
+import domain.shared.event.CustomerRegistered;
+import domain.shared.event.Event;
+import domain.shared.value.EmailAddress;
+import domain.shared.value.Hash;
+import domain.shared.value.ID;
+import domain.shared.value.PersonName;
+import infrastructure.eventstore.FileEventStore;
+import infrastructure.eventstore.InMemoryEventStore;
+import infrastructure.serialization.EventCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayEngineTest {
+    @TempDir
+    Path directory;
+
+    private InMemoryEventStore eventStore;
+    private List<ID> customerIDs;
+
+    @BeforeEach
+    void beforeEach() throws Exception {
+        eventStore = InMemoryEventStore.withLog();
+        customerIDs = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            var customerID = ID.generate();
+            customerIDs.add(customerID);
+            eventStore.append(customerID, 0, List.of(CustomerRegistered.build(
+                    customerID,
+                    EmailAddress.build("john" + i + "@doe.com"),
+                    Hash.generate(),
+                    PersonName.build("John", "Doe")
+            )));
+        }
+        for (int round = 1; round <= 3; round++) {
+            for (ID customerID : customerIDs) {
+                eventStore.append(customerID, round, List.of(CustomerEmailAddressConfirmed.build(customerID)));
+            }
+        }
+    }
+
+    @Test
+    void keepsTheOrderOfEveryStream() throws Exception {
+        var seen = new ConcurrentHashMap<ID, List<Event>>();
+        Projection recording = (customerID, events) -> seen.computeIfAbsent(customerID, id -> new ArrayList<>()).addAll(events);
+
+        var progress = new ReplayEngine(eventStore, 4, 7).replay(List.of(recording));
+
+        assertEquals(200, progress.events);
+        for (ID customerID : customerIDs) {
+            assertEquals(encoded(eventStore.load(customerID)), encoded(seen.get(customerID)));
+        }
+    }
+
+    @Test
+    void decodesTheRecordsOfAFileEventStore() throws Exception {
+        try (var fileStore = FileEventStore.open(directory, 1024)) {
+            for (ID customerID : customerIDs) {
+                fileStore.append(customerID, 0, eventStore.load(customerID));
+            }
+            fileStore.flush();
+            var states = new CustomerStateProjection();
+
+            var progress = new ReplayEngine(fileStore, 3, 16).replay(List.of(states));
+
+            assertEquals(200, progress.events);
+            for (ID customerID : customerIDs) {
+                assertEquals(4, states.state(customerID).orElseThrow().version());
+            }
+        }
+    }
+
+    @Test
+    void foldsEveryCustomerIntoItsState() throws Exception {
+        var states = new CustomerStateProjection();
+
+        new ReplayEngine(eventStore, 3, 16).replay(List.of(states));
+
+        assertEquals(50, states.size());
+        for (ID customerID : customerIDs) {
+            assertEquals(4, states.state(customerID).orElseThrow().version());
+        }
+    }
+
+    @Test
+    void reportsTheFailureOfAProjection() {
+        var engine = new ReplayEngine(eventStore, 2, 10);
+
+        var failure = assertThrows(IllegalStateException.class, () -> engine.replay(List.of((customerID, events) -> {
+            throw new UnsupportedOperationException("broken projection");
+        })));
+
+        assertTrue(failure.getCause() instanceof UnsupportedOperationException);
+    }
+
+    private static List<String> encoded(List<Event> events) {
+        var encoded = new ArrayList<String>();
+        for (Event event : events) {
+            var buffer = ByteBuffer.allocate(256);
+            EventCodec.encode(event, buffer);
+            encoded.add(Arrays.toString(Arrays.copyOf(buffer.array(), buffer.position())));
+        }
+
+        return encoded;
+    }
+}
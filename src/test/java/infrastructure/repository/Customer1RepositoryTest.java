@@ -0,0 +1,181 @@
+package infrastructure.repository;
+
+import domain.oop.traditional.customer.Customer1;
+import domain.shared.command.ChangeCustomerEmailAddress;
+import domain.shared.command.ConfirmCustomerEmailAddress;
+import domain.shared.command.RegisterCustomer;
+import domain.shared.value.ID;
+import infrastructure.eventstore.ConcurrencyConflictException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Customer1RepositoryTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void savesAndFindsACustomerAcrossReopening() throws Exception {
+        var register = RegisterCustomer.build("john@doe.com", "John", "Doe");
+
+        try (var repository = Customer1Repository.open(directory.resolve("customers.pages"))) {
+            var customer = Customer1.register(register);
+            assertEquals(1L, repository.save(customer));
+            assertEquals(0, customer.dirtyFields());
+
+            customer.confirmEmailAddress(ConfirmCustomerEmailAddress.build(register.customerID.value(), register.confirmationHash.value()));
+            assertEquals(2L, repository.save(customer));
+            repository.flush();
+        }
+
+        try (var repository = Customer1Repository.open(directory.resolve("customers.pages"))) {
+            var found = repository.find(register.customerID).orElseThrow();
+
+            assertEquals(1, repository.size());
+            assertEquals(register.customerID, found.id());
+            assertEquals(register.emailAddress, found.emailAddress());
+            assertEquals(register.confirmationHash, found.confirmationHash());
+            assertEquals(register.name, found.name());
+            assertTrue(found.isEmailAddressConfirmed());
+            assertEquals(2L, found.version());
+            assertEquals(0, found.dirtyFields());
+        }
+    }
+
+    @Test
+    void writesOnlyTheDirtyFields() throws Exception {
+        var register = RegisterCustomer.build("john@doe.com", "John", "Doe");
+
+        try (var repository = Customer1Repository.open(directory.resolve("customers.pages"))) {
+            var customer = Customer1.register(register);
+            repository.save(customer);
+            assertEquals((long) Customer1Repository.SLOT_SIZE, repository.bytesWritten());
+
+            customer.confirmEmailAddress(ConfirmCustomerEmailAddress.build(register.customerID.value(), register.confirmationHash.value()));
+            repository.save(customer);
+            assertEquals((long) Customer1Repository.SLOT_SIZE + 9 + 4, repository.bytesWritten());
+
+            var change = ChangeCustomerEmailAddress.build(register.customerID.value(), "john+changed@doe.com");
+            customer.changeEmailAddress(change);
+            repository.save(customer);
+            assertEquals((long) Customer1Repository.SLOT_SIZE + 9 + 4 + 2 + 20 + 16 + 9 + 4, repository.bytesWritten());
+
+            var found = repository.find(register.customerID).orElseThrow();
+            assertEquals(change.emailAddress, found.emailAddress());
+            assertEquals(change.confirmationHash, found.confirmationHash());
+            assertFalse(found.isEmailAddressConfirmed());
+            assertEquals(register.name, found.name());
+        }
+    }
+
+    @Test
+    void rejectsAStaleVersion() throws Exception {
+        var register = RegisterCustomer.build("john@doe.com", "John", "Doe");
+
+        try (var repository = Customer1Repository.open(directory.resolve("customers.pages"))) {
+            repository.save(Customer1.register(register));
+
+            var first = repository.find(register.customerID).orElseThrow();
+            var second = repository.find(register.customerID).orElseThrow();
+            first.changeEmailAddress(ChangeCustomerEmailAddress.build(register.customerID.value(), "john+first@doe.com"));
+            second.changeEmailAddress(ChangeCustomerEmailAddress.build(register.customerID.value(), "john+second@doe.com"));
+            repository.save(first);
+
+            var conflict = assertThrows(ConcurrencyConflictException.class, () -> repository.save(second));
+            assertEquals(1L, conflict.expectedVersion);
+            assertEquals(2L, conflict.actualVersion);
+            assertThrows(ConcurrencyConflictException.class, () -> repository.save(Customer1.register(register)));
+            assertEquals("john+first@doe.com", repository.find(register.customerID).orElseThrow().emailAddress().value);
+        }
+    }
+
+    @Test
+    void rejectsFieldsThatExceedTheirSlotWithoutWriting() throws Exception {
+        try (var repository = Customer1Repository.open(directory.resolve("customers.pages"))) {
+            var register = RegisterCustomer.build("john@doe.com", "John", "Doe");
+            var customer = Customer1.register(register);
+            repository.save(customer);
+            long written = repository.bytesWritten();
+
+            customer.changeEmailAddress(ChangeCustomerEmailAddress.build(register.customerID.value(), "j".repeat(300) + "@doe.com"));
+            assertThrows(IllegalArgumentException.class, () -> repository.save(customer));
+            assertEquals(written, repository.bytesWritten());
+            assertTrue(repository.find(register.customerID).isPresent());
+            assertFalse(repository.find(ID.generate()).isPresent());
+        }
+    }
+
+    @Test
+    void doesNotAllocateASlotForACustomerThatDoesNotFit() throws Exception {
+        var file = directory.resolve("customers.pages");
+        try (var repository = Customer1Repository.open(file)) {
+            var tooLarge = RegisterCustomer.build("j".repeat(300) + "@doe.com", "John", "Doe");
+            assertThrows(IllegalArgumentException.class, () -> repository.save(Customer1.register(tooLarge)));
+
+            repository.save(Customer1.register(RegisterCustomer.build("john@doe.com", "John", "Doe")));
+        }
+
+        assertEquals((long) Customer1Repository.SLOT_SIZE, Files.size(file));
+    }
+
+    @Test
+    void refusesToLoadARecordTornByACrash() throws Exception {
+        var file = directory.resolve("customers.pages");
+        var register = RegisterCustomer.build("john@doe.com", "John", "Doe");
+        try (var repository = Customer1Repository.open(file)) {
+            repository.save(Customer1.register(register));
+        }
+
+        try (var channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap("jane".getBytes(StandardCharsets.UTF_8)), Customer1Repository.EMAIL_ADDRESS_OFFSET + Short.BYTES);
+        }
+
+        try (var repository = Customer1Repository.open(file)) {
+            assertThrows(IllegalStateException.class, () -> repository.find(register.customerID));
+            var customer = Customer1.restore(register.customerID, register.emailAddress, register.confirmationHash, false, register.name, 1);
+            customer.changeEmailAddress(ChangeCustomerEmailAddress.build(register.customerID.value(), "john+changed@doe.com"));
+            assertThrows(IllegalStateException.class, () -> repository.save(customer));
+        }
+    }
+
+    @Test
+    void rollsBackADeltaWriteTornByACrashOnReload() throws Exception {
+        var file = directory.resolve("customers.pages");
+        var register = RegisterCustomer.build("john@doe.com", "John", "Doe");
+        try (var repository = Customer1Repository.open(file)) {
+            repository.save(Customer1.register(register));
+        }
+
+        var record = ByteBuffer.allocate(Customer1Repository.SLOT_SIZE);
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.read(record, 0);
+        }
+        try (var channel = FileChannel.open(Customer1Repository.undoFile(file), StandardOpenOption.WRITE)) {
+            long entryPosition = (long) Customer1Repository.stripe(register.customerID) * Customer1Repository.UNDO_SLOT_SIZE;
+            channel.write(Customer1Repository.beforeImage(0, record), entryPosition);
+        }
+        try (var channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap("jane".getBytes(StandardCharsets.UTF_8)), Customer1Repository.EMAIL_ADDRESS_OFFSET + Short.BYTES);
+        }
+
+        try (var repository = Customer1Repository.open(file)) {
+            var customer = repository.find(register.customerID).orElseThrow();
+            assertEquals(register.emailAddress, customer.emailAddress());
+            assertEquals(1L, customer.version());
+
+            customer.changeEmailAddress(ChangeCustomerEmailAddress.build(register.customerID.value(), "john+changed@doe.com"));
+            assertEquals(2L, repository.save(customer));
+        }
+        try (var repository = Customer1Repository.open(file)) {
+            assertEquals("john+changed@doe.com", repository.find(register.customerID).orElseThrow().emailAddress().value);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package infrastructure.serialization;
+
+import domain.shared.event.*;
+import domain.shared.value.EmailAddress;
+import domain.shared.value.Hash;
+import domain.shared.value.ID;
+import domain.shared.value.PersonName;
+import domain.shared.value.StringPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventCodecTest {
+    private ID customerID;
+    private EmailAddress emailAddress;
+    private Hash confirmationHash;
+    private PersonName name;
+
+    @BeforeEach
+    void beforeEach() {
+        customerID = ID.generate();
+        emailAddress = EmailAddress.build("j\u00f6hn+changed@doe.com");
+        confirmationHash = Hash.generate();
+        name = PersonName.build("J\u00f6hn \uD83D\uDE00", "Doe-\u0141ukasz");
+    }
+
+    @AfterEach
+    void afterEach() {
+        PersonName.usePool(StringPool.none());
+    }
+
+    @Test
+    void roundTripsCustomerRegistered() {
+        var decoded = (CustomerRegistered) roundTrip(CustomerRegistered.build(customerID, emailAddress, confirmationHash, name), false);
+
+        assertEquals(customerID, decoded.customerID);
+        assertEquals(emailAddress, decoded.emailAddress);
+        assertEquals(confirmationHash, decoded.confirmationHash);
+        assertEquals(name, decoded.name);
+    }
+
+    @Test
+    void roundTripsCustomerEmailAddressChangedThroughADirectBuffer() {
+        var decoded = (CustomerEmailAddressChanged) roundTrip(CustomerEmailAddressChanged.build(customerID, emailAddress, confirmationHash), true);
+
+        assertEquals(customerID, decoded.customerID);
+        assertEquals(emailAddress, decoded.emailAddress);
+        assertEquals(confirmationHash, decoded.confirmationHash);
+    }
+
+    @Test
+    void roundTripsTheRemainingEvents() {
+        assertEquals(customerID, ((CustomerEmailAddressConfirmed) roundTrip(CustomerEmailAddressConfirmed.build(customerID), false)).customerID);
+        assertEquals(customerID, ((CustomerEmailAddressConfirmationFailed) roundTrip(CustomerEmailAddressConfirmationFailed.build(customerID), true)).customerID);
+
+        var nameChanged = (CustomerNameChanged) roundTrip(CustomerNameChanged.build(customerID, name), false);
+        assertEquals(customerID, nameChanged.customerID);
+        assertEquals(name, nameChanged.name);
+    }
+
+    @Test
+    void decodesStringsIntoTheStringPoolInUse() {
+        var pool = StringPool.bounded(1024);
+        PersonName.usePool(pool);
+        var pooledName = PersonName.build(new String("John"), new String("Doe"));
+
+        var decoded = (CustomerRegistered) roundTrip(CustomerRegistered.build(customerID, EmailAddress.build("john@doe.com"), confirmationHash, PersonName.build("John", "Doe")), true);
+
+        assertSame(pooledName.givenName, decoded.name.givenName);
+        assertSame(pooledName.familyName, decoded.name.familyName);
+    }
+
+    @Test
+    void encodesIDsAndHashesAsSixteenBytes() {
+        var buffer = ByteBuffer.allocate(256);
+        EventCodec.encode(CustomerEmailAddressConfirmed.build(customerID), buffer);
+        assertEquals(1 + 16, buffer.position());
+
+        buffer.flip();
+        assertEquals(customerID, EventCodec.peekCustomerID(buffer));
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    void rejectsIDsAndHashesThatAreNotUUIDsInsteadOfLosingTheirText() {
+        var rawID = ID.build("not-a-uuid");
+        var rawHash = Hash.build("tampered");
+        var buffer = ByteBuffer.allocate(256);
+
+        assertFalse(rawID.isUUID());
+        assertThrows(IllegalArgumentException.class, () -> EventCodec.encode(CustomerEmailAddressConfirmed.build(rawID), buffer));
+        assertThrows(IllegalArgumentException.class, () -> EventCodec.encode(CustomerEmailAddressChanged.build(customerID, emailAddress, rawHash), buffer));
+        assertEquals(customerID, ((CustomerEmailAddressConfirmed) roundTrip(CustomerEmailAddressConfirmed.build(ID.build(customerID.value())), false)).customerID);
+    }
+
+    private static Event roundTrip(Event event, boolean direct) {
+        var buffer = direct ? ByteBuffer.allocateDirect(256) : ByteBuffer.allocate(256);
+        buffer.position(3);
+        EventCodec.encode(event, buffer);
+        int end = buffer.position();
+
+        buffer.position(3);
+        var decoded = EventCodec.decode(buffer.slice(3, end - 3));
+        assertSame(event.getClass(), decoded.getClass());
+
+        return decoded;
+    }
+}
@@ -0,0 +1,108 @@
+package infrastructure.serialization;
+
+import domain.functional.es.customer.CustomerState;
+import domain.shared.event.*;
+import domain.shared.value.EmailAddress;
+import domain.shared.value.Hash;
+import domain.shared.value.ID;
+import domain.shared.value.PersonName;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventViewTest {
+    private ID customerID;
+    private EmailAddress emailAddress;
+    private Hash confirmationHash;
+    private PersonName name;
+
+    @BeforeEach
+    void beforeEach() {
+        customerID = ID.generate();
+        emailAddress = EmailAddress.build("j\u00f6hn@doe.com");
+        confirmationHash = Hash.generate();
+        name = PersonName.build("J\u00f6hn", "Doe");
+    }
+
+    @Test
+    void readsTheFieldsOfCustomerRegistered() {
+        var view = viewOf(CustomerRegistered.build(customerID, emailAddress, confirmationHash, name), true);
+
+        assertEquals(Event.CUSTOMER_REGISTERED, view.type());
+        assertEquals(customerID, view.customerID());
+        assertEquals(emailAddress, view.emailAddress());
+        assertEquals(confirmationHash, view.confirmationHash());
+        assertTrue(view.hasConfirmationHash(confirmationHash));
+        assertFalse(view.hasConfirmationHash(Hash.generate()));
+        assertEquals(name, view.name());
+    }
+
+    @Test
+    void readsTheFieldsOfTheOtherEvents() {
+        var changed = viewOf(CustomerEmailAddressChanged.build(customerID, emailAddress, confirmationHash), false);
+        assertEquals(emailAddress, changed.emailAddress());
+        assertEquals(confirmationHash.mostSignificantBits(), changed.confirmationHashMostSignificantBits());
+        assertEquals(confirmationHash.leastSignificantBits(), changed.confirmationHashLeastSignificantBits());
+
+        assertEquals(name, viewOf(CustomerNameChanged.build(customerID, name), false).name());
+
+        var confirmed = viewOf(CustomerEmailAddressConfirmed.build(customerID), false);
+        assertEquals(customerID.mostSignificantBits(), confirmed.customerIDMostSignificantBits());
+        assertEquals(customerID.leastSignificantBits(), confirmed.customerIDLeastSignificantBits());
+        assertThrows(IllegalStateException.class, confirmed::confirmationHash);
+    }
+
+    @Test
+    void decodesTheFullEventOnRequest() {
+        var decoded = (CustomerEmailAddressChanged) viewOf(CustomerEmailAddressChanged.build(customerID, emailAddress, confirmationHash), true).decode();
+
+        assertEquals(customerID, decoded.customerID);
+        assertEquals(emailAddress, decoded.emailAddress);
+    }
+
+    @Test
+    void encodingCursorViewsEveryEvent() {
+        var longEmailAddress = EmailAddress.build("x".repeat(2000) + "@doe.com");
+        var cursor = EventViewCursor.encoding(List.<Event>of(
+                CustomerRegistered.build(customerID, longEmailAddress, confirmationHash, name),
+                CustomerEmailAddressConfirmed.build(customerID)
+        ).iterator());
+
+        assertTrue(cursor.advance());
+        assertEquals(longEmailAddress, cursor.view().emailAddress());
+        assertTrue(cursor.advance());
+        assertEquals(Event.CUSTOMER_EMAIL_ADDRESS_CONFIRMED, cursor.view().type());
+        assertFalse(cursor.advance());
+    }
+
+    @Test
+    void cursorDecodesIntoAnIteratorForExistingFolds() {
+        var events = List.<Event>of(
+                CustomerRegistered.build(customerID, emailAddress, confirmationHash, name),
+                CustomerEmailAddressConfirmed.build(customerID)
+        );
+
+        var iterator = EventViewCursor.encoding(events.iterator()).events();
+
+        assertTrue(iterator.hasNext());
+        assertTrue(iterator.hasNext());
+        assertEquals(confirmationHash, ((CustomerRegistered) iterator.next()).confirmationHash);
+        assertEquals(customerID, ((CustomerEmailAddressConfirmed) iterator.next()).customerID);
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::next);
+        assertEquals(2L, CustomerState.reconstitute(EventViewCursor.encoding(events.iterator()).events()).version());
+    }
+
+    private static EventView viewOf(Event event, boolean direct) {
+        var buffer = direct ? ByteBuffer.allocateDirect(256) : ByteBuffer.allocate(256);
+        buffer.position(5);
+        EventCodec.encode(event, buffer);
+
+        return new EventView().wrap(buffer, 5);
+    }
+}
@@ -0,0 +1,75 @@
+package infrastructure.snapshot;
+
+import domain.functional.es.customer.CustomerState;
+import domain.functional.es.customer.CustomerStateSnapshot;
+import domain.shared.event.CustomerEmailAddressChanged;
+import domain.shared.event.CustomerEmailAddressConfirmed;
+import domain.shared.event.CustomerRegistered;
+import domain.shared.value.EmailAddress;
+import domain.shared.value.Hash;
+import domain.shared.value.ID;
+import domain.shared.value.PersonName;
+import infrastructure.eventstore.InMemoryEventStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerStateLoaderTest {
+    private InMemoryEventStore eventStore;
+    private InMemorySnapshotStore snapshotStore;
+    private CustomerStateLoader loader;
+    private ID customerID;
+
+    @BeforeEach
+    void beforeEach() throws Exception {
+        eventStore = new InMemoryEventStore();
+        snapshotStore = new InMemorySnapshotStore();
+        loader = new CustomerStateLoader(eventStore, snapshotStore, SnapshotPolicy.everyNEvents(3));
+        customerID = ID.generate();
+
+        eventStore.append(customerID, 0, List.of(CustomerRegistered.build(
+                customerID,
+                EmailAddress.build("john@doe.com"),
+                Hash.generate(),
+                PersonName.build("John", "Doe")
+        )));
+    }
+
+    @Test
+    void takesASnapshotOnceThePolicyIsSatisfied() throws Exception {
+        loader.load(customerID);
+        assertTrue(snapshotStore.load(customerID).isEmpty());
+
+        appendEmailAddressChanges(1);
+        loader.load(customerID);
+
+        var snapshot = CustomerStateSnapshot.fromBytes(snapshotStore.load(customerID).orElseThrow());
+        assertEquals(3, snapshot.version);
+    }
+
+    @Test
+    void loadsTheSameStateAsAFullReplay() throws Exception {
+        appendEmailAddressChanges(4);
+        loader.load(customerID);
+        appendEmailAddressChanges(2);
+
+        var loaded = loader.load(customerID);
+        var replayed = CustomerState.reconstitute(eventStore.load(customerID));
+
+        assertEquals(replayed.version(), loaded.version());
+        assertArrayEquals(replayed.snapshot().toBytes(), loaded.snapshot().toBytes());
+    }
+
+    private void appendEmailAddressChanges(int count) throws Exception {
+        for (int i = 0; i < count; i++) {
+            long version = eventStore.streamVersion(customerID);
+            eventStore.append(customerID, version, List.of(
+                    CustomerEmailAddressChanged.build(customerID, EmailAddress.build("john+" + version + "@doe.com"), Hash.generate()),
+                    CustomerEmailAddressConfirmed.build(customerID)
+            ));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package infrastructure.snapshot;
+
+import domain.oop.es.customer.CustomerMemento;
+import domain.shared.event.CustomerEmailAddressChanged;
+import domain.shared.event.CustomerRegistered;
+import domain.shared.value.EmailAddress;
+import domain.shared.value.Hash;
+import domain.shared.value.ID;
+import domain.shared.value.PersonName;
+import infrastructure.eventstore.InMemoryEventStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshottingCustomerLoaderTest {
+    private InMemoryEventStore eventStore;
+    private InMemorySnapshotStore snapshotStore;
+    private ArrayDeque<Runnable> pendingWrites;
+    private ID customerID;
+
+    @BeforeEach
+    void beforeEach() throws Exception {
+        eventStore = new InMemoryEventStore();
+        snapshotStore = new InMemorySnapshotStore();
+        pendingWrites = new ArrayDeque<>();
+        customerID = ID.generate();
+
+        eventStore.append(customerID, 0, List.of(CustomerRegistered.build(
+                customerID,
+                EmailAddress.build("john@doe.com"),
+                Hash.generate(),
+                PersonName.build("John", "Doe")
+        )));
+        for (int i = 0; i < 9; i++) {
+            eventStore.append(customerID, i + 1, List.of(
+                    CustomerEmailAddressChanged.build(customerID, EmailAddress.build("john+" + i + "@doe.com"), Hash.generate())
+            ));
+        }
+    }
+
+    @Test
+    void writesTheSnapshotAsynchronouslyOnceTheReplayIsLongEnough() {
+        var writer = new AsyncSnapshotWriter(snapshotStore, SnapshotPolicy.everyNEvents(10), pendingWrites::add);
+        var loader = SnapshottingCustomerLoader.forCustomer4(eventStore, snapshotStore, writer);
+
+        loader.load(customerID);
+        loader.load(customerID);
+
+        assertEquals(1, pendingWrites.size(), "only one snapshot per customer should be in flight");
+        assertTrue(snapshotStore.load(customerID).isEmpty());
+
+        pendingWrites.poll().run();
+
+        assertEquals(10, CustomerMemento.fromBytes(snapshotStore.load(customerID).orElseThrow()).version);
+    }
+
+    @Test
+    void replaysOnlyTheEventsAfterTheSnapshot() throws Exception {
+        var writer = new AsyncSnapshotWriter(snapshotStore, SnapshotPolicy.everyNEvents(5), Runnable::run);
+        var loader = SnapshottingCustomerLoader.forCustomer3(eventStore, snapshotStore, writer);
+        loader.load(customerID);
+
+        eventStore.append(customerID, 10, List.of(
+                CustomerEmailAddressChanged.build(customerID, EmailAddress.build("john+new@doe.com"), Hash.generate())
+        ));
+        var customer = loader.load(customerID);
+
+        assertEquals(11, customer.memento().version);
+        assertEquals(10, CustomerMemento.fromBytes(snapshotStore.load(customerID).orElseThrow()).version);
+    }
+}